@@ -1,5 +1,6 @@
 package edu.ccrm.config;
 
+import edu.ccrm.io.WriteAheadLog;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -24,6 +25,12 @@ public class AppConfig {
     private Path exportDirectory = Paths.get("exports");
     private int maxCreditsPerSemester = 20;
     private String dateFormat = "yyyy-MM-dd";
+    private boolean journalEnabled = true;
+    private WriteAheadLog.SyncPolicy journalSyncPolicy = WriteAheadLog.SyncPolicy.BATCHED;
+    private long journalSyncIntervalMillis = 50;
+    private long checkpointRecordThreshold = 100_000;
+    private long checkpointIntervalMillis = 10_000;
+    private int snapshotsToKeep = 2;
     
     // Private constructor for singleton
     private AppConfig() {
@@ -87,6 +94,62 @@ public class AppConfig {
         return dateFormat;
     }
     
+    public boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+    
+    public void setJournalEnabled(boolean journalEnabled) {
+        this.journalEnabled = journalEnabled;
+    }
+    
+    public Path getJournalDirectory() {
+        return dataDirectory.resolve("journal");
+    }
+    
+    public Path getSnapshotDirectory() {
+        return dataDirectory;
+    }
+    
+    public WriteAheadLog.SyncPolicy getJournalSyncPolicy() {
+        return journalSyncPolicy;
+    }
+    
+    public void setJournalSyncPolicy(WriteAheadLog.SyncPolicy journalSyncPolicy) {
+        this.journalSyncPolicy = journalSyncPolicy;
+    }
+    
+    public long getJournalSyncIntervalMillis() {
+        return journalSyncIntervalMillis;
+    }
+    
+    public void setJournalSyncIntervalMillis(long journalSyncIntervalMillis) {
+        this.journalSyncIntervalMillis = journalSyncIntervalMillis;
+    }
+    
+    public long getCheckpointRecordThreshold() {
+        return checkpointRecordThreshold;
+    }
+    
+    public void setCheckpointRecordThreshold(long checkpointRecordThreshold) {
+        this.checkpointRecordThreshold = checkpointRecordThreshold;
+    }
+    
+    public long getCheckpointIntervalMillis() {
+        return checkpointIntervalMillis;
+    }
+    
+    public void setCheckpointIntervalMillis(long checkpointIntervalMillis) {
+        this.checkpointIntervalMillis = checkpointIntervalMillis;
+    }
+    
+    public int getSnapshotsToKeep() {
+        return snapshotsToKeep;
+    }
+    
+    public void setSnapshotsToKeep(int snapshotsToKeep) {
+        this.snapshotsToKeep = snapshotsToKeep;
+    }
+    
     public void printConfiguration() {
         System.out.println("=== Application Configuration ===");
         System.out.println("Application: " + applicationName);
@@ -96,6 +159,11 @@ public class AppConfig {
         System.out.println("Export Directory: " + exportDirectory);
         System.out.println("Max Credits/Semester: " + maxCreditsPerSemester);
         System.out.println("Date Format: " + dateFormat);
+        System.out.println("Journal: " + (journalEnabled ? getJournalDirectory() + " (" + journalSyncPolicy + ")" : "disabled"));
+        if (journalEnabled) {
+            System.out.println("Checkpoint: every " + checkpointRecordThreshold + " changes, keeping " +
+                             snapshotsToKeep + " snapshots");
+        }
         System.out.println("=".repeat(35));
     }
 }
\ No newline at end of file
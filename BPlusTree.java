@@ -0,0 +1,407 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * B+-tree over the pages of a PageFile, mapping byte-string keys to
+ * byte-string values in unsigned lexicographic key order
+ * Values are stored in the leaves and leaves are chained for ordered scans.
+ * Decoded nodes are kept in an LRU cache of bounded size; modified nodes are
+ * written back to their page when evicted or on flush, so the heap used is
+ * bounded by the cache size no matter how large the tree grows.
+ *
+ * Removal does not merge underfull nodes; their space is reused by later
+ * inserts into the same key range. Not thread-safe; callers serialize access.
+ */
+public class BPlusTree {
+
+    public static final int MAX_KEY_BYTES = 256;
+    public static final int MAX_VALUE_BYTES = 1024;
+
+    private static final byte LEAF = 1;
+    private static final byte INTERNAL = 2;
+    private static final int HEADER_BYTES = 7; // type, entry count, next leaf
+
+    private final PageFile file;
+    private final int slot;
+    private final int cacheCapacity;
+    private final LinkedHashMap<Integer, Node> cache;
+    private long cacheHits;
+    private long cacheMisses;
+
+    /**
+     * Open the tree recorded in the given root slot of the file, creating an
+     * empty one if the slot is unused
+     */
+    public BPlusTree(PageFile file, int slot, int cachePages) throws IOException {
+        if (slot < 0 || slot >= PageFile.MAX_ROOTS) {
+            throw new IllegalArgumentException("Invalid root slot: " + slot);
+        }
+        if (cachePages < 8) {
+            throw new IllegalArgumentException("Page cache must hold at least 8 pages");
+        }
+
+        this.file = file;
+        this.slot = slot;
+        this.cacheCapacity = cachePages;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Node> eldest) {
+                if (size() <= cacheCapacity) {
+                    return false;
+                }
+                writeBack(eldest.getValue());
+                return true;
+            }
+        };
+
+        if (file.getRoot(slot) == 0) {
+            Node root = new Node(file.allocatePage(), true);
+            markDirty(root);
+            file.setRoot(slot, root.page);
+            file.setCount(slot, 0);
+        }
+    }
+
+    /**
+     * Value stored under the key, or null if absent
+     */
+    public byte[] get(byte[] key) {
+        Node node = load(file.getRoot(slot));
+        while (!node.leaf) {
+            node = load(node.children.get(childIndex(node, key)));
+        }
+
+        int index = search(node.keys, key);
+        return index >= 0 ? node.values.get(index) : null;
+    }
+
+    /**
+     * Store the value under the key, returning the value it replaced or null
+     */
+    public byte[] put(byte[] key, byte[] value) {
+        if (key.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Key too long: " + key.length + " bytes");
+        }
+        if (value.length > MAX_VALUE_BYTES) {
+            throw new IllegalArgumentException("Value too long: " + value.length + " bytes");
+        }
+
+        byte[][] previous = new byte[1][];
+        Split split = insert(file.getRoot(slot), key, value, previous);
+        if (split != null) {
+            // The root split: grow the tree by one level
+            Node root = new Node(file.allocatePage(), false);
+            root.children.add(file.getRoot(slot));
+            root.keys.add(split.key);
+            root.children.add(split.rightPage);
+            root.bytes += 2 + split.key.length + 4;
+            markDirty(root);
+            file.setRoot(slot, root.page);
+        }
+
+        if (previous[0] == null) {
+            file.setCount(slot, file.getCount(slot) + 1);
+        }
+        return previous[0];
+    }
+
+    /**
+     * Remove the key, returning the value it had or null if absent
+     */
+    public byte[] remove(byte[] key) {
+        Node node = load(file.getRoot(slot));
+        while (!node.leaf) {
+            node = load(node.children.get(childIndex(node, key)));
+        }
+
+        int index = search(node.keys, key);
+        if (index < 0) {
+            return null;
+        }
+
+        node.bytes -= 4 + node.keys.get(index).length + node.values.get(index).length;
+        node.keys.remove(index);
+        byte[] removed = node.values.remove(index);
+        markDirty(node);
+        file.setCount(slot, file.getCount(slot) - 1);
+        return removed;
+    }
+
+    /**
+     * Visit every entry in key order
+     */
+    public void forEach(BiConsumer<byte[], byte[]> action) {
+        Node node = load(file.getRoot(slot));
+        while (!node.leaf) {
+            node = load(node.children.get(0));
+        }
+
+        while (true) {
+            // Copy the references first: the action may touch the tree and
+            // evict this leaf from the cache
+            List<byte[]> keys = new ArrayList<>(node.keys);
+            List<byte[]> values = new ArrayList<>(node.values);
+            int next = node.next;
+            for (int i = 0; i < keys.size(); i++) {
+                action.accept(keys.get(i), values.get(i));
+            }
+            if (next == 0) {
+                return;
+            }
+            node = load(next);
+        }
+    }
+
+    public long size() {
+        return file.getCount(slot);
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Write every modified cached node back to its page
+     */
+    public void flush() {
+        for (Node node : cache.values()) {
+            writeBack(node);
+        }
+    }
+
+    private Split insert(int pageNo, byte[] key, byte[] value, byte[][] previous) {
+        Node node = load(pageNo);
+        if (node.leaf) {
+            int index = search(node.keys, key);
+            if (index >= 0) {
+                previous[0] = node.values.get(index);
+                node.bytes += value.length - previous[0].length;
+                node.values.set(index, value);
+            } else {
+                index = -index - 1;
+                node.keys.add(index, key);
+                node.values.add(index, value);
+                node.bytes += 4 + key.length + value.length;
+            }
+            markDirty(node);
+            return node.bytes > PageFile.PAGE_SIZE ? splitLeaf(node) : null;
+        }
+
+        int index = childIndex(node, key);
+        Split split = insert(node.children.get(index), key, value, previous);
+        if (split == null) {
+            return null;
+        }
+
+        node.keys.add(index, split.key);
+        node.children.add(index + 1, split.rightPage);
+        node.bytes += 2 + split.key.length + 4;
+        markDirty(node);
+        return node.bytes > PageFile.PAGE_SIZE ? splitInternal(node) : null;
+    }
+
+    private Split splitLeaf(Node node) {
+        // Move the upper half (by bytes) into a new right sibling
+        int half = node.bytes / 2;
+        int moved = HEADER_BYTES;
+        int from = node.keys.size();
+        while (from > 1 && moved < half) {
+            from--;
+            moved += 4 + node.keys.get(from).length + node.values.get(from).length;
+        }
+
+        Node right = new Node(file.allocatePage(), true);
+        moveTail(node.keys, from, right.keys);
+        moveTail(node.values, from, right.values);
+        right.bytes = moved;
+        node.bytes -= moved - HEADER_BYTES;
+        right.next = node.next;
+        node.next = right.page;
+        markDirty(right);
+        markDirty(node);
+        return new Split(right.keys.get(0), right.page);
+    }
+
+    private Split splitInternal(Node node) {
+        int middle = node.keys.size() / 2;
+        byte[] separator = node.keys.get(middle);
+
+        Node right = new Node(file.allocatePage(), false);
+        moveTail(node.keys, middle + 1, right.keys);
+        moveTail(node.children, middle + 1, right.children);
+        node.keys.remove(middle);
+        node.bytes = internalBytes(node);
+        right.bytes = internalBytes(right);
+        markDirty(right);
+        markDirty(node);
+        return new Split(separator, right.page);
+    }
+
+    private static <T> void moveTail(List<T> from, int start, List<T> to) {
+        List<T> tail = from.subList(start, from.size());
+        to.addAll(tail);
+        tail.clear();
+    }
+
+    private static int internalBytes(Node node) {
+        int bytes = HEADER_BYTES + 4;
+        for (byte[] key : node.keys) {
+            bytes += 2 + key.length + 4;
+        }
+        return bytes;
+    }
+
+    // Index of the child whose subtree holds the key
+    private static int childIndex(Node node, byte[] key) {
+        int index = search(node.keys, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static int search(List<byte[]> keys, byte[] key) {
+        int low = 0;
+        int high = keys.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Arrays.compareUnsigned(keys.get(mid), key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    // Mark a node modified, putting it back in the cache if it was evicted
+    // while the caller still held it
+    private void markDirty(Node node) {
+        node.dirty = true;
+        cache.put(node.page, node);
+    }
+
+    private Node load(int pageNo) {
+        Node node = cache.get(pageNo);
+        if (node != null) {
+            cacheHits++;
+            return node;
+        }
+
+        cacheMisses++;
+        node = decode(pageNo, page(pageNo));
+        cache.put(pageNo, node);
+        return node;
+    }
+
+    private ByteBuffer page(int pageNo) {
+        try {
+            return file.page(pageNo);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map page " + pageNo + " of " + file.getPath(), e);
+        }
+    }
+
+    private Node decode(int pageNo, ByteBuffer buffer) {
+        byte type = buffer.get();
+        int count = buffer.getShort() & 0xFFFF;
+        int next = buffer.getInt();
+        if (type != LEAF && type != INTERNAL) {
+            throw new IllegalStateException("Corrupt page " + pageNo + " in " + file.getPath());
+        }
+
+        Node node = new Node(pageNo, type == LEAF);
+        node.next = next;
+        if (node.leaf) {
+            for (int i = 0; i < count; i++) {
+                node.keys.add(readBytes(buffer));
+                node.values.add(readBytes(buffer));
+            }
+        } else {
+            node.children.add(buffer.getInt());
+            for (int i = 0; i < count; i++) {
+                node.keys.add(readBytes(buffer));
+                node.children.add(buffer.getInt());
+            }
+        }
+        node.bytes = buffer.position();
+        return node;
+    }
+
+    private void writeBack(Node node) {
+        if (!node.dirty) {
+            return;
+        }
+
+        ByteBuffer buffer = page(node.page);
+        buffer.put(node.leaf ? LEAF : INTERNAL);
+        buffer.putShort((short) node.keys.size());
+        buffer.putInt(node.next);
+        if (node.leaf) {
+            for (int i = 0; i < node.keys.size(); i++) {
+                writeBytes(buffer, node.keys.get(i));
+                writeBytes(buffer, node.values.get(i));
+            }
+        } else {
+            buffer.putInt(node.children.get(0));
+            for (int i = 0; i < node.keys.size(); i++) {
+                writeBytes(buffer, node.keys.get(i));
+                buffer.putInt(node.children.get(i + 1));
+            }
+        }
+        node.dirty = false;
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void writeBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static final class Node {
+        final int page;
+        final boolean leaf;
+        final List<byte[]> keys = new ArrayList<>();
+        final List<byte[]> values = new ArrayList<>();
+        final List<Integer> children = new ArrayList<>();
+        int next;
+        int bytes = HEADER_BYTES;
+        boolean dirty;
+
+        Node(int page, boolean leaf) {
+            this.page = page;
+            this.leaf = leaf;
+            if (!leaf) {
+                bytes += 4; // First child pointer
+            }
+        }
+    }
+
+    private static final class Split {
+        final byte[] key;
+        final int rightPage;
+
+        Split(byte[] key, int rightPage) {
+            this.key = key;
+            this.rightPage = rightPage;
+        }
+    }
+}
\ No newline at end of file
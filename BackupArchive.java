@@ -0,0 +1,371 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Single-file compressed backup archive (.ccrmz)
+ *
+ * Layout:
+ *   [header: fixed 64 bytes] [entry data ...] [directory]
+ *
+ * The header holds the entry count, total original and compressed sizes,
+ * creation time and the directory position, so size queries read 64 bytes
+ * and a listing reads the header plus the directory - never the data.
+ * Each directory entry records path, data offset, sizes, modification time
+ * and a CRC32 of the original bytes that is verified on extraction.
+ *
+ * Source files are memory-mapped and deflated straight into a direct buffer
+ * that is written to the archive's FileChannel, so file contents are never
+ * copied into intermediate heap arrays.
+ */
+public class BackupArchive {
+
+    public static final String EXTENSION = ".ccrmz";
+
+    private static final int MAGIC = 0x43435A31; // "CCZ1"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+
+    /**
+     * Archive-level metadata stored in the fixed header
+     */
+    public static class Header {
+        private final int entryCount;
+        private final long originalSize;
+        private final long compressedSize;
+        private final long createdMillis;
+        private final long directoryOffset;
+        private final int directoryLength;
+
+        Header(int entryCount, long originalSize, long compressedSize,
+               long createdMillis, long directoryOffset, int directoryLength) {
+            this.entryCount = entryCount;
+            this.originalSize = originalSize;
+            this.compressedSize = compressedSize;
+            this.createdMillis = createdMillis;
+            this.directoryOffset = directoryOffset;
+            this.directoryLength = directoryLength;
+        }
+
+        public int getEntryCount() { return entryCount; }
+        public long getOriginalSize() { return originalSize; }
+        public long getCompressedSize() { return compressedSize; }
+        public long getCreatedMillis() { return createdMillis; }
+
+        public double getCompressionRatio() {
+            return originalSize > 0 ? (double) compressedSize / originalSize : 1.0;
+        }
+    }
+
+    /**
+     * One file stored in the archive
+     */
+    public static class Entry {
+        private final String path;
+        private final long dataOffset;
+        private final long compressedSize;
+        private final long originalSize;
+        private final long lastModified;
+        private final int crc;
+
+        Entry(String path, long dataOffset, long compressedSize, long originalSize, long lastModified, int crc) {
+            this.path = path;
+            this.dataOffset = dataOffset;
+            this.compressedSize = compressedSize;
+            this.originalSize = originalSize;
+            this.lastModified = lastModified;
+            this.crc = crc;
+        }
+
+        public String getPath() { return path; }
+        public long getCompressedSize() { return compressedSize; }
+        public long getOriginalSize() { return originalSize; }
+        public long getLastModified() { return lastModified; }
+    }
+
+    // Private constructor to prevent instantiation
+    private BackupArchive() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Compress every regular file under sourceDirectory into one archive
+     */
+    public static Header write(Path sourceDirectory, Path archiveFile) throws IOException {
+        List<Path> files;
+        if (Files.exists(sourceDirectory)) {
+            try (Stream<Path> stream = Files.walk(sourceDirectory)) {
+                files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+        } else {
+            files = Collections.emptyList();
+        }
+
+        Path tempFile = archiveFile.resolveSibling(archiveFile.getFileName() + ".tmp");
+        List<Entry> entries = new ArrayList<>(files.size());
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long originalTotal = 0;
+        long compressedTotal = 0;
+        Header header;
+
+        try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.position(HEADER_SIZE); // Header is filled in once totals are known
+
+            for (Path file : files) {
+                String relativePath = sourceDirectory.relativize(file).toString().replace('\\', '/');
+                long dataOffset = out.position();
+                CRC32 crc = new CRC32();
+                long originalSize;
+
+                deflater.reset();
+                try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                    originalSize = in.size();
+                    for (long position = 0; position < originalSize; position += MAP_WINDOW) {
+                        MappedByteBuffer input = in.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(MAP_WINDOW, originalSize - position));
+                        crc.update(input.duplicate());
+                        deflater.setInput(input);
+                        while (!deflater.needsInput()) {
+                            drain(deflater, output, out);
+                        }
+                    }
+                }
+                deflater.finish();
+                while (!deflater.finished()) {
+                    drain(deflater, output, out);
+                }
+
+                long compressedSize = out.position() - dataOffset;
+                entries.add(new Entry(relativePath, dataOffset, compressedSize, originalSize,
+                    Files.getLastModifiedTime(file).toMillis(), (int) crc.getValue()));
+                originalTotal += originalSize;
+                compressedTotal += compressedSize;
+            }
+
+            long directoryOffset = out.position();
+            ByteBuffer directory = encodeDirectory(entries);
+            int directoryLength = directory.remaining();
+            writeFully(out, directory);
+
+            header = new Header(entries.size(), originalTotal, compressedTotal,
+                System.currentTimeMillis(), directoryOffset, directoryLength);
+            ByteBuffer headerBuffer = encodeHeader(header);
+            while (headerBuffer.hasRemaining()) {
+                out.write(headerBuffer, headerBuffer.position());
+            }
+            out.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        } finally {
+            deflater.end();
+        }
+
+        // Only a complete archive ever appears under the final name
+        Files.move(tempFile, archiveFile, StandardCopyOption.ATOMIC_MOVE);
+        return header;
+    }
+
+    private static void drain(Deflater deflater, ByteBuffer output, FileChannel out) throws IOException {
+        output.clear();
+        deflater.deflate(output);
+        output.flip();
+        writeFully(out, output);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer encodeHeader(Header header) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) 0); // Reserved flags
+        buffer.putInt(header.entryCount);
+        buffer.putLong(header.originalSize);
+        buffer.putLong(header.compressedSize);
+        buffer.putLong(header.createdMillis);
+        buffer.putLong(header.directoryOffset);
+        buffer.putInt(header.directoryLength);
+        buffer.position(HEADER_SIZE); // Remaining bytes reserved (zero)
+        buffer.flip();
+        return buffer;
+    }
+
+    private static ByteBuffer encodeDirectory(List<Entry> entries) {
+        List<byte[]> paths = new ArrayList<>(entries.size());
+        int size = 0;
+        for (Entry entry : entries) {
+            byte[] path = entry.path.getBytes(StandardCharsets.UTF_8);
+            if (path.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Path too long for archive: " + entry.path);
+            }
+            paths.add(path);
+            size += 2 + path.length + 8 * 4 + 4;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            byte[] path = paths.get(i);
+            buffer.putShort((short) path.length);
+            buffer.put(path);
+            buffer.putLong(entry.dataOffset);
+            buffer.putLong(entry.compressedSize);
+            buffer.putLong(entry.originalSize);
+            buffer.putLong(entry.lastModified);
+            buffer.putInt(entry.crc);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Read only the fixed-size header
+     */
+    public static Header readHeader(Path archiveFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(archiveFile, StandardOpenOption.READ)) {
+            return readHeader(channel);
+        }
+    }
+
+    private static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, buffer, 0);
+        buffer.flip();
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a CCRM backup archive");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported backup archive version: " + version);
+        }
+        buffer.getShort(); // Reserved flags
+
+        return new Header(buffer.getInt(), buffer.getLong(), buffer.getLong(),
+            buffer.getLong(), buffer.getLong(), buffer.getInt());
+    }
+
+    /**
+     * Read the header and entry directory (no entry data is touched)
+     */
+    public static List<Entry> listEntries(Path archiveFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(archiveFile, StandardOpenOption.READ)) {
+            return readDirectory(channel, readHeader(channel));
+        }
+    }
+
+    private static List<Entry> readDirectory(FileChannel channel, Header header) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(header.directoryLength);
+        readFully(channel, buffer, header.directoryOffset);
+        buffer.flip();
+
+        List<Entry> entries = new ArrayList<>(header.entryCount);
+        for (int i = 0; i < header.entryCount; i++) {
+            byte[] path = new byte[buffer.getShort()];
+            buffer.get(path);
+            entries.add(new Entry(new String(path, StandardCharsets.UTF_8), buffer.getLong(),
+                buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getInt()));
+        }
+        return entries;
+    }
+
+    /**
+     * Extract every entry into targetDirectory, verifying sizes and checksums
+     * @return number of files extracted
+     */
+    public static int extract(Path archiveFile, Path targetDirectory) throws IOException {
+        Path root = targetDirectory.toAbsolutePath().normalize();
+        Inflater inflater = new Inflater(true);
+        ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        try (FileChannel channel = FileChannel.open(archiveFile, StandardOpenOption.READ)) {
+            List<Entry> entries = readDirectory(channel, readHeader(channel));
+
+            for (Entry entry : entries) {
+                Path target = root.resolve(entry.path).normalize();
+                if (!target.startsWith(root)) {
+                    throw new IOException("Archive path escapes target directory: " + entry.path);
+                }
+                Files.createDirectories(target.getParent());
+
+                inflater.reset();
+                CRC32 crc = new CRC32();
+                long written = 0;
+                long position = entry.dataOffset;
+                long end = entry.dataOffset + entry.compressedSize;
+
+                try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    while (!inflater.finished()) {
+                        if (inflater.needsInput()) {
+                            if (position >= end) {
+                                throw new IOException("Truncated entry: " + entry.path);
+                            }
+                            input.clear();
+                            input.limit((int) Math.min(input.capacity(), end - position));
+                            position += channel.read(input, position);
+                            input.flip();
+                            inflater.setInput(input);
+                        }
+
+                        output.clear();
+                        inflater.inflate(output);
+                        output.flip();
+                        crc.update(output.duplicate());
+                        written += output.remaining();
+                        writeFully(out, output);
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException("Corrupt entry " + entry.path + ": " + e.getMessage(), e);
+                }
+
+                if (written != entry.originalSize || (int) crc.getValue() != entry.crc) {
+                    throw new IOException("Checksum mismatch for " + entry.path);
+                }
+                Files.setLastModifiedTime(target, FileTime.fromMillis(entry.lastModified));
+            }
+            return entries.size();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of archive");
+            }
+            position += read;
+        }
+    }
+}
\ No newline at end of file
@@ -1,9 +1,20 @@
 package edu.ccrm.io;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -14,10 +25,25 @@ public class BackupService {
     
     private final Path backupRootPath;
     private final Path dataPath;
+    private final Path chunkStorePath;
+    private final ParallelFileTreeOps fileOps;
+    
+    // One background thread, so async backups and cleanups never overlap
+    private final ExecutorService backgroundExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ccrm-backup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private static final String MANIFEST_SUFFIX = ".manifest";
+    private static final String MANIFEST_HEADER = "# CCRM incremental snapshot v1";
     
     public BackupService() {
         this.backupRootPath = Paths.get("backups");
         this.dataPath = Paths.get("exports");
+        this.chunkStorePath = backupRootPath.resolve("chunks");
+        this.fileOps = new ParallelFileTreeOps(ParallelFileTreeOps.DEFAULT_PARALLELISM,
+            (done, total) -> System.out.println("Progress: " + done + "/" + total + " files"));
         
         try {
             Files.createDirectories(backupRootPath);
@@ -49,25 +75,381 @@ public class BackupService {
     }
     
     /**
-     * Recursively copy directory contents
-     * Demonstrates recursive file operations and NIO.2 copy methods
+     * Reads the files of a backup once they are available as a directory
      */
-    private void copyDirectoryRecursively(Path source, Path target) throws IOException {
-        try (Stream<Path> stream = Files.walk(source)) {
-            stream.forEach(sourcePath -> {
-                try {
-                    Path targetPath = target.resolve(source.relativize(sourcePath));
-                    
-                    if (Files.isDirectory(sourcePath)) {
-                        Files.createDirectories(targetPath);
-                    } else {
-                        Files.copy(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+    @FunctionalInterface
+    public interface SnapshotReader<T> {
+        T read(Path snapshotDirectory) throws IOException;
+    }
+    
+    /**
+     * Give the reader the files of any kind of backup as a plain directory.
+     * Directory backups are read in place; archive and incremental backups
+     * are unpacked into a temporary directory that is deleted afterwards.
+     */
+    public <T> T withSnapshotDirectory(String backupName, SnapshotReader<T> reader) throws IOException {
+        Path directory = backupRootPath.resolve(backupName);
+        if (Files.isDirectory(directory)) {
+            return reader.read(directory);
+        }
+        
+        Path archive = backupRootPath.resolve(backupName.endsWith(BackupArchive.EXTENSION) ? 
+            backupName : backupName + BackupArchive.EXTENSION);
+        Path manifest = backupRootPath.resolve(backupName.endsWith(MANIFEST_SUFFIX) ? 
+            backupName : backupName + MANIFEST_SUFFIX);
+        if (!Files.exists(archive) && !Files.exists(manifest)) {
+            throw new IOException("Backup not found: " + backupName);
+        }
+        
+        Path tempDirectory = Files.createTempDirectory("ccrm-restore");
+        try {
+            if (Files.exists(archive)) {
+                BackupArchive.extract(archive, tempDirectory);
+            } else {
+                restoreIncrementalBackup(manifest.getFileName().toString(), tempDirectory);
+            }
+            return reader.read(tempDirectory);
+        } finally {
+            deleteDirectoryRecursively(tempDirectory);
+        }
+    }
+    
+    /**
+     * Run createBackup on the background thread so the caller is not blocked
+     */
+    public CompletableFuture<Path> createBackupAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return createBackup();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, backgroundExecutor);
+    }
+    
+    /**
+     * Run cleanupOldBackups on the background thread so the caller is not blocked
+     */
+    public CompletableFuture<Void> cleanupOldBackupsAsync(int keepCount) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                cleanupOldBackups(keepCount);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, backgroundExecutor);
+    }
+    
+    /**
+     * Create a backup as one compressed archive (backup_<timestamp>.ccrmz)
+     * instead of a directory of raw copies
+     */
+    public Path createArchiveBackup() throws IOException {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        Path archiveFile = backupRootPath.resolve("backup_" + timestamp + BackupArchive.EXTENSION);
+        
+        BackupArchive.Header header = BackupArchive.write(dataPath, archiveFile);
+        
+        System.out.println("Archive backup created: " + archiveFile);
+        System.out.println("Files: " + header.getEntryCount() + ", size: " + 
+                         formatFileSize(header.getOriginalSize()) + " -> " + 
+                         formatFileSize(header.getCompressedSize()) + 
+                         String.format(" (%.0f%%)", header.getCompressionRatio() * 100));
+        return archiveFile;
+    }
+    
+    /**
+     * Extract an archive backup into the given directory, verifying checksums
+     */
+    public void restoreArchiveBackup(String archiveName, Path targetDirectory) throws IOException {
+        Path archiveFile = backupRootPath.resolve(
+            archiveName.endsWith(BackupArchive.EXTENSION) ? archiveName : archiveName + BackupArchive.EXTENSION);
+        if (!Files.exists(archiveFile)) {
+            throw new IOException("Archive not found: " + archiveName);
+        }
+        
+        int restored = BackupArchive.extract(archiveFile, targetDirectory);
+        System.out.println("Restored " + restored + " files from " + archiveFile.getFileName() + 
+                         " to " + targetDirectory);
+    }
+    
+    /**
+     * List the files inside an archive backup (reads only header and directory)
+     */
+    public void listArchiveContents(String archiveName) throws IOException {
+        Path archiveFile = backupRootPath.resolve(
+            archiveName.endsWith(BackupArchive.EXTENSION) ? archiveName : archiveName + BackupArchive.EXTENSION);
+        
+        System.out.println("\n=== " + archiveFile.getFileName() + " ===");
+        for (BackupArchive.Entry entry : BackupArchive.listEntries(archiveFile)) {
+            System.out.println(entry.getPath() + " - " + formatFileSize(entry.getOriginalSize()) + 
+                             " (" + formatFileSize(entry.getCompressedSize()) + " compressed)");
+        }
+    }
+    
+    /**
+     * One file in an incremental snapshot manifest
+     */
+    private static class ManifestEntry {
+        final String hash;
+        final long size;
+        final long lastModified;
+        final String relativePath;
+        
+        ManifestEntry(String hash, long size, long lastModified, String relativePath) {
+            this.hash = hash;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.relativePath = relativePath;
+        }
+        
+        static ManifestEntry parse(String line) {
+            String[] parts = line.split("\t", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed manifest line: " + line);
+            }
+            return new ManifestEntry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3]);
+        }
+        
+        String format() {
+            return hash + "\t" + size + "\t" + lastModified + "\t" + relativePath;
+        }
+    }
+    
+    /**
+     * Create an incremental, content-addressed backup of all export files
+     * Each file is stored once under backups/chunks/ by its SHA-256 hash and
+     * the snapshot itself is a small manifest (backup_<timestamp>.manifest)
+     * listing hash, size, modification time and path. Files whose size and
+     * modification time match the previous snapshot are not even re-read.
+     */
+    public Path createIncrementalBackup() throws IOException {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        Path manifestFile = backupRootPath.resolve("backup_" + timestamp + MANIFEST_SUFFIX);
+        Files.createDirectories(chunkStorePath);
+        
+        Map<String, ManifestEntry> previous = new HashMap<>();
+        Optional<Path> latest = findLatestManifest();
+        if (latest.isPresent()) {
+            for (ManifestEntry entry : readManifest(latest.get())) {
+                previous.put(entry.relativePath, entry);
+            }
+        }
+        
+        List<ManifestEntry> entries = new ArrayList<>();
+        long newBytes = 0;
+        int newChunks = 0;
+        
+        if (Files.exists(dataPath)) {
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(dataPath)) {
+                files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            
+            for (Path file : files) {
+                String relativePath = dataPath.relativize(file).toString().replace('\\', '/');
+                long size = Files.size(file);
+                long lastModified = Files.getLastModifiedTime(file).toMillis();
+                
+                ManifestEntry known = previous.get(relativePath);
+                String hash;
+                if (known != null && known.size == size && known.lastModified == lastModified
+                        && Files.exists(chunkPath(known.hash))) {
+                    hash = known.hash; // Unchanged since the last snapshot
+                } else {
+                    hash = hashFile(file);
+                    if (storeChunk(file, hash)) {
+                        newChunks++;
+                        newBytes += size;
                     }
-                } catch (IOException e) {
-                    System.err.println("Error copying file: " + sourcePath + " - " + e.getMessage());
                 }
-            });
+                entries.add(new ManifestEntry(hash, size, lastModified, relativePath));
+            }
         }
+        
+        // Write to a temp file first so a crash never leaves a partial manifest
+        Path tempFile = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            writer.write(MANIFEST_HEADER);
+            writer.newLine();
+            for (ManifestEntry entry : entries) {
+                writer.write(entry.format());
+                writer.newLine();
+            }
+        }
+        Files.move(tempFile, manifestFile, StandardCopyOption.ATOMIC_MOVE);
+        
+        System.out.println("Incremental backup created: " + manifestFile);
+        System.out.println("Files: " + entries.size() + ", new chunks: " + newChunks + 
+                         " (" + formatFileSize(newBytes) + " stored)");
+        return manifestFile;
+    }
+    
+    /**
+     * Reassemble an incremental snapshot into the given directory
+     */
+    public void restoreIncrementalBackup(String snapshotName, Path targetDirectory) throws IOException {
+        Path manifestFile = backupRootPath.resolve(
+            snapshotName.endsWith(MANIFEST_SUFFIX) ? snapshotName : snapshotName + MANIFEST_SUFFIX);
+        if (!Files.exists(manifestFile)) {
+            throw new IOException("Snapshot not found: " + snapshotName);
+        }
+        
+        Path root = targetDirectory.toAbsolutePath().normalize();
+        int restored = 0;
+        for (ManifestEntry entry : readManifest(manifestFile)) {
+            Path target = root.resolve(entry.relativePath).normalize();
+            if (!target.startsWith(root)) {
+                throw new IOException("Manifest path escapes target directory: " + entry.relativePath);
+            }
+            
+            Path chunk = chunkPath(entry.hash);
+            if (!Files.exists(chunk) || Files.size(chunk) != entry.size) {
+                throw new IOException("Missing or damaged chunk " + entry.hash + " for " + entry.relativePath);
+            }
+            
+            Files.createDirectories(target.getParent());
+            Files.copy(chunk, target, StandardCopyOption.REPLACE_EXISTING);
+            restored++;
+        }
+        
+        System.out.println("Restored " + restored + " files from " + manifestFile.getFileName() + 
+                         " to " + targetDirectory);
+    }
+    
+    private Path chunkPath(String hash) {
+        return chunkStorePath.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+    
+    /**
+     * Store a file in the chunk store unless a chunk with that hash exists
+     * @return true if a new chunk was written
+     */
+    private boolean storeChunk(Path file, String hash) throws IOException {
+        Path chunk = chunkPath(hash);
+        if (Files.exists(chunk)) {
+            return false;
+        }
+        
+        Files.createDirectories(chunk.getParent());
+        Path tempChunk = chunk.resolveSibling(hash + ".tmp");
+        Files.copy(file, tempChunk, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(tempChunk, chunk, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+    
+    private static String hashFile(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+    
+    // Lower-case hex, two digits per byte (java.util.HexFormat needs JDK 17)
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+    
+    private List<ManifestEntry> readManifest(Path manifestFile) throws IOException {
+        List<ManifestEntry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(manifestFile, StandardCharsets.UTF_8)) {
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                entries.add(ManifestEntry.parse(line));
+            }
+        }
+        return entries;
+    }
+    
+    private Optional<Path> findLatestManifest() throws IOException {
+        return listManifests().stream().reduce((first, second) -> second);
+    }
+    
+    // Snapshot manifests sorted oldest first (names embed the timestamp)
+    private List<Path> listManifests() throws IOException {
+        if (!Files.exists(backupRootPath)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> stream = Files.list(backupRootPath)) {
+            return stream
+                .filter(Files::isRegularFile)
+                .filter(path -> path.getFileName().toString().startsWith("backup_"))
+                .filter(path -> path.getFileName().toString().endsWith(MANIFEST_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+    
+    /**
+     * Total size of the files a snapshot refers to (without reading chunks)
+     */
+    private long manifestLogicalSize(Path manifestFile) throws IOException {
+        return readManifest(manifestFile).stream().mapToLong(entry -> entry.size).sum();
+    }
+    
+    /**
+     * Delete old incremental snapshots (keep only the most recent N) and
+     * remove chunks no remaining snapshot refers to
+     */
+    public void cleanupOldIncrementalBackups(int keepCount) throws IOException {
+        List<Path> manifests = listManifests();
+        int deleteCount = Math.max(0, manifests.size() - keepCount);
+        
+        for (int i = 0; i < deleteCount; i++) {
+            Files.delete(manifests.get(i));
+            System.out.println("Deleted old snapshot: " + manifests.get(i).getFileName());
+        }
+        
+        // Mark: hashes referenced by the snapshots that remain
+        Set<String> live = new HashSet<>();
+        for (Path manifest : manifests.subList(deleteCount, manifests.size())) {
+            for (ManifestEntry entry : readManifest(manifest)) {
+                live.add(entry.hash);
+            }
+        }
+        
+        // Sweep: unreferenced chunks
+        int removedChunks = 0;
+        if (Files.exists(chunkStorePath)) {
+            List<Path> chunks;
+            try (Stream<Path> stream = Files.walk(chunkStorePath)) {
+                chunks = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+            }
+            for (Path chunk : chunks) {
+                if (!live.contains(chunk.getFileName().toString())) {
+                    Files.delete(chunk);
+                    removedChunks++;
+                }
+            }
+        }
+        
+        System.out.println("Snapshot cleanup completed. Deleted " + deleteCount + 
+                         " snapshots and " + removedChunks + " unreferenced chunks.");
+    }
+    
+    /**
+     * Recursively copy directory contents
+     * Demonstrates recursive file operations and NIO.2 copy methods
+     */
+    private void copyDirectoryRecursively(Path source, Path target) throws IOException {
+        // Files are copied concurrently; one failed file does not stop the rest
+        ParallelFileTreeOps.TreeResult result = fileOps.copyTree(source, target);
+        result.getErrors().forEach(error -> System.err.println("Error copying file: " + error));
+        System.out.println("Copied " + result.getFiles() + " files in " + result.getElapsedMillis() + " ms");
     }
     
     /**
@@ -109,13 +491,23 @@ public class BackupService {
         try (Stream<Path> stream = Files.list(backupRootPath)) {
             System.out.println("\\n=== Available Backups ===");
             
-            stream.filter(Files::isDirectory)
+            stream.filter(path -> path.getFileName().toString().startsWith("backup_"))
                   .sorted()
                   .forEach(backup -> {
                       try {
-                          long size = calculateDirectorySizeRecursively(backup);
-                          String sizeStr = formatFileSize(size);
-                          System.out.println(backup.getFileName() + " - Size: " + sizeStr);
+                          if (Files.isDirectory(backup)) {
+                              long size = calculateDirectorySizeRecursively(backup);
+                              String sizeStr = formatFileSize(size);
+                              System.out.println(backup.getFileName() + " - Size: " + sizeStr);
+                          } else if (backup.getFileName().toString().endsWith(MANIFEST_SUFFIX)) {
+                              String sizeStr = formatFileSize(manifestLogicalSize(backup));
+                              System.out.println(backup.getFileName() + " - Size: " + sizeStr + " (incremental)");
+                          } else if (backup.getFileName().toString().endsWith(BackupArchive.EXTENSION)) {
+                              BackupArchive.Header header = BackupArchive.readHeader(backup);
+                              System.out.println(backup.getFileName() + " - Size: " + 
+                                               formatFileSize(header.getOriginalSize()) + " (archive, " + 
+                                               formatFileSize(header.getCompressedSize()) + " on disk)");
+                          }
                       } catch (Exception e) {
                           System.out.println(backup.getFileName() + " - Size: Unknown");
                       }
@@ -180,9 +572,10 @@ public class BackupService {
         }
         
         try (Stream<Path> stream = Files.list(backupRootPath)) {
-            // Get all backup directories sorted by name (which includes timestamp)
+            // Get all backup directories and archives sorted by name (which includes timestamp)
             Path[] backups = stream
-                .filter(Files::isDirectory)
+                .filter(path -> Files.isDirectory(path) || 
+                              path.getFileName().toString().endsWith(BackupArchive.EXTENSION))
                 .filter(path -> path.getFileName().toString().startsWith("backup_"))
                 .sorted()
                 .toArray(Path[]::new);
@@ -207,16 +600,8 @@ public class BackupService {
      * Recursively delete a directory and its contents
      */
     private void deleteDirectoryRecursively(Path directory) throws IOException {
-        try (Stream<Path> stream = Files.walk(directory)) {
-            stream.sorted((path1, path2) -> path2.compareTo(path1)) // Delete deepest first
-                  .forEach(path -> {
-                      try {
-                          Files.delete(path);
-                      } catch (IOException e) {
-                          System.err.println("Error deleting: " + path + " - " + e.getMessage());
-                      }
-                  });
-        }
+        ParallelFileTreeOps.TreeResult result = fileOps.deleteTree(directory);
+        result.getErrors().forEach(error -> System.err.println("Error deleting: " + error));
     }
     
     /**
@@ -244,7 +629,9 @@ public class BackupService {
         }
         
         try (Stream<Path> stream = Files.list(backupRootPath)) {
-            long backupCount = stream.filter(Files::isDirectory).count();
+            long backupCount = stream
+                .filter(path -> path.getFileName().toString().startsWith("backup_"))
+                .count();
             long totalSize = calculateDirectorySizeRecursively(backupRootPath);
             
             System.out.println("\\n=== Backup Statistics ===");
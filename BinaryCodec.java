@@ -0,0 +1,563 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.CourseServiceImpl;
+import edu.ccrm.service.EnrollmentServiceImpl;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.StudentServiceImpl;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary encoding of the domain model for internal storage
+ * (snapshots and backup data files); CSV remains the format for exchanging
+ * data with other tools
+ *
+ * Layout (little-endian; numbers are unsigned LEB128 varints unless noted):
+ *   header:      magic (int), format version (short), flags (short),
+ *                dictionary offset (long), student, course and enrollment
+ *                counts (int each) - 32 bytes
+ *   students:    id, regNo, first, middle and last name, email (string
+ *                references), status ordinal (byte), active (byte)
+ *   courses:     code, title, department (references), credits (byte),
+ *                semester (byte, ordinal + 1, 0 = none), max enrollment,
+ *                active (byte), prerequisite count and references, then an
+ *                instructor tag (byte): 0 = none, 1 = defined here (id,
+ *                names, email, department, designation), 2 = same as an
+ *                earlier course, followed by that instructor's number
+ *   enrollments: student and course numbers (positions in the sections
+ *                above), semester ordinal (byte), enrollment epoch day,
+ *                grade (byte, ordinal + 1, 0 = in progress), marks (double,
+ *                only when graded), active (byte)
+ *   dictionary:  string count, then length and UTF-8 bytes per string
+ *   trailer:     CRC32 of everything after the header (int)
+ *
+ * Each distinct string is stored once and referenced by number (0 = null),
+ * so repeated values such as departments and common names cost a byte or
+ * two per use and share a single String once loaded. Enums are stored by
+ * ordinal, so constants may only ever be appended.
+ *
+ * Readers accept any version up to FORMAT_VERSION. A later version may only
+ * append fields to records, guarded by the version number.
+ */
+public final class BinaryCodec {
+
+    public static final int MAGIC = 0x42524343; // "CCRB"
+    public static final short FORMAT_VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final byte NO_INSTRUCTOR = 0;
+    private static final byte NEW_INSTRUCTOR = 1;
+    private static final byte SEEN_INSTRUCTOR = 2;
+    private static final int MAX_LOAD_THREADS = 8;
+    private static final int PARALLEL_LOAD_THRESHOLD = 50_000;
+
+    // Private constructor to prevent instantiation
+    private BinaryCodec() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    // --- Writing ---------------------------------------------------------
+
+    /**
+     * Streams records to a file channel starting at its current position.
+     * Records must be written section by section: all students, then all
+     * courses, then all enrollments. Record methods are meant to be called
+     * from service traversals, so an I/O error is kept and thrown by finish().
+     */
+    public static class Writer {
+        private final FileChannel channel;
+        private final long start;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32 crc = new CRC32();
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> instructors = new HashMap<>();
+        private long written;
+        private int students;
+        private int courses;
+        private int enrollments;
+        private IOException failure;
+
+        public Writer(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.start = channel.position();
+            channel.position(start + HEADER_SIZE);
+        }
+
+        /**
+         * @return the student's number, used to refer to it from enrollments
+         */
+        public int writeStudent(Student student) {
+            if (courses > 0 || enrollments > 0) {
+                throw new IllegalStateException("Students must be written before courses and enrollments");
+            }
+            Name name = student.getName();
+            putString(student.getId());
+            putString(student.getRegNo());
+            putName(name);
+            putString(student.getEmail());
+            ensure(2);
+            buffer.put((byte) student.getStatus().ordinal());
+            buffer.put((byte) (student.isActive() ? 1 : 0));
+            return students++;
+        }
+
+        /**
+         * @return the course's number, used to refer to it from enrollments
+         */
+        public int writeCourse(Course course) {
+            if (enrollments > 0) {
+                throw new IllegalStateException("Courses must be written before enrollments");
+            }
+            putString(course.getCode().getCode());
+            putString(course.getTitle());
+            putString(course.getDepartment());
+            ensure(2);
+            buffer.put((byte) course.getCredits());
+            buffer.put((byte) (course.getSemester() != null ? course.getSemester().ordinal() + 1 : 0));
+            putVarint(course.getMaxEnrollment());
+            ensure(1);
+            buffer.put((byte) (course.isActive() ? 1 : 0));
+            putVarint(course.getPrerequisites().size());
+            for (String prerequisite : course.getPrerequisites()) {
+                putString(prerequisite);
+            }
+
+            Instructor instructor = course.getInstructor();
+            ensure(1);
+            if (instructor == null) {
+                buffer.put(NO_INSTRUCTOR);
+            } else if (instructors.containsKey(instructor.getId())) {
+                buffer.put(SEEN_INSTRUCTOR);
+                putVarint(instructors.get(instructor.getId()));
+            } else {
+                instructors.put(instructor.getId(), instructors.size());
+                buffer.put(NEW_INSTRUCTOR);
+                putString(instructor.getId());
+                putName(instructor.getName());
+                putString(instructor.getEmail());
+                putString(instructor.getDepartment());
+                putString(instructor.getDesignation());
+            }
+            return courses++;
+        }
+
+        /**
+         * @param student number returned by writeStudent
+         * @param course number returned by writeCourse
+         */
+        public void writeEnrollment(int student, int course, Enrollment enrollment) {
+            putVarint(student);
+            putVarint(course);
+            ensure(1);
+            buffer.put((byte) enrollment.getSemester().ordinal());
+            putVarint((int) enrollment.getEnrollmentDate().toEpochDay());
+            ensure(1 + 8 + 1);
+            Grade grade = enrollment.getGrade();
+            buffer.put((byte) (grade != null ? grade.ordinal() + 1 : 0));
+            if (grade != null) {
+                buffer.putDouble(enrollment.getMarks());
+            }
+            buffer.put((byte) (enrollment.isActive() ? 1 : 0));
+            enrollments++;
+        }
+
+        /**
+         * Write every student, course and enrollment in the services
+         * The services may change meanwhile: an enrollment whose student or
+         * course was added after that section was written is left out.
+         */
+        public void writeAll(StudentService studentService, CourseService courseService,
+                             EnrollmentServiceImpl enrollmentService) {
+            Map<String, Integer> studentNumbers = new HashMap<>();
+            studentService.forEachEntity(student -> studentNumbers.put(student.getId(), writeStudent(student)));
+
+            Map<CourseCode, Integer> courseNumbers = new HashMap<>();
+            courseService.forEachEntity(course -> courseNumbers.put(course.getCode(), writeCourse(course)));
+
+            enrollmentService.forEachEnrollment(enrollment -> {
+                Integer student = studentNumbers.get(enrollment.getStudent().getId());
+                Integer course = courseNumbers.get(enrollment.getCourse().getCode());
+                if (student != null && course != null) {
+                    writeEnrollment(student, course, enrollment);
+                }
+            });
+        }
+
+        public int getStudentCount() { return students; }
+        public int getCourseCount() { return courses; }
+        public int getEnrollmentCount() { return enrollments; }
+
+        /**
+         * Write the dictionary, checksum and header
+         * @return total bytes written, header included
+         */
+        public long finish() throws IOException {
+            long dictionaryOffset = HEADER_SIZE + written + buffer.position();
+            putVarint(strings.size());
+            for (String value : strings) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                putVarint(bytes.length);
+                putBytes(bytes);
+            }
+            flush();
+            if (failure != null) {
+                throw failure;
+            }
+
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            writeFully(buffer, start + HEADER_SIZE + written);
+            written += 4;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putShort(FORMAT_VERSION);
+            header.putShort((short) 0);
+            header.putLong(dictionaryOffset);
+            header.putInt(students);
+            header.putInt(courses);
+            header.putInt(enrollments);
+            header.clear();
+            writeFully(header, start);
+
+            channel.position(start + HEADER_SIZE + written);
+            return HEADER_SIZE + written;
+        }
+
+        private void putName(Name name) {
+            putString(name.getFirstName());
+            putString(name.getMiddleName());
+            putString(name.getLastName());
+        }
+
+        private void putString(String value) {
+            if (value == null) {
+                putVarint(0);
+                return;
+            }
+            Integer reference = dictionary.get(value);
+            if (reference == null) {
+                strings.add(value);
+                reference = strings.size();
+                dictionary.put(value, reference);
+            }
+            putVarint(reference);
+        }
+
+        private void putVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void putBytes(byte[] bytes) {
+            if (bytes.length <= buffer.capacity()) {
+                ensure(bytes.length);
+                buffer.put(bytes);
+                return;
+            }
+            flush();
+            crc.update(bytes);
+            try {
+                writeFully(ByteBuffer.wrap(bytes), start + HEADER_SIZE + written);
+            } catch (IOException e) {
+                fail(e);
+            }
+            written += bytes.length;
+        }
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            int length = buffer.remaining();
+            try {
+                writeFully(buffer, start + HEADER_SIZE + written);
+            } catch (IOException e) {
+                fail(e);
+            }
+            written += length;
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer source, long position) throws IOException {
+            while (source.hasRemaining()) {
+                position += channel.write(source, position);
+            }
+        }
+
+        private void fail(IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+
+    // --- Reading ---------------------------------------------------------
+
+    /**
+     * Add decoded enrollments to the service. They are independent, so
+     * large sets are split into contiguous ranges restored in parallel; the
+     * service's per-student locks keep concurrent restores consistent, and
+     * reserved listing positions keep the records in their stored order.
+     */
+    static void restoreEnrollments(Enrollment[] enrollments, EnrollmentServiceImpl enrollmentService)
+            throws IOException {
+        int parallelism = Math.min(MAX_LOAD_THREADS, Runtime.getRuntime().availableProcessors());
+        if (parallelism == 1 || enrollments.length < PARALLEL_LOAD_THRESHOLD) {
+            for (Enrollment enrollment : enrollments) {
+                enrollmentService.restoreEnrollment(enrollment);
+            }
+            return;
+        }
+
+        long firstPosition = enrollmentService.reservePositions(enrollments.length);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            int perTask = (enrollments.length + parallelism - 1) / parallelism;
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < enrollments.length; from += perTask) {
+                int first = from;
+                int last = Math.min(enrollments.length, from + perTask);
+                futures.add(pool.submit(() -> {
+                    for (int i = first; i < last; i++) {
+                        enrollmentService.restoreEnrollment(enrollments[i], firstPosition + i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Load interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not restore enrollments: " + e.getCause(), e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Decodes data written by Writer from a buffer (typically a memory
+     * mapped file). The checksum is verified and the dictionary loaded up
+     * front; sections must then be read in order.
+     */
+    public static class Reader {
+        private final ByteBuffer buffer;
+        private final short version;
+        private final int studentCount;
+        private final int courseCount;
+        private final int enrollmentCount;
+        private final String[] strings;
+        private final List<Instructor> instructors = new ArrayList<>();
+
+        /**
+         * @param data the encoded bytes, from the header to the trailer
+         */
+        public Reader(ByteBuffer data) throws IOException {
+            buffer = data.slice().order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < HEADER_SIZE + 4 || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not CCRM binary data");
+            }
+            version = buffer.getShort(4);
+            if (version < 1 || version > FORMAT_VERSION) {
+                throw new IOException("Unsupported binary format version: " + version);
+            }
+
+            int end = buffer.limit() - 4;
+            ByteBuffer body = buffer.duplicate();
+            body.position(HEADER_SIZE).limit(end);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if (buffer.getInt(end) != (int) crc.getValue()) {
+                throw new IOException("Binary data checksum mismatch");
+            }
+
+            long dictionaryOffset = buffer.getLong(8);
+            studentCount = buffer.getInt(16);
+            courseCount = buffer.getInt(20);
+            enrollmentCount = buffer.getInt(24);
+            if (dictionaryOffset < HEADER_SIZE || dictionaryOffset > end
+                    || studentCount < 0 || courseCount < 0 || enrollmentCount < 0) {
+                throw new IOException("Corrupt binary data header");
+            }
+
+            try {
+                buffer.position((int) dictionaryOffset).limit(end);
+                strings = new String[getVarint() + 1];
+                for (int i = 1; i < strings.length; i++) {
+                    byte[] bytes = new byte[getVarint()];
+                    buffer.get(bytes);
+                    strings[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                buffer.position(HEADER_SIZE).limit((int) dictionaryOffset);
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt binary data dictionary: " + e, e);
+            }
+        }
+
+        public short getVersion() { return version; }
+        public int getStudentCount() { return studentCount; }
+        public int getCourseCount() { return courseCount; }
+        public int getEnrollmentCount() { return enrollmentCount; }
+
+        /**
+         * Decode everything into empty services
+         */
+        public void readInto(StudentServiceImpl studentService, CourseServiceImpl courseService,
+                             EnrollmentServiceImpl enrollmentService) throws IOException {
+            Student[] students;
+            Course[] courses;
+            Enrollment[] enrollments;
+            try {
+                students = readStudents();
+                courses = readCourses();
+                enrollments = readEnrollments(students, courses);
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt binary data: " + e, e);
+            }
+
+            for (Student student : students) {
+                studentService.create(student);
+            }
+            for (Course course : courses) {
+                courseService.create(course);
+            }
+            restoreEnrollments(enrollments, enrollmentService);
+        }
+
+        public Student[] readStudents() {
+            Student.StudentStatus[] statuses = Student.StudentStatus.values();
+            Student[] students = new Student[studentCount];
+            for (int i = 0; i < studentCount; i++) {
+                String id = getString();
+                String regNo = getString();
+                Name name = getName();
+                Student student = new Student(id, regNo, name, getString());
+                student.setStatus(statuses[buffer.get()]);
+                student.setActive(buffer.get() != 0);
+                students[i] = student;
+            }
+            return students;
+        }
+
+        /**
+         * Courses sharing an instructor get the same Instructor object, with
+         * its assigned courses filled in
+         */
+        public Course[] readCourses() {
+            Semester[] semesters = Semester.values();
+            Course[] courses = new Course[courseCount];
+            for (int i = 0; i < courseCount; i++) {
+                CourseCode code = CourseCode.of(getString());
+                String title = getString();
+                String department = getString();
+                int credits = buffer.get();
+                byte semester = buffer.get();
+                Course.Builder builder = new Course.Builder(code, title, credits)
+                    .department(department)
+                    .semester(semester > 0 ? semesters[semester - 1] : null)
+                    .maxEnrollment(getVarint());
+                boolean active = buffer.get() != 0;
+                int prerequisites = getVarint();
+                for (int p = 0; p < prerequisites; p++) {
+                    builder.prerequisite(getString());
+                }
+
+                Instructor instructor = getInstructor();
+                Course course = builder.instructor(instructor).build();
+                course.setActive(active);
+                if (instructor != null) {
+                    instructor.assignCourse(course);
+                }
+                courses[i] = course;
+            }
+            return courses;
+        }
+
+        /**
+         * Enrollments linked to the given students and courses (as returned
+         * by readStudents and readCourses) but not yet added to them
+         */
+        public Enrollment[] readEnrollments(Student[] students, Course[] courses) {
+            Semester[] semesters = Semester.values();
+            Grade[] grades = Grade.values();
+            Enrollment[] enrollments = new Enrollment[enrollmentCount];
+            for (int i = 0; i < enrollmentCount; i++) {
+                Student student = students[getVarint()];
+                Course course = courses[getVarint()];
+                Semester semester = semesters[buffer.get()];
+                Enrollment enrollment = new Enrollment(student, course, semester, LocalDate.ofEpochDay(getVarint()));
+                byte grade = buffer.get();
+                if (grade > 0) {
+                    enrollment.setResult(buffer.getDouble(), grades[grade - 1]);
+                }
+                enrollment.setActive(buffer.get() != 0);
+                enrollments[i] = enrollment;
+            }
+            return enrollments;
+        }
+
+        private Instructor getInstructor() {
+            byte tag = buffer.get();
+            if (tag == NO_INSTRUCTOR) {
+                return null;
+            }
+            if (tag == SEEN_INSTRUCTOR) {
+                return instructors.get(getVarint());
+            }
+            String id = getString();
+            Name name = getName();
+            Instructor instructor = new Instructor(id, name, getString(), getString(), getString());
+            instructors.add(instructor);
+            return instructor;
+        }
+
+        private Name getName() {
+            return new Name(getString(), getString(), getString());
+        }
+
+        private String getString() {
+            return strings[getVarint()];
+        }
+
+        private int getVarint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+                if (shift == 28) {
+                    throw new IllegalStateException("Malformed varint");
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package edu.ccrm.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk grade ingestion: applied count and rejected rows with reasons
+ */
+public class BulkGradeResult {
+    private long applied;
+    private final List<String> rejected = new ArrayList<>();
+    
+    public void recordApplied() {
+        applied++;
+    }
+    
+    public void recordRejected(GradeEntry entry, String reason) {
+        rejected.add("Row " + entry.getSourceRow() + " [" + entry + "]: " + reason);
+    }
+    
+    public void recordRejected(long sourceRow, String reason) {
+        rejected.add("Row " + sourceRow + ": " + reason);
+    }
+    
+    public void merge(BulkGradeResult other) {
+        applied += other.applied;
+        rejected.addAll(other.rejected);
+    }
+    
+    public long getApplied() {
+        return applied;
+    }
+    
+    public List<String> getRejected() {
+        return Collections.unmodifiableList(rejected);
+    }
+    
+    @Override
+    public String toString() {
+        return "Grades applied: " + applied + ", rejected: " + rejected.size();
+    }
+}
\ No newline at end of file
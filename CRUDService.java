@@ -1,6 +1,8 @@
 package edu.ccrm.service;
 
+import edu.ccrm.util.Query;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Generic interface for basic CRUD operations
@@ -24,4 +26,25 @@ public interface CRUDService<T, ID> {
     default long count() {
         return findAll().size();
     }
+    
+    // Visit every entity without building a copy; implementations backed
+    // by their own storage should override this
+    default void forEachEntity(Consumer<? super T> action) {
+        findAll().forEach(action);
+    }
+    
+    // Choose how to run a declarative query; this default has no indexes
+    // and scans, implementations with secondary indexes override it
+    default QueryPlanner.Plan<T> plan(Query<T> query) {
+        return new QueryPlanner<T>("all entities", this::forEachEntity, this::count).plan(query);
+    }
+    
+    default List<T> query(Query<T> query) {
+        return plan(query).execute();
+    }
+    
+    // The plan query() would use, as readable text
+    default String explain(Query<T> query) {
+        return plan(query).explain();
+    }
 }
\ No newline at end of file
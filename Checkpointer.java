@@ -0,0 +1,112 @@
+package edu.ccrm.io;
+
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentServiceImpl;
+import edu.ccrm.service.StudentService;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically compacts the write-ahead log into a snapshot
+ * A checkpoint rotates the log, snapshots the services at the rotated LSN,
+ * then deletes old snapshots and the log segments no remaining snapshot
+ * needs. A background thread checkpoints whenever enough records have been
+ * logged since the last one, so startup replay stays short.
+ */
+public class Checkpointer implements Closeable {
+
+    private final WriteAheadLog log;
+    private final SnapshotStore store;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final EnrollmentServiceImpl enrollmentService;
+    private final long recordThreshold;
+    private final int snapshotsToKeep;
+    private final ScheduledExecutorService scheduler;
+    private volatile long lastCheckpointLsn;
+
+    /**
+     * @param baseLsn LSN of the snapshot the services were loaded from (0 if none)
+     * @param recordThreshold log records since the last checkpoint that trigger a new one
+     * @param snapshotsToKeep snapshots kept (at least 1); older ones are fallbacks if the newest is damaged
+     */
+    public Checkpointer(WriteAheadLog log, SnapshotStore store, StudentService studentService,
+                        CourseService courseService, EnrollmentServiceImpl enrollmentService,
+                        long baseLsn, long recordThreshold, int snapshotsToKeep) {
+        this.log = log;
+        this.store = store;
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
+        this.lastCheckpointLsn = baseLsn;
+        this.recordThreshold = recordThreshold;
+        this.snapshotsToKeep = Math.max(1, snapshotsToKeep);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ccrm-checkpoint");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Check every interval whether a checkpoint is due
+     */
+    public void start(long checkIntervalMillis) {
+        scheduler.scheduleWithFixedDelay(this::checkpointIfDue, checkIntervalMillis,
+            checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public long getLastCheckpointLsn() {
+        return lastCheckpointLsn;
+    }
+
+    /**
+     * Log records written since the last checkpoint
+     */
+    public long getRecordsSinceCheckpoint() {
+        return log.getLastLsn() - lastCheckpointLsn;
+    }
+
+    private void checkpointIfDue() {
+        if (getRecordsSinceCheckpoint() < recordThreshold) {
+            return;
+        }
+        try {
+            SnapshotStore.SnapshotInfo info = checkpointNow();
+            System.out.println("\n[Checkpoint] Snapshot at LSN " + info.getLsn() + " written in " +
+                             info.getElapsedMillis() + " ms");
+        } catch (IOException | RuntimeException e) {
+            System.err.println("\n[Checkpoint] Failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Take a checkpoint now
+     * Records up to the rotated LSN are in the snapshot; anything logged
+     * while it is written lands in the new segment and is replayed on top.
+     */
+    public synchronized SnapshotStore.SnapshotInfo checkpointNow() throws IOException {
+        long lsn = log.rotate();
+        SnapshotStore.SnapshotInfo info = store.write(lsn, studentService, courseService, enrollmentService);
+        lastCheckpointLsn = lsn;
+
+        // Keep the segments the oldest retained snapshot still needs
+        store.deleteOldSnapshots(snapshotsToKeep);
+        log.deleteSegmentsUpTo(store.listSnapshots().firstKey());
+        return info;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown(); // Let a running checkpoint finish
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
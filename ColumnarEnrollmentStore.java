@@ -0,0 +1,468 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Compact enrollment storage using primitive-array columns
+ * Each enrollment is a row of student number, course number, semester,
+ * epoch-day date, grade, marks and flags; students and courses are stored
+ * once in dictionaries. The (student, course, semester) index is an
+ * open-addressing int table, and per-student and per-course lists are row
+ * chains held in two more int columns, so no objects are allocated per row.
+ *
+ * Enrollments are returned as views that read and write the columns; they
+ * are not added to the students' enrollment histories. Removed rows are
+ * marked deleted and their space is not reused until clear().
+ * Thread-safe: guarded by a read-write lock.
+ */
+public class ColumnarEnrollmentStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte ACTIVE = 1;
+    private static final byte DELETED = 2;
+    private static final int TOMBSTONE = -1;
+
+    private static final Semester[] SEMESTERS = Semester.values();
+    private static final Grade[] GRADES = Grade.values();
+
+    // Dictionaries
+    private final List<Student> students = new ArrayList<>();
+    private final Map<String, Integer> studentNumbers = new HashMap<>();
+    private final List<Course> courses = new ArrayList<>();
+    private final Map<CourseCode, Integer> courseNumbers = new HashMap<>();
+
+    // Row columns
+    private int[] studentColumn = new int[INITIAL_CAPACITY];
+    private int[] courseColumn = new int[INITIAL_CAPACITY];
+    private byte[] semesterColumn = new byte[INITIAL_CAPACITY];
+    private int[] dateColumn = new int[INITIAL_CAPACITY];
+    private byte[] gradeColumn = new byte[INITIAL_CAPACITY]; // ordinal + 1, 0 = no grade
+    private double[] marksColumn = new double[INITIAL_CAPACITY];
+    private byte[] flagsColumn = new byte[INITIAL_CAPACITY];
+    private int[] nextByStudent = new int[INITIAL_CAPACITY];
+    private int[] nextByCourse = new int[INITIAL_CAPACITY];
+
+    // Newest row of each student's and course's chain, -1 if none
+    private int[] studentHeads = new int[0];
+    private int[] courseHeads = new int[0];
+
+    // Key index: row + 1, 0 = empty, TOMBSTONE = removed
+    private int[] keyIndex = new int[INITIAL_CAPACITY * 2];
+    private int keyIndexUsed;
+
+    private int rows;
+    private int live;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Store the enrollment's data, replacing any row with the same student,
+     * course and semester
+     * @return the row number
+     */
+    public int add(Enrollment enrollment) {
+        lock.writeLock().lock();
+        try {
+            int student = studentNumber(enrollment.getStudent());
+            int course = courseNumber(enrollment.getCourse());
+            int semester = enrollment.getSemester().ordinal();
+
+            int row = findRow(student, course, semester);
+            if (row < 0) {
+                row = appendRow(student, course, semester);
+            }
+
+            dateColumn[row] = (int) enrollment.getEnrollmentDate().toEpochDay();
+            Grade grade = enrollment.getGrade();
+            gradeColumn[row] = (byte) (grade != null ? grade.ordinal() + 1 : 0);
+            marksColumn[row] = enrollment.getMarks();
+            flagsColumn[row] = enrollment.isActive() ? ACTIVE : 0;
+            return row;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(Collection<Enrollment> enrollments) {
+        enrollments.forEach(this::add);
+    }
+
+    public Enrollment find(String studentId, CourseCode courseCode, Semester semester) {
+        lock.readLock().lock();
+        try {
+            int row = findRow(studentId, courseCode, semester);
+            return row >= 0 ? new View(row) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean remove(String studentId, CourseCode courseCode, Semester semester) {
+        lock.writeLock().lock();
+        try {
+            int row = findRow(studentId, courseCode, semester);
+            if (row < 0) {
+                return false;
+            }
+
+            keyIndex[slotOf(row)] = TOMBSTONE;
+            flagsColumn[row] = DELETED;
+            live--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * View of a stored row
+     * @throws IllegalArgumentException if the row does not exist or was removed
+     */
+    public Enrollment get(int row) {
+        lock.readLock().lock();
+        try {
+            if (row < 0 || row >= rows || flagsColumn[row] == DELETED) {
+                throw new IllegalArgumentException("No enrollment at row " + row);
+            }
+            return new View(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Enrollments of a student, most recently added first
+     */
+    public List<Enrollment> getByStudent(String studentId) {
+        lock.readLock().lock();
+        try {
+            Integer student = studentNumbers.get(studentId);
+            return student != null ? chain(studentHeads[student], nextByStudent) : Collections.emptyList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Enrollments in a course, most recently added first
+     */
+    public List<Enrollment> getByCourse(CourseCode courseCode) {
+        lock.readLock().lock();
+        try {
+            Integer course = courseNumbers.get(courseCode);
+            return course != null ? chain(courseHeads[course], nextByCourse) : Collections.emptyList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit every enrollment in row order. The lock is not held while the
+     * action runs, so it may update the views it is given.
+     */
+    public void forEach(Consumer<? super Enrollment> action) {
+        for (int row = 0; ; row++) {
+            View view;
+            lock.readLock().lock();
+            try {
+                if (row >= rows) {
+                    return;
+                }
+                view = flagsColumn[row] != DELETED ? new View(row) : null;
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (view != null) {
+                action.accept(view);
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Heap held by the row columns and key index (excluding the student and
+     * course dictionaries, which are shared with the services)
+     */
+    public long getColumnBytes() {
+        lock.readLock().lock();
+        try {
+            long perRow = 4 + 4 + 1 + 4 + 1 + 8 + 1 + 4 + 4;
+            return perRow * studentColumn.length + 4L * keyIndex.length
+                + 4L * (studentHeads.length + courseHeads.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double getBytesPerEnrollment() {
+        int count = size();
+        return count == 0 ? 0 : (double) getColumnBytes() / count;
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            students.clear();
+            studentNumbers.clear();
+            courses.clear();
+            courseNumbers.clear();
+            studentHeads = new int[0];
+            courseHeads = new int[0];
+            Arrays.fill(keyIndex, 0);
+            keyIndexUsed = 0;
+            rows = 0;
+            live = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Enrollment> chain(int head, int[] next) {
+        List<Enrollment> result = new ArrayList<>();
+        for (int row = head; row >= 0; row = next[row]) {
+            if (flagsColumn[row] != DELETED) {
+                result.add(new View(row));
+            }
+        }
+        return result;
+    }
+
+    private int studentNumber(Student student) {
+        Integer number = studentNumbers.get(student.getId());
+        if (number == null) {
+            number = students.size();
+            students.add(student);
+            studentNumbers.put(student.getId(), number);
+            if (number == studentHeads.length) {
+                studentHeads = growHeads(studentHeads);
+            }
+        }
+        return number;
+    }
+
+    private int courseNumber(Course course) {
+        Integer number = courseNumbers.get(course.getCode());
+        if (number == null) {
+            number = courses.size();
+            courses.add(course);
+            courseNumbers.put(course.getCode(), number);
+            if (number == courseHeads.length) {
+                courseHeads = growHeads(courseHeads);
+            }
+        }
+        return number;
+    }
+
+    private static int[] growHeads(int[] heads) {
+        int[] grown = Arrays.copyOf(heads, Math.max(16, heads.length * 2));
+        Arrays.fill(grown, heads.length, grown.length, -1);
+        return grown;
+    }
+
+    private int appendRow(int student, int course, int semester) {
+        if (rows == studentColumn.length) {
+            growColumns(rows * 2);
+        }
+        if ((keyIndexUsed + 1) * 2 > keyIndex.length) {
+            rehash();
+        }
+
+        int row = rows++;
+        studentColumn[row] = student;
+        courseColumn[row] = course;
+        semesterColumn[row] = (byte) semester;
+        nextByStudent[row] = studentHeads[student];
+        studentHeads[student] = row;
+        nextByCourse[row] = courseHeads[course];
+        courseHeads[course] = row;
+        live++;
+
+        int slot = hash(student, course, semester) & (keyIndex.length - 1);
+        while (keyIndex[slot] > 0) {
+            slot = (slot + 1) & (keyIndex.length - 1);
+        }
+        if (keyIndex[slot] == 0) {
+            keyIndexUsed++;
+        }
+        keyIndex[slot] = row + 1;
+        return row;
+    }
+
+    private void growColumns(int capacity) {
+        studentColumn = Arrays.copyOf(studentColumn, capacity);
+        courseColumn = Arrays.copyOf(courseColumn, capacity);
+        semesterColumn = Arrays.copyOf(semesterColumn, capacity);
+        dateColumn = Arrays.copyOf(dateColumn, capacity);
+        gradeColumn = Arrays.copyOf(gradeColumn, capacity);
+        marksColumn = Arrays.copyOf(marksColumn, capacity);
+        flagsColumn = Arrays.copyOf(flagsColumn, capacity);
+        nextByStudent = Arrays.copyOf(nextByStudent, capacity);
+        nextByCourse = Arrays.copyOf(nextByCourse, capacity);
+    }
+
+    // Rebuild the key index from the live rows, dropping tombstones and
+    // doubling the table if it is more than a quarter full of live rows
+    private void rehash() {
+        int size = keyIndex.length;
+        if ((live + 1) * 4 > size) {
+            size *= 2;
+        }
+
+        keyIndex = new int[size];
+        keyIndexUsed = 0;
+        for (int row = 0; row < rows; row++) {
+            if (flagsColumn[row] != DELETED) {
+                int slot = hash(studentColumn[row], courseColumn[row], semesterColumn[row]) & (size - 1);
+                while (keyIndex[slot] != 0) {
+                    slot = (slot + 1) & (size - 1);
+                }
+                keyIndex[slot] = row + 1;
+                keyIndexUsed++;
+            }
+        }
+    }
+
+    private int findRow(String studentId, CourseCode courseCode, Semester semester) {
+        Integer student = studentNumbers.get(studentId);
+        Integer course = courseNumbers.get(courseCode);
+        if (student == null || course == null) {
+            return -1;
+        }
+        return findRow(student, course, semester.ordinal());
+    }
+
+    private int findRow(int student, int course, int semester) {
+        int slot = hash(student, course, semester) & (keyIndex.length - 1);
+        for (int entry; (entry = keyIndex[slot]) != 0; slot = (slot + 1) & (keyIndex.length - 1)) {
+            int row = entry - 1;
+            if (entry != TOMBSTONE && studentColumn[row] == student
+                    && courseColumn[row] == course && semesterColumn[row] == semester) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private int slotOf(int row) {
+        int slot = hash(studentColumn[row], courseColumn[row], semesterColumn[row]) & (keyIndex.length - 1);
+        while (keyIndex[slot] != row + 1) {
+            slot = (slot + 1) & (keyIndex.length - 1);
+        }
+        return slot;
+    }
+
+    private static int hash(int student, int course, int semester) {
+        int h = ((student * 31 + course) * 31 + semester) * 0x45d9f3b;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Enrollment backed by one row; grade, marks and active state are read
+     * from and written to the columns
+     */
+    private final class View extends Enrollment {
+        private final int row;
+
+        View(int row) {
+            super(students.get(studentColumn[row]), courses.get(courseColumn[row]),
+                SEMESTERS[semesterColumn[row]], LocalDate.ofEpochDay(dateColumn[row]));
+            this.row = row;
+        }
+
+        @Override
+        public Grade getGrade() {
+            lock.readLock().lock();
+            try {
+                byte grade = gradeColumn[row];
+                return grade > 0 ? GRADES[grade - 1] : null;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void setGrade(Grade grade) {
+            lock.writeLock().lock();
+            try {
+                gradeColumn[row] = (byte) (grade != null ? grade.ordinal() + 1 : 0);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public double getMarks() {
+            lock.readLock().lock();
+            try {
+                return marksColumn[row];
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void setMarks(double marks) {
+            setResult(marks, Grade.fromMarks(marks));
+        }
+
+        @Override
+        public void setResult(double marks, Grade grade) {
+            lock.writeLock().lock();
+            try {
+                marksColumn[row] = marks;
+                gradeColumn[row] = (byte) (grade != null ? grade.ordinal() + 1 : 0);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean isActive() {
+            lock.readLock().lock();
+            try {
+                return (flagsColumn[row] & ACTIVE) != 0;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void setActive(boolean active) {
+            lock.writeLock().lock();
+            try {
+                if (flagsColumn[row] != DELETED) {
+                    flagsColumn[row] = active ? ACTIVE : 0;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return getGrade() != null;
+        }
+
+        @Override
+        public String toString() {
+            Grade grade = getGrade();
+            return String.format("%s enrolled in %s (%s) - %s",
+                getStudent().getName().getFullName(),
+                getCourse().getCode(),
+                getSemester(),
+                grade != null ? grade.toString() : "In Progress");
+        }
+    }
+}
\ No newline at end of file
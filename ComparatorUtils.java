@@ -59,25 +59,26 @@ public class ComparatorUtils {
         Comparator.comparing(Course::getSemester, Comparator.nullsLast(Comparator.naturalOrder()))
                   .thenComparing(Course::getDepartment, Comparator.nullsLast(String::compareTo));
     
-    // Predicate factory methods for filtering
-    public static Predicate<Student> hasMinimumGPA(double minGPA) {
-        return student -> student.calculateGPA() >= minGPA;
+    // Predicate factory methods for filtering; they return queries, so
+    // services can answer them from indexes (see QueryPlanner)
+    public static Query<Student> hasMinimumGPA(double minGPA) {
+        return StudentFields.GPA.ge(minGPA);
     }
     
-    public static Predicate<Student> isInStatus(Student.StudentStatus status) {
-        return student -> student.getStatus() == status;
+    public static Query<Student> isInStatus(Student.StudentStatus status) {
+        return StudentFields.STATUS.eq(status);
     }
     
-    public static Predicate<Course> isInDepartment(String department) {
-        return course -> department.equalsIgnoreCase(course.getDepartment());
+    public static Query<Course> isInDepartment(String department) {
+        return CourseFields.DEPARTMENT.eq(department);
     }
     
-    public static Predicate<Course> hasCredits(int credits) {
-        return course -> course.getCredits() == credits;
+    public static Query<Course> hasCredits(int credits) {
+        return CourseFields.CREDITS.eq(credits);
     }
     
-    public static Predicate<Course> isInSemester(Semester semester) {
-        return course -> course.getSemester() == semester;
+    public static Query<Course> isInSemester(Semester semester) {
+        return CourseFields.SEMESTER.eq(semester);
     }
     
     // Function factory methods for mapping/transformation
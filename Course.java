@@ -26,7 +26,7 @@ public class Course {
         this.credits = builder.credits;
         this.instructor = builder.instructor;
         this.semester = builder.semester;
-        this.department = builder.department;
+        this.department = Interner.DEPARTMENTS.intern(builder.department);
         this.prerequisites = new HashSet<>(builder.prerequisites);
         this.maxEnrollment = builder.maxEnrollment;
         this.dateCreated = LocalDate.now();
@@ -131,7 +131,7 @@ public class Course {
     }
     
     public void setDepartment(String department) {
-        this.department = department;
+        this.department = Interner.DEPARTMENTS.intern(department);
     }
     
     public Set<String> getPrerequisites() {
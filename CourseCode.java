@@ -2,17 +2,27 @@ package edu.ccrm.domain;
 
 /**
  * Immutable value class representing a course code
+ * Instances are canonical: of() returns the same object for equal codes
  */
 public final class CourseCode {
+    private static final Interner<CourseCode> CODES = new Interner<>();
+    
     private final String code;
     
-    public CourseCode(String code) {
+    private CourseCode(String code) {
         if (code == null || code.trim().isEmpty()) {
             throw new IllegalArgumentException("Course code cannot be null or empty");
         }
         this.code = code.trim().toUpperCase();
     }
     
+    /**
+     * The shared CourseCode for the given code (trimmed, upper-cased)
+     */
+    public static CourseCode of(String code) {
+        return CODES.intern(new CourseCode(code));
+    }
+    
     public String getCode() {
         return code;
     }
@@ -0,0 +1,29 @@
+package edu.ccrm.util;
+
+import edu.ccrm.domain.*;
+import java.util.Comparator;
+
+/**
+ * Query fields of a Course
+ * Text fields compare case-insensitively, e.g.
+ * CourseFields.DEPARTMENT.eq("cs").and(CourseFields.CREDITS.ge(3))
+ */
+public final class CourseFields {
+
+    private CourseFields() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    public static final Query.Field<Course, CourseCode> CODE =
+        Query.Field.of("code", Course::getCode, Comparator.comparing(CourseCode::getCode));
+    public static final Query.Field<Course, String> TITLE =
+        Query.Field.of("title", Course::getTitle, String.CASE_INSENSITIVE_ORDER);
+    public static final Query.Field<Course, Integer> CREDITS = Query.Field.of("credits", Course::getCredits);
+    public static final Query.Field<Course, String> DEPARTMENT =
+        Query.Field.of("department", Course::getDepartment, String.CASE_INSENSITIVE_ORDER);
+    public static final Query.Field<Course, Semester> SEMESTER = Query.Field.of("semester", Course::getSemester);
+    public static final Query.Field<Course, String> INSTRUCTOR_ID = Query.Field.of("instructorId",
+        course -> course.getInstructor() != null ? course.getInstructor().getId() : null);
+    public static final Query.Field<Course, Integer> MAX_ENROLLMENT = Query.Field.of("maxEnrollment", Course::getMaxEnrollment);
+    public static final Query.Field<Course, Boolean> ACTIVE = Query.Field.of("active", Course::isActive);
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package edu.ccrm.domain;
+
+/**
+ * Custom unchecked exception for enrollments into a course with no free seats
+ * Demonstrates runtime exception handling
+ */
+public class CourseFullException extends RuntimeException {
+    private final String courseCode;
+    private final int maxEnrollment;
+    
+    public CourseFullException(String courseCode, int maxEnrollment) {
+        super(String.format("Course %s is full. Max enrollment: %d", courseCode, maxEnrollment));
+        this.courseCode = courseCode;
+        this.maxEnrollment = maxEnrollment;
+    }
+    
+    public String getCourseCode() {
+        return courseCode;
+    }
+    
+    public int getMaxEnrollment() {
+        return maxEnrollment;
+    }
+}
\ No newline at end of file
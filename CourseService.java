@@ -1,6 +1,7 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.*;
+import java.util.Comparator;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -15,7 +16,20 @@ public interface CourseService extends CRUDService<Course, CourseCode> {
     List<Course> search(Predicate<Course> criteria);
     List<Course> findActiveCourses();
     
+    /**
+     * One page of active courses in the given order, after the cursor
+     * (null for the first page). This default sorts a copy of the active
+     * courses on every call; implementations keep sorted views for the
+     * ComparatorUtils orders.
+     */
+    default Page<Course> listActiveCourses(Comparator<Course> order, Page.Cursor cursor, int pageSize) {
+        SortedView<Course, Course> view = new SortedView<>(course -> course.getCode().getCode(), course -> course, order);
+        findActiveCourses().forEach(view::put);
+        return view.page(cursor, pageSize);
+    }
+    
     // Course-specific operations
     boolean assignInstructor(CourseCode courseCode, Instructor instructor);
+    boolean setActive(CourseCode courseCode, boolean active);
     void generateCourseReport(CourseCode courseCode);
 }
\ No newline at end of file
@@ -1,27 +1,112 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.*;
+import edu.ccrm.util.ComparatorUtils;
+import edu.ccrm.util.CourseFields;
+import edu.ccrm.util.Query;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Implementation of CourseService
+ * Department (case-folded), semester, instructor and active-course queries
+ * are answered from secondary indexes maintained by create, update, delete,
+ * assignInstructor and setActive. A Course changed directly must be passed
+ * to update() for the indexes to see the change. query() plans declarative
+ * queries over the same indexes.
+ * Thread-safe: backed by concurrent maps with atomic create/update; index
+ * changes for a course are made under that course's lock
  */
 public class CourseServiceImpl implements CourseService {
     
-    private final Map<CourseCode, Course> courses = new HashMap<>();
+    /**
+     * The attribute values a course is currently indexed under, kept so the
+     * old entries can be removed even if the Course was changed in place
+     */
+    private static final class IndexEntry {
+        private final Course course;
+        private final String department;
+        private final Semester semester;
+        private final String instructorId;
+        private final boolean active;
+        
+        IndexEntry(Course course) {
+            this.course = course;
+            this.department = departmentKey(course.getDepartment());
+            this.semester = course.getSemester();
+            this.instructorId = course.getInstructor() != null ? course.getInstructor().getId() : null;
+            this.active = course.isActive();
+        }
+    }
+    
+    private final Map<CourseCode, Course> courses = new ConcurrentHashMap<>();
+    private final StripedLocks locks = new StripedLocks(64);
+    
+    // Secondary indexes; department and instructor buckets are kept when
+    // empty, their number is bounded by the catalog's departments and staff
+    private final Map<CourseCode, IndexEntry> indexed = new ConcurrentHashMap<>();
+    private final Map<String, Set<Course>> byDepartment = new ConcurrentHashMap<>();
+    private final Map<Semester, Set<Course>> bySemester = new EnumMap<>(Semester.class);
+    private final Map<String, Set<Course>> byInstructor = new ConcurrentHashMap<>();
+    // Active courses by code, also used for paged listings
+    private final SortedView<Course, String> activeCourses =
+        new SortedView<>(course -> course.getCode().getCode(), course -> course.getCode().getCode(), String::compareTo);
+    
+    // Lookups return the live buckets, whose sizes are the planner's estimates
+    private final QueryPlanner<Course> planner =
+        new QueryPlanner<Course>("courses", courses.values()::forEach, courses::size)
+            .uniqueIndex("courses by code", CourseFields.CODE, courses::get)
+            .index("courses by department", CourseFields.DEPARTMENT,
+                department -> byDepartment.getOrDefault(departmentKey(department), Set.of()))
+            .index("courses by semester", CourseFields.SEMESTER, bySemester::get)
+            .index("courses by instructor", CourseFields.INSTRUCTOR_ID,
+                instructorId -> byInstructor.getOrDefault(instructorId, Set.of()))
+            .index("active courses", CourseFields.ACTIVE, active -> active ? activeCourses.values() : null);
+    
+    private volatile MutationJournal journal = MutationJournal.NONE;
+    private volatile Consumer<? super Course> updateListener = course -> { };
+    
+    public CourseServiceImpl() {
+        // Semester buckets are created up front so the EnumMap is never structurally modified
+        for (Semester semester : Semester.values()) {
+            bySemester.put(semester, ConcurrentHashMap.newKeySet());
+        }
+    }
+    
+    /**
+     * Record every successful mutation in the given journal, applied and
+     * then journaled under the course's lock (see StudentServiceImpl.setJournal)
+     */
+    public void setJournal(MutationJournal journal) {
+        this.journal = journal != null ? journal : MutationJournal.NONE;
+    }
+    
+    /**
+     * Called with the course after every successful update(), outside the
+     * course's lock, e.g. so enrollment credit loads follow a change of
+     * credits. One listener; null removes it.
+     */
+    public void setUpdateListener(Consumer<? super Course> listener) {
+        this.updateListener = listener != null ? listener : course -> { };
+    }
     
     @Override
     public Course create(Course course) {
         assert course != null : "Course cannot be null";
         assert course.getCode() != null : "Course code cannot be null";
         
-        if (courses.containsKey(course.getCode())) {
-            throw new IllegalArgumentException("Course with code " + course.getCode() + " already exists");
+        synchronized (locks.lockFor(course.getCode())) {
+            if (courses.putIfAbsent(course.getCode(), course) != null) {
+                throw new IllegalArgumentException("Course with code " + course.getCode() + " already exists");
+            }
+            reindex(course);
+            journal.courseCreated(course);
         }
         
-        courses.put(course.getCode(), course);
+        journal.sync();
         return course;
     }
     
@@ -35,40 +120,53 @@ public class CourseServiceImpl implements CourseService {
         return new ArrayList<>(courses.values());
     }
     
+    @Override
+    public void forEachEntity(Consumer<? super Course> action) {
+        courses.values().forEach(action);
+    }
+    
     @Override
     public Course update(Course course) {
-        if (!courses.containsKey(course.getCode())) {
-            throw new IllegalArgumentException("Course not found: " + course.getCode());
+        synchronized (locks.lockFor(course.getCode())) {
+            if (courses.replace(course.getCode(), course) == null) {
+                throw new IllegalArgumentException("Course not found: " + course.getCode());
+            }
+            reindex(course);
+            journal.courseUpdated(course);
         }
         
-        courses.put(course.getCode(), course);
+        journal.sync();
+        updateListener.accept(course);
         return course;
     }
     
     @Override
     public boolean delete(CourseCode courseCode) {
-        return courses.remove(courseCode) != null;
+        synchronized (locks.lockFor(courseCode)) {
+            if (courses.remove(courseCode) == null) {
+                return false;
+            }
+            unindex(courseCode);
+            journal.courseDeleted(courseCode);
+        }
+        
+        journal.sync();
+        return true;
     }
     
     @Override
     public List<Course> findByInstructor(Instructor instructor) {
-        return courses.values().stream()
-            .filter(course -> instructor.equals(course.getInstructor()))
-            .collect(Collectors.toList());
+        return snapshot(byInstructor.get(instructor.getId()));
     }
     
     @Override
     public List<Course> findByDepartment(String department) {
-        return courses.values().stream()
-            .filter(course -> department.equalsIgnoreCase(course.getDepartment()))
-            .collect(Collectors.toList());
+        return snapshot(byDepartment.get(departmentKey(department)));
     }
     
     @Override
     public List<Course> findBySemester(Semester semester) {
-        return courses.values().stream()
-            .filter(course -> semester == course.getSemester())
-            .collect(Collectors.toList());
+        return semester != null ? snapshot(bySemester.get(semester)) : new ArrayList<>();
     }
     
     @Override
@@ -78,23 +176,56 @@ public class CourseServiceImpl implements CourseService {
             .collect(Collectors.toList());
     }
     
+    @Override
+    public QueryPlanner.Plan<Course> plan(Query<Course> query) {
+        return planner.plan(query);
+    }
+    
     @Override
     public List<Course> findActiveCourses() {
-        return courses.values().stream()
-            .filter(Course::isActive)
-            .sorted(Comparator.comparing(course -> course.getCode().getCode()))
-            .collect(Collectors.toList());
+        // Already sorted by code
+        return new ArrayList<>(activeCourses.values());
+    }
+    
+    @Override
+    public Page<Course> listActiveCourses(Comparator<Course> order, Page.Cursor cursor, int pageSize) {
+        if (order != ComparatorUtils.BY_CODE) {
+            return CourseService.super.listActiveCourses(order, cursor, pageSize);
+        }
+        return activeCourses.page(cursor, pageSize);
     }
     
     @Override
     public boolean assignInstructor(CourseCode courseCode, Instructor instructor) {
-        Course course = courses.get(courseCode);
-        if (course != null) {
+        synchronized (locks.lockFor(courseCode)) {
+            Course course = courses.get(courseCode);
+            if (course == null) {
+                return false;
+            }
             course.setInstructor(instructor);
             instructor.assignCourse(course);
-            return true;
+            reindex(course);
+            journal.courseUpdated(course);
         }
-        return false;
+        
+        journal.sync();
+        return true;
+    }
+    
+    @Override
+    public boolean setActive(CourseCode courseCode, boolean active) {
+        synchronized (locks.lockFor(courseCode)) {
+            Course course = courses.get(courseCode);
+            if (course == null) {
+                return false;
+            }
+            course.setActive(active);
+            reindex(course);
+            journal.courseUpdated(course);
+        }
+        
+        journal.sync();
+        return true;
     }
     
     @Override
@@ -119,4 +250,63 @@ public class CourseServiceImpl implements CourseService {
         System.out.println("Status: " + (course.isActive() ? "Active" : "Inactive"));
         System.out.println("=".repeat(50));
     }
+    
+    // Remove all courses (used before restoring a backup)
+    public void clearAllCourses() {
+        courses.clear();
+        indexed.clear();
+        byDepartment.clear();
+        bySemester.values().forEach(Set::clear);
+        byInstructor.clear();
+        activeCourses.clear();
+        journal.coursesCleared();
+        journal.sync();
+    }
+    
+    // Move the course from the index entries it was filed under to entries
+    // for its current values; caller holds the course's lock
+    private void reindex(Course course) {
+        unindex(course.getCode());
+        IndexEntry entry = new IndexEntry(course);
+        indexed.put(course.getCode(), entry);
+        if (entry.department != null) {
+            byDepartment.computeIfAbsent(entry.department, k -> ConcurrentHashMap.newKeySet()).add(course);
+        }
+        if (entry.semester != null) {
+            bySemester.get(entry.semester).add(course);
+        }
+        if (entry.instructorId != null) {
+            byInstructor.computeIfAbsent(entry.instructorId, k -> ConcurrentHashMap.newKeySet()).add(course);
+        }
+        if (entry.active) {
+            activeCourses.put(course);
+        }
+    }
+    
+    private void unindex(CourseCode courseCode) {
+        IndexEntry entry = indexed.remove(courseCode);
+        if (entry == null) {
+            return;
+        }
+        if (entry.department != null) {
+            byDepartment.get(entry.department).remove(entry.course);
+        }
+        if (entry.semester != null) {
+            bySemester.get(entry.semester).remove(entry.course);
+        }
+        if (entry.instructorId != null) {
+            byInstructor.get(entry.instructorId).remove(entry.course);
+        }
+        if (entry.active) {
+            activeCourses.remove(courseCode.getCode());
+        }
+    }
+    
+    private static String departmentKey(String department) {
+        return department != null ? department.toLowerCase(Locale.ROOT) : null;
+    }
+    
+    private static List<Course> snapshot(Set<Course> bucket) {
+        return bucket != null ? new ArrayList<>(bucket) : new ArrayList<>();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Semester;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Running credit-load counters keyed by student and semester
+ * Holds the credits of every active, not yet completed enrollment so the
+ * per-semester credit limit can be checked in constant time
+ *
+ * Reads are lock-free. Callers serialize writes for the same student.
+ */
+public class CreditLedger {
+
+    private static final int SEMESTER_COUNT = Semester.values().length;
+
+    // One counter slot per semester, indexed by Semester.ordinal()
+    private final Map<String, AtomicIntegerArray> loads = new ConcurrentHashMap<>();
+
+    public int getLoad(String studentId, Semester semester) {
+        AtomicIntegerArray counters = loads.get(studentId);
+        return counters != null ? counters.get(semester.ordinal()) : 0;
+    }
+
+    public void charge(String studentId, Semester semester, int credits) {
+        loads.computeIfAbsent(studentId, k -> new AtomicIntegerArray(SEMESTER_COUNT))
+            .addAndGet(semester.ordinal(), credits);
+    }
+
+    public void release(String studentId, Semester semester, int credits) {
+        AtomicIntegerArray counters = loads.get(studentId);
+        if (counters == null) {
+            return;
+        }
+
+        counters.updateAndGet(semester.ordinal(), current -> Math.max(0, current - credits));
+        if (isEmpty(counters)) {
+            loads.remove(studentId, counters);
+        }
+    }
+
+    private static boolean isEmpty(AtomicIntegerArray counters) {
+        for (int i = 0; i < counters.length(); i++) {
+            if (counters.get(i) != 0) return false;
+        }
+        return true;
+    }
+
+    public void clear() {
+        loads.clear();
+    }
+}
\ No newline at end of file
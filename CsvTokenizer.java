@@ -0,0 +1,163 @@
+package edu.ccrm.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocation-light streaming CSV tokenizer
+ * Reads records straight from a Reader through one reusable char buffer,
+ * so a file is never held in memory. Supports RFC 4180 style quoting:
+ * quoted fields may contain commas, line breaks and doubled quotes ("").
+ */
+public class CsvTokenizer implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // Reused across records; only the field Strings themselves are allocated
+    private final StringBuilder field = new StringBuilder(64);
+    private final List<String> fields = new ArrayList<>();
+    private long recordNumber;
+
+    public CsvTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the next non-blank record
+     * @return the record's fields, or null at end of input. The list is
+     *         reused by the next call, so copy it if it must be kept.
+     */
+    public List<String> nextRecord() throws IOException {
+        while (true) {
+            int first = read();
+            if (first == -1) {
+                return null;
+            }
+            if (first == '\n') {
+                continue; // Skip blank lines
+            }
+            if (first == '\r') {
+                continue;
+            }
+
+            fields.clear();
+            recordNumber++;
+            parseRecord(first);
+            return fields;
+        }
+    }
+
+    private void parseRecord(int c) throws IOException {
+        field.setLength(0);
+        boolean quoted = false;
+        boolean inQuotes = false;
+
+        while (true) {
+            if (inQuotes) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field in record " + recordNumber);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"'); // Escaped quote
+                    } else {
+                        inQuotes = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                quoted = false;
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                return;
+            } else if (c == '"' && !quoted && field.length() == 0) {
+                quoted = true;
+                inQuotes = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Split a single line that is already in memory into fields, using the
+     * same quoting rules as nextRecord (a quoted field cannot span lines here)
+     * @param scratch reusable builder for field contents
+     */
+    public static void splitLine(CharSequence line, List<String> out, StringBuilder scratch) {
+        out.clear();
+        scratch.setLength(0);
+        boolean quoted = false;
+        boolean inQuotes = false;
+        int length = line.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < length && line.charAt(i + 1) == '"') {
+                        scratch.append('"'); // Escaped quote
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    scratch.append(c);
+                }
+            } else if (c == ',') {
+                out.add(scratch.toString());
+                scratch.setLength(0);
+                quoted = false;
+            } else if (c == '"' && !quoted && scratch.length() == 0) {
+                quoted = true;
+                inQuotes = true;
+            } else if (c != '\r') {
+                scratch.append(c);
+            }
+        }
+
+        if (inQuotes) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        out.add(scratch.toString());
+    }
+
+    /**
+     * Number of records returned so far (1-based index of the last record)
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
\ No newline at end of file
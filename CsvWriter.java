@@ -0,0 +1,89 @@
+package edu.ccrm.io;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streaming CSV writer
+ * Rows go straight through one large buffered writer, so exporting uses
+ * constant memory whatever the row count. Fields containing commas, quotes
+ * or line breaks are quoted with embedded quotes doubled (RFC 4180).
+ */
+public class CsvWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final Writer writer;
+    private long rowCount;
+
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public static CsvWriter open(Path file) throws IOException {
+        return new CsvWriter(new BufferedWriter(
+            new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE));
+    }
+
+    public void writeRow(String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(fields[i]);
+        }
+        writer.write('\n');
+        rowCount++;
+    }
+
+    private void writeField(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        if (!needsQuoting(value)) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean needsQuoting(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Number of rows written so far, including any header row
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
\ No newline at end of file
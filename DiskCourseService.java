@@ -0,0 +1,203 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.io.BPlusTree;
+import edu.ccrm.io.PageFile;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * CourseService stored in a page file instead of on the heap
+ * Courses are kept in a B+-tree keyed by course code, with each course's
+ * instructor stored inline, and only the LRU page cache is held in memory.
+ *
+ * Returned courses are detached copies: changes are stored only through
+ * update() or assignInstructor(). Filters scan every course.
+ * Thread-safe: every operation holds the service's lock.
+ */
+public class DiskCourseService implements CourseService, Closeable {
+
+    private static final int BY_CODE = 0;
+
+    private final PageFile file;
+    private final BPlusTree courses;
+
+    private DiskCourseService(PageFile file, int cachePages) throws IOException {
+        this.file = file;
+        this.courses = new BPlusTree(file, BY_CODE, cachePages);
+    }
+
+    /**
+     * Open (or create) a course store
+     * @param cachePages decoded pages to keep in memory
+     */
+    public static DiskCourseService open(Path path, int cachePages) throws IOException {
+        PageFile file = PageFile.open(path);
+        try {
+            return new DiskCourseService(file, cachePages);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized Course create(Course course) {
+        byte[] code = DiskRecords.key(course.getCode().getCode());
+        if (courses.get(code) != null) {
+            throw new IllegalArgumentException("Course with code " + course.getCode() + " already exists");
+        }
+
+        courses.put(code, DiskRecords.encodeCourse(course));
+        return course;
+    }
+
+    @Override
+    public synchronized Course findById(CourseCode courseCode) {
+        byte[] record = courses.get(DiskRecords.key(courseCode.getCode()));
+        return record != null ? DiskRecords.decodeCourse(record) : null;
+    }
+
+    @Override
+    public List<Course> findAll() {
+        List<Course> all = new ArrayList<>();
+        forEachEntity(all::add);
+        return all;
+    }
+
+    /**
+     * Visit every course in code order without loading them all at once
+     */
+    @Override
+    public synchronized void forEachEntity(Consumer<? super Course> action) {
+        courses.forEach((code, record) -> action.accept(DiskRecords.decodeCourse(record)));
+    }
+
+    @Override
+    public synchronized Course update(Course course) {
+        byte[] code = DiskRecords.key(course.getCode().getCode());
+        if (courses.get(code) == null) {
+            throw new IllegalArgumentException("Course not found: " + course.getCode());
+        }
+
+        courses.put(code, DiskRecords.encodeCourse(course));
+        return course;
+    }
+
+    @Override
+    public synchronized boolean delete(CourseCode courseCode) {
+        return courses.remove(DiskRecords.key(courseCode.getCode())) != null;
+    }
+
+    @Override
+    public synchronized long count() {
+        return courses.size();
+    }
+
+    @Override
+    public List<Course> findByInstructor(Instructor instructor) {
+        return search(course -> instructor.equals(course.getInstructor()));
+    }
+
+    @Override
+    public List<Course> findByDepartment(String department) {
+        return search(course -> department.equalsIgnoreCase(course.getDepartment()));
+    }
+
+    @Override
+    public List<Course> findBySemester(Semester semester) {
+        return search(course -> semester == course.getSemester());
+    }
+
+    @Override
+    public List<Course> search(Predicate<Course> criteria) {
+        List<Course> matches = new ArrayList<>();
+        forEachEntity(course -> {
+            if (criteria.test(course)) {
+                matches.add(course);
+            }
+        });
+        return matches;
+    }
+
+    @Override
+    public List<Course> findActiveCourses() {
+        // Already in code order
+        return search(Course::isActive);
+    }
+
+    @Override
+    public synchronized boolean assignInstructor(CourseCode courseCode, Instructor instructor) {
+        Course course = findById(courseCode);
+        if (course == null) {
+            return false;
+        }
+
+        course.setInstructor(instructor);
+        courses.put(DiskRecords.key(courseCode.getCode()), DiskRecords.encodeCourse(course));
+        instructor.assignCourse(course);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean setActive(CourseCode courseCode, boolean active) {
+        Course course = findById(courseCode);
+        if (course == null) {
+            return false;
+        }
+
+        course.setActive(active);
+        courses.put(DiskRecords.key(courseCode.getCode()), DiskRecords.encodeCourse(course));
+        return true;
+    }
+
+    @Override
+    public void generateCourseReport(CourseCode courseCode) {
+        Course course = findById(courseCode);
+        if (course == null) {
+            System.out.println("Course not found: " + courseCode);
+            return;
+        }
+
+        System.out.println("=".repeat(50));
+        System.out.println("COURSE REPORT");
+        System.out.println("=".repeat(50));
+        System.out.println("Code: " + course.getCode());
+        System.out.println("Title: " + course.getTitle());
+        System.out.println("Credits: " + course.getCredits());
+        System.out.println("Department: " + course.getDepartment());
+        System.out.println("Semester: " + course.getSemester());
+        System.out.println("Instructor: " +
+            (course.getInstructor() != null ? course.getInstructor().getName().getFullName() : "TBA"));
+        System.out.println("Max Enrollment: " + course.getMaxEnrollment());
+        System.out.println("Status: " + (course.isActive() ? "Active" : "Inactive"));
+        System.out.println("=".repeat(50));
+    }
+
+    /**
+     * Page cache hit rate as a percentage
+     */
+    public synchronized double getCacheHitRate() {
+        long hits = courses.getCacheHits();
+        long total = hits + courses.getCacheMisses();
+        return total == 0 ? 0 : hits * 100.0 / total;
+    }
+
+    /**
+     * Write modified pages back and force the file to disk
+     */
+    public synchronized void flush() throws IOException {
+        courses.flush();
+        file.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        courses.flush();
+        file.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact byte encoding of students and courses for the disk-backed services
+ * Strings are stored as a length-prefixed UTF-8 run (length -1 for null).
+ * Enrollments are not part of either record.
+ */
+final class DiskRecords {
+
+    private static final int MAX_RECORD_BYTES = 1024;
+
+    // Private constructor to prevent instantiation
+    private DiskRecords() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    static byte[] key(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String keyString(byte[] key) {
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    static byte[] encodeStudent(Student student) {
+        ByteBuffer buffer = newBuffer();
+        try {
+            putString(buffer, student.getId());
+            putString(buffer, student.getRegNo());
+            putName(buffer, student.getName());
+            putString(buffer, student.getEmail());
+            buffer.put((byte) student.getStatus().ordinal());
+            buffer.put((byte) (student.isActive() ? 1 : 0));
+        } catch (BufferOverflowException e) {
+            throw new IllegalArgumentException("Student record too large to store: " + student.getId());
+        }
+        return toArray(buffer);
+    }
+
+    static Student decodeStudent(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+        String id = getString(buffer);
+        String regNo = getString(buffer);
+        Name name = getName(buffer);
+        Student student = new Student(id, regNo, name, getString(buffer));
+        student.setStatus(Student.StudentStatus.values()[buffer.get()]);
+        student.setActive(buffer.get() != 0);
+        return student;
+    }
+
+    static byte[] encodeCourse(Course course) {
+        ByteBuffer buffer = newBuffer();
+        try {
+            putString(buffer, course.getCode().getCode());
+            putString(buffer, course.getTitle());
+            putString(buffer, course.getDepartment());
+            buffer.put((byte) course.getCredits());
+            buffer.put((byte) (course.getSemester() != null ? course.getSemester().ordinal() + 1 : 0));
+            buffer.putInt(course.getMaxEnrollment());
+            buffer.put((byte) (course.isActive() ? 1 : 0));
+            buffer.putShort((short) course.getPrerequisites().size());
+            for (String prerequisite : course.getPrerequisites()) {
+                putString(buffer, prerequisite);
+            }
+
+            Instructor instructor = course.getInstructor();
+            buffer.put((byte) (instructor != null ? 1 : 0));
+            if (instructor != null) {
+                putString(buffer, instructor.getId());
+                putName(buffer, instructor.getName());
+                putString(buffer, instructor.getEmail());
+                putString(buffer, instructor.getDepartment());
+                putString(buffer, instructor.getDesignation());
+            }
+        } catch (BufferOverflowException e) {
+            throw new IllegalArgumentException("Course record too large to store: " + course.getCode());
+        }
+        return toArray(buffer);
+    }
+
+    /**
+     * Decode a course; its instructor is a fresh object whose assigned
+     * courses contain just this course
+     */
+    static Course decodeCourse(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+        CourseCode code = CourseCode.of(getString(buffer));
+        String title = getString(buffer);
+        String department = getString(buffer);
+        int credits = buffer.get();
+        byte semester = buffer.get();
+        Course.Builder builder = new Course.Builder(code, title, credits)
+            .department(department)
+            .semester(semester > 0 ? Semester.values()[semester - 1] : null)
+            .maxEnrollment(buffer.getInt());
+        boolean active = buffer.get() != 0;
+        int prerequisites = buffer.getShort();
+        for (int i = 0; i < prerequisites; i++) {
+            builder.prerequisite(getString(buffer));
+        }
+
+        Instructor instructor = null;
+        if (buffer.get() != 0) {
+            String id = getString(buffer);
+            Name name = getName(buffer);
+            instructor = new Instructor(id, name, getString(buffer), getString(buffer), getString(buffer));
+        }
+
+        Course course = builder.instructor(instructor).build();
+        course.setActive(active);
+        if (instructor != null) {
+            instructor.assignCourse(course);
+        }
+        return course;
+    }
+
+    private static ByteBuffer newBuffer() {
+        return ByteBuffer.allocate(MAX_RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        byte[] record = new byte[buffer.position()];
+        buffer.flip().get(record);
+        return record;
+    }
+
+    private static void putName(ByteBuffer buffer, Name name) {
+        putString(buffer, name.getFirstName());
+        putString(buffer, name.getMiddleName());
+        putString(buffer, name.getLastName());
+    }
+
+    private static Name getName(ByteBuffer buffer) {
+        return new Name(getString(buffer), getString(buffer), getString(buffer));
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Student;
+import edu.ccrm.io.BPlusTree;
+import edu.ccrm.io.PageFile;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * StudentService stored in a page file instead of on the heap
+ * Students are kept in a B+-tree keyed by ID, with a second tree mapping
+ * RegNo to ID, so lookups touch a few pages and only the LRU page cache is
+ * held in memory. Suited to archives much larger than the heap.
+ *
+ * Returned students are detached copies: changes are stored only through
+ * update(), and enrollment history is not kept. Filters (findByStatus,
+ * search, ...) scan every student; use forEachEntity to stream large results.
+ * Thread-safe: every operation holds the service's lock.
+ */
+public class DiskStudentService implements StudentService, Closeable {
+
+    private static final int BY_ID = 0;
+    private static final int BY_REG_NO = 1;
+
+    private final PageFile file;
+    private final BPlusTree students;
+    private final BPlusTree studentsByRegNo;
+
+    private DiskStudentService(PageFile file, int cachePages) throws IOException {
+        this.file = file;
+        this.students = new BPlusTree(file, BY_ID, cachePages);
+        this.studentsByRegNo = new BPlusTree(file, BY_REG_NO, cachePages);
+    }
+
+    /**
+     * Open (or create) a student store
+     * @param cachePages decoded pages to keep in memory per index
+     */
+    public static DiskStudentService open(Path path, int cachePages) throws IOException {
+        PageFile file = PageFile.open(path);
+        try {
+            return new DiskStudentService(file, cachePages);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized Student create(Student student) {
+        byte[] id = DiskRecords.key(student.getId());
+        byte[] regNo = DiskRecords.key(student.getRegNo());
+        if (studentsByRegNo.get(regNo) != null) {
+            throw new IllegalArgumentException("Student with RegNo " + student.getRegNo() + " already exists");
+        }
+        if (students.get(id) != null) {
+            throw new IllegalArgumentException("Student with ID " + student.getId() + " already exists");
+        }
+
+        students.put(id, DiskRecords.encodeStudent(student));
+        studentsByRegNo.put(regNo, id);
+        return student;
+    }
+
+    @Override
+    public synchronized Student findById(String id) {
+        byte[] record = students.get(DiskRecords.key(id));
+        return record != null ? DiskRecords.decodeStudent(record) : null;
+    }
+
+    @Override
+    public List<Student> findAll() {
+        List<Student> all = new ArrayList<>();
+        forEachEntity(all::add);
+        return all;
+    }
+
+    /**
+     * Visit every student in ID order without loading them all at once
+     */
+    @Override
+    public synchronized void forEachEntity(Consumer<? super Student> action) {
+        students.forEach((id, record) -> action.accept(DiskRecords.decodeStudent(record)));
+    }
+
+    @Override
+    public synchronized Student update(Student student) {
+        byte[] id = DiskRecords.key(student.getId());
+        byte[] previous = students.get(id);
+        if (previous == null) {
+            throw new IllegalArgumentException("Student not found: " + student.getId());
+        }
+
+        byte[] regNo = DiskRecords.key(student.getRegNo());
+        byte[] owner = studentsByRegNo.get(regNo);
+        if (owner != null && !Arrays.equals(owner, id)) {
+            throw new IllegalArgumentException("Student with RegNo " + student.getRegNo() + " already exists");
+        }
+
+        String oldRegNo = DiskRecords.decodeStudent(previous).getRegNo();
+        if (!oldRegNo.equals(student.getRegNo())) {
+            byte[] oldKey = DiskRecords.key(oldRegNo);
+            byte[] oldOwner = studentsByRegNo.get(oldKey);
+            if (oldOwner != null && Arrays.equals(oldOwner, id)) {
+                studentsByRegNo.remove(oldKey);
+            }
+        }
+        students.put(id, DiskRecords.encodeStudent(student));
+        studentsByRegNo.put(regNo, id);
+        return student;
+    }
+
+    @Override
+    public synchronized boolean delete(String id) {
+        byte[] record = students.remove(DiskRecords.key(id));
+        if (record == null) {
+            return false;
+        }
+
+        byte[] regNo = DiskRecords.key(DiskRecords.decodeStudent(record).getRegNo());
+        byte[] owner = studentsByRegNo.get(regNo);
+        if (owner != null && DiskRecords.keyString(owner).equals(id)) {
+            studentsByRegNo.remove(regNo);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized long count() {
+        return students.size();
+    }
+
+    @Override
+    public synchronized Student findByRegNo(String regNo) {
+        byte[] id = studentsByRegNo.get(DiskRecords.key(regNo));
+        if (id == null) {
+            return null;
+        }
+        byte[] record = students.get(id);
+        return record != null ? DiskRecords.decodeStudent(record) : null;
+    }
+
+    @Override
+    public List<Student> findByStatus(Student.StudentStatus status) {
+        return search(student -> student.getStatus() == status);
+    }
+
+    @Override
+    public List<Student> findActiveStudents() {
+        List<Student> active = search(Student::isActive);
+        active.sort((s1, s2) -> s1.getName().getFullName().compareTo(s2.getName().getFullName()));
+        return active;
+    }
+
+    @Override
+    public List<Student> search(Predicate<Student> criteria) {
+        List<Student> matches = new ArrayList<>();
+        forEachEntity(student -> {
+            if (criteria.test(student)) {
+                matches.add(student);
+            }
+        });
+        return matches;
+    }
+
+    @Override
+    public void generateStudentReport(String studentId) {
+        Student student = findById(studentId);
+        if (student == null) {
+            System.out.println("Student not found: " + studentId);
+            return;
+        }
+
+        System.out.println("=".repeat(50));
+        System.out.println("STUDENT REPORT");
+        System.out.println("=".repeat(50));
+        System.out.println(student.getDetailedInfo());
+        System.out.println("(Enrollment history is not kept in the disk store)");
+        System.out.println("=".repeat(50));
+    }
+
+    /**
+     * Page cache hit rate across both indexes, as a percentage
+     */
+    public synchronized double getCacheHitRate() {
+        long hits = students.getCacheHits() + studentsByRegNo.getCacheHits();
+        long total = hits + students.getCacheMisses() + studentsByRegNo.getCacheMisses();
+        return total == 0 ? 0 : hits * 100.0 / total;
+    }
+
+    /**
+     * Write modified pages back and force the file to disk
+     */
+    public synchronized void flush() throws IOException {
+        students.flush();
+        studentsByRegNo.flush();
+        file.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        students.flush();
+        studentsByRegNo.flush();
+        file.close();
+    }
+}
\ No newline at end of file
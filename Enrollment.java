@@ -15,6 +15,15 @@ public class Enrollment {
     private double marks;
     private boolean active;
     
+    // Set once the student has added this enrollment to its history, after
+    // which grade changes are reported back to keep the cached GPA current
+    private boolean tracked;
+    
+    // Credits this enrollment currently adds to its student's semester load,
+    // kept by the enrollment service so a change of course credits is
+    // applied from what was actually charged
+    private int chargedCredits;
+    
     public Enrollment(Student student, Course course, Semester semester, LocalDate enrollmentDate) {
         this.student = student;
         this.course = course;
@@ -45,7 +54,11 @@ public class Enrollment {
     }
     
     public void setGrade(Grade grade) {
+        Grade previous = this.grade;
         this.grade = grade;
+        if (tracked && previous != grade) {
+            student.onGradeChanged(previous, grade);
+        }
     }
     
     public double getMarks() {
@@ -54,7 +67,13 @@ public class Enrollment {
     
     public void setMarks(double marks) {
         this.marks = marks;
-        this.grade = Grade.fromMarks(marks);
+        setGrade(Grade.fromMarks(marks));
+    }
+    
+    // Restore a stored result as recorded, without re-deriving the grade
+    public void setResult(double marks, Grade grade) {
+        this.marks = marks;
+        setGrade(grade);
     }
     
     public boolean isActive() {
@@ -65,6 +84,18 @@ public class Enrollment {
         this.active = active;
     }
     
+    public int getChargedCredits() {
+        return chargedCredits;
+    }
+    
+    public void setChargedCredits(int chargedCredits) {
+        this.chargedCredits = chargedCredits;
+    }
+    
+    void setTracked(boolean tracked) {
+        this.tracked = tracked;
+    }
+    
     public boolean isCompleted() {
         return grade != null;
     }
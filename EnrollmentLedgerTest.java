@@ -0,0 +1,377 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.io.SnapshotStore;
+import edu.ccrm.io.WriteAheadLog;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Checks that the enrollment service's running counters (cached GPA,
+ * credit loads and seats taken) match values recomputed from the stored
+ * enrollments after each kind of mutation
+ * Plain Java, no test framework: run with
+ * <pre>
+ * java -ea -cp bin edu.ccrm.service.EnrollmentLedgerTest
+ * </pre>
+ * Exits with status 1 if any check fails.
+ */
+public class EnrollmentLedgerTest {
+
+    @FunctionalInterface
+    private interface TestCase {
+        void run() throws Exception;
+    }
+
+    private final List<String> failures = new ArrayList<>();
+    private int checks;
+
+    private StudentServiceImpl students;
+    private CourseServiceImpl courses;
+    private EnrollmentServiceImpl enrollments;
+
+    public static void main(String[] args) {
+        EnrollmentLedgerTest test = new EnrollmentLedgerTest();
+        test.run("enroll, grade and unenroll", test::enrollGradeAndUnenroll);
+        test.run("restore", test::restoreMixedRecords);
+        test.run("re-enroll after restored inactive enrollment", test::reEnrollAfterRestoredInactive);
+        test.run("credit change", test::creditChange);
+        test.run("credit change racing enrollments", test::creditChangeRacingEnrollments);
+        test.run("listing order", test::listingOrder);
+        test.run("write-ahead log replay", test::replayFromLog);
+        test.run("snapshot round trip", test::snapshotRoundTrip);
+
+        System.out.println(test.checks + " checks, " + test.failures.size() + " failed");
+        test.failures.forEach(failure -> System.out.println("FAIL " + failure));
+        if (!test.failures.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private void run(String name, TestCase testCase) {
+        freshServices();
+        try {
+            testCase.run();
+        } catch (Exception | AssertionError e) {
+            failures.add(name + ": " + e);
+        }
+    }
+
+    private void freshServices() {
+        students = new StudentServiceImpl();
+        courses = new CourseServiceImpl();
+        enrollments = new EnrollmentServiceImpl(students, courses);
+    }
+
+    // Test cases
+
+    private void enrollGradeAndUnenroll() throws Exception {
+        student("S1");
+        student("S2");
+        Course databases = course("CS101", 4, 10);
+        Course networks = course("CS102", 3, 10);
+        Course ethics = course("HU101", 2, 10);
+
+        enrollments.enrollStudent("S1", databases.getCode(), Semester.FALL);
+        enrollments.enrollStudent("S1", networks.getCode(), Semester.FALL);
+        enrollments.enrollStudent("S1", ethics.getCode(), Semester.SPRING);
+        enrollments.enrollStudent("S2", databases.getCode(), Semester.FALL);
+        check("S1 fall load", 7, enrollments.getStudentCreditLoad("S1", Semester.FALL));
+        verifyLedgers("after enroll");
+
+        enrollments.recordGrade("S1", databases.getCode(), Semester.FALL, 91);
+        check("graded course leaves the load", 3, enrollments.getStudentCreditLoad("S1", Semester.FALL));
+        verifyLedgers("after grading");
+
+        enrollments.recordGrade("S1", databases.getCode(), Semester.FALL, 55);
+        verifyLedgers("after re-grading");
+
+        BulkGradeResult result = enrollments.recordGrades(List.of(
+            new GradeEntry("S1", networks.getCode(), Semester.FALL, 78, 1),
+            new GradeEntry("S2", databases.getCode(), Semester.FALL, 120, 2),
+            new GradeEntry("S2", ethics.getCode(), Semester.FALL, 70, 3)));
+        check("bulk grades applied", 1L, result.getApplied());
+        verifyLedgers("after bulk grading");
+
+        check("completed enrollment cannot be unenrolled", false,
+            enrollments.unenrollStudent("S1", databases.getCode(), Semester.FALL));
+        check("in-progress enrollment unenrolled", true,
+            enrollments.unenrollStudent("S1", ethics.getCode(), Semester.SPRING));
+        enrollments.unenrollStudent("S2", databases.getCode(), Semester.FALL);
+        verifyLedgers("after unenroll");
+    }
+
+    private void restoreMixedRecords() {
+        Student student = student("S1");
+        student("S2");
+        Course databases = course("CS101", 4, 10);
+        Course networks = course("CS102", 3, 10);
+
+        Enrollment inProgress = new Enrollment(student, databases, Semester.FALL, LocalDate.now());
+        Enrollment completed = new Enrollment(student, networks, Semester.FALL, LocalDate.now());
+        completed.setMarks(84);
+        Enrollment droppedGraded = new Enrollment(students.findById("S2"), networks, Semester.FALL, LocalDate.now());
+        droppedGraded.setMarks(40);
+        droppedGraded.setActive(false);
+        for (Enrollment enrollment : List.of(inProgress, completed, droppedGraded)) {
+            enrollments.restoreEnrollment(enrollment);
+        }
+        verifyLedgers("after restore");
+
+        // Restoring a newer version of a record replaces the stored one
+        Enrollment graded = new Enrollment(student, databases, Semester.FALL, LocalDate.now());
+        graded.setMarks(95);
+        enrollments.restoreEnrollment(graded);
+        Enrollment dropped = new Enrollment(student, networks, Semester.FALL, LocalDate.now());
+        dropped.setActive(false);
+        enrollments.restoreEnrollment(dropped);
+        check("records after replacing", 3, enrollments.getAllEnrollments().size());
+        verifyLedgers("after restoring replacements");
+    }
+
+    private void reEnrollAfterRestoredInactive() throws Exception {
+        Student student = student("S1");
+        Course course = course("CS101", 4, 1);
+        Enrollment dropped = new Enrollment(student, course, Semester.FALL, LocalDate.now());
+        dropped.setActive(false);
+        enrollments.restoreEnrollment(dropped);
+        check("restored inactive record holds nothing", 0, enrollments.getStudentCreditLoad("S1", Semester.FALL));
+        verifyLedgers("after restore");
+
+        // The course is full only if the inactive record still held the seat
+        enrollments.enrollStudent("S1", course.getCode(), Semester.FALL);
+        check("load after re-enroll", 4, enrollments.getStudentCreditLoad("S1", Semester.FALL));
+        check("seats after re-enroll", 1, enrollments.getSeatsTaken(course.getCode()));
+        verifyLedgers("after re-enroll");
+
+        enrollments.unenrollStudent("S1", course.getCode(), Semester.FALL);
+        check("load after unenroll", 0, enrollments.getStudentCreditLoad("S1", Semester.FALL));
+        verifyLedgers("after unenroll");
+    }
+
+    private void creditChange() throws Exception {
+        student("S1");
+        student("S2");
+        Course course = course("CS101", 3, 10);
+        enrollments.enrollStudent("S1", course.getCode(), Semester.FALL);
+        enrollments.enrollStudent("S2", course.getCode(), Semester.FALL);
+        enrollments.recordGrade("S2", course.getCode(), Semester.FALL, 88);
+
+        enrollments.updateCourseCredits(course.getCode(), 5);
+        check("load after credit increase", 5, enrollments.getStudentCreditLoad("S1", Semester.FALL));
+        verifyLedgers("after updateCourseCredits");
+
+        // Changed in place and passed to update(), bypassing updateCourseCredits
+        course.setCredits(2);
+        courses.update(course);
+        check("load after update()", 2, enrollments.getStudentCreditLoad("S1", Semester.FALL));
+        verifyLedgers("after CourseService.update");
+
+        enrollments.repriceEnrollments(course.getCode());
+        verifyLedgers("after a repeated re-pricing");
+    }
+
+    private void creditChangeRacingEnrollments() throws Exception {
+        int studentCount = 400;
+        for (int i = 0; i < studentCount; i++) {
+            student("S" + i);
+        }
+        Course course = course("CS101", 3, studentCount);
+
+        Thread enroller = new Thread(() -> {
+            for (int i = 0; i < studentCount; i++) {
+                try {
+                    enrollments.enrollStudent("S" + i, course.getCode(), Semester.FALL);
+                } catch (DuplicateEnrollmentException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        enroller.start();
+        for (int i = 0; enroller.isAlive(); i++) {
+            enrollments.updateCourseCredits(course.getCode(), 1 + i % 6);
+        }
+        enroller.join();
+
+        check("enrolled", studentCount, enrollments.getCourseEnrollments(course.getCode()).size());
+        verifyLedgers("after racing credit changes");
+    }
+
+    private void listingOrder() throws Exception {
+        student("S1");
+        student("S2");
+        for (int i = 1; i <= 5; i++) {
+            course("CS10" + i, 3, 10);
+        }
+        enrollments.enrollStudent("S1", CourseCode.of("CS103"), Semester.FALL);
+        enrollments.enrollStudent("S2", CourseCode.of("CS101"), Semester.FALL);
+        enrollments.enrollStudent("S1", CourseCode.of("CS105"), Semester.FALL);
+        enrollments.enrollStudent("S1", CourseCode.of("CS102"), Semester.FALL);
+        enrollments.unenrollStudent("S1", CourseCode.of("CS105"), Semester.FALL);
+        enrollments.enrollStudent("S1", CourseCode.of("CS105"), Semester.FALL);
+        check("all enrollments in enrollment order", List.of("S1/CS103", "S2/CS101", "S1/CS102", "S1/CS105"),
+            keys(enrollments.getAllEnrollments()));
+        check("student's enrollments in enrollment order", List.of("S1/CS103", "S1/CS102", "S1/CS105"),
+            keys(enrollments.getStudentEnrollments("S1")));
+
+        // Restored out of order at reserved positions, as a parallel restore does
+        long first = enrollments.reservePositions(2);
+        Student student = students.findById("S2");
+        enrollments.restoreEnrollment(new Enrollment(student, courses.findById(CourseCode.of("CS104")),
+            Semester.FALL, LocalDate.now()), first + 1);
+        enrollments.restoreEnrollment(new Enrollment(student, courses.findById(CourseCode.of("CS103")),
+            Semester.FALL, LocalDate.now()), first);
+        check("restored enrollments in position order", List.of("S2/CS101", "S2/CS103", "S2/CS104"),
+            keys(enrollments.getStudentEnrollments("S2")));
+        verifyLedgers("after enrollments in mixed order");
+    }
+
+    private void replayFromLog() throws Exception {
+        Path directory = Files.createTempDirectory("ccrm-ledger-test");
+        try {
+            WriteAheadLog log = WriteAheadLog.open(directory, WriteAheadLog.SyncPolicy.NEVER, 0, 0,
+                new JournalReplayer(students, courses, enrollments));
+            students.setJournal(log);
+            courses.setJournal(log);
+            enrollments.setJournal(log);
+            applyMixedHistory();
+            log.close();
+            Map<String, Object> expected = counters();
+
+            freshServices();
+            WriteAheadLog.open(directory, WriteAheadLog.SyncPolicy.NEVER, 0, 0,
+                new JournalReplayer(students, courses, enrollments)).close();
+            check("replayed counters", expected, counters());
+            verifyLedgers("after replay");
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    private void snapshotRoundTrip() throws Exception {
+        Path directory = Files.createTempDirectory("ccrm-ledger-test");
+        try {
+            applyMixedHistory();
+            Map<String, Object> expected = counters();
+            SnapshotStore snapshots = new SnapshotStore(directory);
+            snapshots.write(1, students, courses, enrollments);
+
+            freshServices();
+            snapshots.loadLatest(students, courses, enrollments);
+            check("restored counters", expected, counters());
+            verifyLedgers("after snapshot load");
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    // Enrollments, grades, an unenroll and a credit change over three students
+    private void applyMixedHistory() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            student("S" + i);
+        }
+        Course databases = course("CS101", 4, 10);
+        Course networks = course("CS102", 3, 10);
+        course("HU101", 2, 10);
+        for (int i = 1; i <= 3; i++) {
+            for (Course course : courses.findAll()) {
+                enrollments.enrollStudent("S" + i, course.getCode(), Semester.FALL);
+            }
+        }
+        enrollments.recordGrade("S1", databases.getCode(), Semester.FALL, 92);
+        enrollments.recordGrade("S2", databases.getCode(), Semester.FALL, 67);
+        enrollments.recordGrades(List.of(
+            new GradeEntry("S3", networks.getCode(), Semester.FALL, 75, 1),
+            new GradeEntry("S1", networks.getCode(), Semester.FALL, 88, 2)));
+        enrollments.unenrollStudent("S2", networks.getCode(), Semester.FALL);
+        enrollments.updateCourseCredits(CourseCode.of("HU101"), 5);
+        enrollments.recordGrade("S1", databases.getCode(), Semester.FALL, 58);
+    }
+
+    // Fixtures and checks
+
+    // Every counter the ledger tests check, by name
+    private Map<String, Object> counters() {
+        Map<String, Object> counters = new TreeMap<>();
+        for (Course course : courses.findAll()) {
+            counters.put("seats " + course.getCode(), enrollments.getSeatsTaken(course.getCode()));
+            counters.put("credits " + course.getCode(), course.getCredits());
+        }
+        for (Student student : students.findAll()) {
+            for (Semester semester : Semester.values()) {
+                counters.put("load " + student.getId() + " " + semester,
+                    enrollments.getStudentCreditLoad(student.getId(), semester));
+            }
+            counters.put("gpa " + student.getId(), student.calculateGPA());
+        }
+        counters.put("enrollments", enrollments.getAllEnrollments().size());
+        return counters;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static List<String> keys(List<Enrollment> list) {
+        List<String> keys = new ArrayList<>();
+        for (Enrollment enrollment : list) {
+            keys.add(enrollment.getStudent().getId() + "/" + enrollment.getCourse().getCode());
+        }
+        return keys;
+    }
+
+    private Student student(String id) {
+        return students.create(new Student(id, "2024CS" + id, new Name("Test", id), id.toLowerCase() + "@uni.edu"));
+    }
+
+    private Course course(String code, int credits, int maxEnrollment) {
+        return courses.create(new Course.Builder(CourseCode.of(code), "Course " + code, credits)
+            .department("Computer Science").semester(Semester.FALL).maxEnrollment(maxEnrollment).build());
+    }
+
+    /**
+     * Compare every counter with its value recomputed from the stored
+     * enrollments: an active enrollment holds a seat, an active enrollment
+     * without a grade is charged its credits, and a student's GPA averages
+     * the grade points of the graded enrollments in their history
+     */
+    private void verifyLedgers(String when) {
+        List<Enrollment> all = enrollments.getAllEnrollments();
+        for (Course course : courses.findAll()) {
+            long seats = all.stream()
+                .filter(e -> e.getCourse().getCode().equals(course.getCode()) && e.isActive())
+                .count();
+            check(when + ": seats taken in " + course.getCode(), seats, enrollments.getSeatsTaken(course.getCode()));
+        }
+        for (Student student : students.findAll()) {
+            for (Semester semester : Semester.values()) {
+                int load = all.stream()
+                    .filter(e -> e.getStudent().getId().equals(student.getId()) && e.getSemester() == semester
+                        && e.isActive() && !e.isCompleted())
+                    .mapToInt(e -> e.getCourse().getCredits())
+                    .sum();
+                check(when + ": credit load of " + student.getId() + " in " + semester,
+                    load, enrollments.getStudentCreditLoad(student.getId(), semester));
+            }
+            check(when + ": cached GPA of " + student.getId(), student.recalculateGPA(), student.calculateGPA());
+        }
+    }
+
+    private void check(String what, Object expected, Object actual) {
+        checks++;
+        boolean equal = expected instanceof Number && actual instanceof Number
+            ? Math.abs(((Number) expected).doubleValue() - ((Number) actual).doubleValue()) < 1e-9
+            : expected.equals(actual);
+        if (!equal) {
+            failures.add(what + ": expected " + expected + " but was " + actual);
+        }
+    }
+}
\ No newline at end of file
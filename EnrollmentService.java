@@ -2,6 +2,7 @@ package edu.ccrm.service;
 
 import edu.ccrm.domain.*;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,6 +21,19 @@ public interface EnrollmentService {
     
     boolean recordGrade(String studentId, CourseCode courseCode, Semester semester, double marks);
     
+    // Bulk grade ingestion; implementations should override with a batched path
+    default BulkGradeResult recordGrades(Collection<GradeEntry> entries) {
+        BulkGradeResult result = new BulkGradeResult();
+        for (GradeEntry entry : entries) {
+            if (recordGrade(entry.getStudentId(), entry.getCourseCode(), entry.getSemester(), entry.getMarks())) {
+                result.recordApplied();
+            } else {
+                result.recordRejected(entry, "No active enrollment found");
+            }
+        }
+        return result;
+    }
+    
     // Business rule validation
     boolean canEnroll(String studentId, CourseCode courseCode, Semester semester);
     int getStudentCreditLoad(String studentId, Semester semester);
@@ -1,22 +1,52 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.*;
+import edu.ccrm.util.InputValidator;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * Implementation of EnrollmentService with business rules
+ * Thread-safe: mutations are serialized per student through striped locks,
+ * so the duplicate check and the credit limit are checked and applied
+ * atomically while different students enroll in parallel.
+ * Course capacity is enforced with lock-free per-course seat counters.
  */
 public class EnrollmentServiceImpl implements EnrollmentService {
     
     private final StudentService studentService;
     private final CourseService courseService;
-    private final List<Enrollment> enrollments = new ArrayList<>();
+    private final EnrollmentStore enrollments = new EnrollmentStore();
+    private final CreditLedger creditLedger = new CreditLedger();
+    private final SeatLedger seatLedger = new SeatLedger();
+    private volatile MutationJournal journal = MutationJournal.NONE;
+    
+    private static final int MAX_CREDITS_PER_SEMESTER = 20;
+    
+    private final StripedLocks studentLocks = new StripedLocks(256);
     
     public EnrollmentServiceImpl(StudentService studentService, CourseService courseService) {
         this.studentService = studentService;
         this.courseService = courseService;
+        if (courseService instanceof CourseServiceImpl) {
+            // Credits changed in place and passed to update() are re-applied
+            ((CourseServiceImpl) courseService).setUpdateListener(course -> repriceEnrollments(course.getCode()));
+        }
+    }
+    
+    /**
+     * Record every successful mutation in the given journal. Records are
+     * appended under the student's lock, so each student's changes reach
+     * the journal in the order they were applied; the journal is synced
+     * after the lock is released.
+     */
+    public void setJournal(MutationJournal journal) {
+        this.journal = journal != null ? journal : MutationJournal.NONE;
+    }
+    
+    private Object lockFor(String studentId) {
+        return studentLocks.lockFor(studentId);
     }
     
     @Override
@@ -33,75 +63,147 @@ public class EnrollmentServiceImpl implements EnrollmentService {
             throw new IllegalArgumentException("Course not found: " + courseCode);
         }
         
-        // Check for duplicate enrollment
-        boolean alreadyEnrolled = enrollments.stream()
-            .anyMatch(e -> e.getStudent().getId().equals(studentId) &&
-                          e.getCourse().getCode().equals(courseCode) &&
-                          e.getSemester() == semester &&
-                          e.isActive());
-        
-        if (alreadyEnrolled) {
-            throw new DuplicateEnrollmentException(studentId, courseCode.getCode(), semester);
+        Enrollment enrollment;
+        synchronized (lockFor(studentId)) {
+            // Check for duplicate enrollment (O(1) composite key lookup)
+            Enrollment existing = enrollments.find(studentId, courseCode, semester);
+            
+            if (existing != null && existing.isActive()) {
+                throw new DuplicateEnrollmentException(studentId, courseCode.getCode(), semester);
+            }
+            
+            // Check credit limit against the running ledger; the credits are
+            // read once, and the amount checked is the amount charged
+            int credits = creditsOf(course);
+            int currentCredits = creditLedger.getLoad(studentId, semester);
+            if (currentCredits + credits > MAX_CREDITS_PER_SEMESTER) {
+                throw new MaxCreditLimitExceededException(studentId, currentCredits, 
+                    credits, MAX_CREDITS_PER_SEMESTER);
+            }
+            
+            // Reserve a seat before the enrollment exists; CAS only, no course lock
+            if (!seatLedger.tryReserve(course)) {
+                throw new CourseFullException(courseCode.getCode(), course.getMaxEnrollment());
+            }
+            
+            enrollment = new Enrollment(student, course, semester, LocalDate.now());
+            Enrollment replaced = enrollments.add(enrollment);
+            if (replaced != null) {
+                releaseHoldings(replaced);
+                student.removeEnrollment(replaced);
+            }
+            student.addEnrollment(enrollment);
+            if (replaced != null && replaced.getGrade() != null) {
+                studentService.onGradesChanged(student);
+            }
+            creditLedger.charge(studentId, semester, credits);
+            enrollment.setChargedCredits(credits);
+            // A credit change whose re-pricing pass ran before this record was
+            // stored did not see it; catch up with the current credits
+            reprice(enrollment);
+            journal.enrolled(studentId, courseCode, semester, enrollment.getEnrollmentDate(), Double.NaN, true);
         }
         
-        // Check credit limit
-        if (!canEnroll(studentId, courseCode, semester)) {
-            int currentCredits = getStudentCreditLoad(studentId, semester);
-            throw new MaxCreditLimitExceededException(studentId, currentCredits, 
-                course.getCredits(), 20);
-        }
-        
-        Enrollment enrollment = new Enrollment(student, course, semester, LocalDate.now());
-        enrollments.add(enrollment);
-        
+        journal.sync();
         return enrollment;
     }
     
     @Override
     public boolean unenrollStudent(String studentId, CourseCode courseCode, Semester semester) {
-        return enrollments.removeIf(e -> 
-            e.getStudent().getId().equals(studentId) &&
-            e.getCourse().getCode().equals(courseCode) &&
-            e.getSemester() == semester &&
-            e.isActive() &&
-            !e.isCompleted()); // Can't unenroll from completed courses
+        synchronized (lockFor(studentId)) {
+            Enrollment enrollment = enrollments.find(studentId, courseCode, semester);
+            if (enrollment == null || !enrollment.isActive() || enrollment.isCompleted()) {
+                return false; // Can't unenroll from completed courses
+            }
+            
+            enrollments.remove(studentId, courseCode, semester);
+            releaseHoldings(enrollment);
+            enrollment.getStudent().removeEnrollment(enrollment);
+            journal.unenrolled(studentId, courseCode, semester);
+        }
+        
+        journal.sync();
+        return true;
     }
     
     @Override
     public List<Enrollment> getStudentEnrollments(String studentId) {
-        return enrollments.stream()
-            .filter(e -> e.getStudent().getId().equals(studentId))
-            .collect(Collectors.toList());
+        return new ArrayList<>(enrollments.getByStudent(studentId));
     }
     
     @Override
     public List<Enrollment> getCourseEnrollments(CourseCode courseCode) {
-        return enrollments.stream()
-            .filter(e -> e.getCourse().getCode().equals(courseCode))
-            .collect(Collectors.toList());
+        return new ArrayList<>(enrollments.getByCourse(courseCode));
     }
     
     @Override
     public List<Enrollment> getEnrollmentsBySemester(Semester semester) {
-        return enrollments.stream()
-            .filter(e -> e.getSemester() == semester)
-            .collect(Collectors.toList());
+        return new ArrayList<>(enrollments.getBySemester(semester));
     }
     
     @Override
     public boolean recordGrade(String studentId, CourseCode courseCode, Semester semester, double marks) {
-        Optional<Enrollment> enrollment = enrollments.stream()
-            .filter(e -> e.getStudent().getId().equals(studentId) &&
-                        e.getCourse().getCode().equals(courseCode) &&
-                        e.getSemester() == semester &&
-                        e.isActive())
-            .findFirst();
+        synchronized (lockFor(studentId)) {
+            Enrollment enrollment = enrollments.find(studentId, courseCode, semester);
+            if (enrollment == null || !enrollment.isActive()) {
+                return false;
+            }
+            
+            enrollment.setMarks(marks);
+            studentService.onGradesChanged(enrollment.getStudent());
+            // Completed courses no longer count towards the semester load
+            reprice(enrollment);
+            journal.gradeRecorded(studentId, courseCode, semester, marks);
+        }
         
-        if (enrollment.isPresent()) {
-            enrollment.get().setMarks(marks);
-            return true;
+        journal.sync();
+        return true;
+    }
+    
+    /**
+     * Apply many grades at once. Entries are grouped by student so each
+     * student's lock is taken once per batch; each enrollment is resolved
+     * through the composite index and the student's GPA aggregate is
+     * adjusted by a constant-time delta rather than recomputed.
+     */
+    @Override
+    public BulkGradeResult recordGrades(Collection<GradeEntry> entries) {
+        BulkGradeResult result = new BulkGradeResult();
+        
+        Map<String, List<GradeEntry>> byStudent = new LinkedHashMap<>();
+        for (GradeEntry entry : entries) {
+            if (!InputValidator.isValidMarks(entry.getMarks())) {
+                result.recordRejected(entry, "Marks must be between 0 and 100");
+                continue;
+            }
+            byStudent.computeIfAbsent(entry.getStudentId(), k -> new ArrayList<>()).add(entry);
         }
-        return false;
+        
+        for (Map.Entry<String, List<GradeEntry>> group : byStudent.entrySet()) {
+            String studentId = group.getKey();
+            synchronized (lockFor(studentId)) {
+                for (GradeEntry entry : group.getValue()) {
+                    Enrollment enrollment = enrollments.find(studentId, entry.getCourseCode(), entry.getSemester());
+                    if (enrollment == null) {
+                        result.recordRejected(entry, "No enrollment found");
+                        continue;
+                    }
+                    if (!enrollment.isActive()) {
+                        result.recordRejected(entry, "Enrollment is not active");
+                        continue;
+                    }
+                    
+                    enrollment.setMarks(entry.getMarks());
+                    studentService.onGradesChanged(enrollment.getStudent());
+                    reprice(enrollment);
+                    journal.gradeRecorded(studentId, entry.getCourseCode(), entry.getSemester(), entry.getMarks());
+                    result.recordApplied();
+                }
+            }
+        }
+        
+        journal.sync(); // One sync for the whole batch
+        return result;
     }
     
     @Override
@@ -110,26 +212,164 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         if (course == null) return false;
         
         int currentCredits = getStudentCreditLoad(studentId, semester);
-        return currentCredits + course.getCredits() <= 20; // Max 20 credits per semester
+        return currentCredits + course.getCredits() <= MAX_CREDITS_PER_SEMESTER;
     }
     
     @Override
     public int getStudentCreditLoad(String studentId, Semester semester) {
-        return enrollments.stream()
-            .filter(e -> e.getStudent().getId().equals(studentId))
-            .filter(e -> e.getSemester() == semester)
-            .filter(e -> e.isActive())
-            .filter(e -> !e.isCompleted())
-            .mapToInt(e -> e.getCourse().getCredits())
-            .sum();
+        return creditLedger.getLoad(studentId, semester);
+    }
+    
+    /**
+     * Change a course's credits and re-price every in-progress enrollment
+     * in the credit ledger. Course credits should be changed through this
+     * method, or set on the course and passed to CourseService.update, so
+     * the ledger stays accurate.
+     */
+    public boolean updateCourseCredits(CourseCode courseCode, int credits) {
+        if (credits < 1 || credits > 6) {
+            throw new IllegalArgumentException("Credits must be between 1 and 6");
+        }
+        
+        Course course = courseService.findById(courseCode);
+        if (course == null) {
+            return false;
+        }
+        
+        synchronized (course) {
+            course.setCredits(credits);
+            journal.courseUpdated(course);
+        }
+        repriceEnrollments(courseCode);
+        
+        journal.sync();
+        return true;
+    }
+    
+    /**
+     * Bring the credit loads of a course's enrollments in line with its
+     * current credits. Each enrollment is re-priced from the credits it was
+     * actually charged, so running this more than once, or alongside an
+     * enrollment in the same course, never counts a change twice.
+     */
+    public void repriceEnrollments(CourseCode courseCode) {
+        for (Enrollment enrollment : enrollments.getByCourse(courseCode)) {
+            synchronized (lockFor(enrollment.getStudent().getId())) {
+                reprice(enrollment);
+            }
+        }
+    }
+    
+    /**
+     * Load an enrollment that was already admitted, e.g. from a backup,
+     * without the duplicate, credit and capacity checks. The student's
+     * history, the indexes, the credit ledger and the seat counter are all
+     * linked in this one call, so no separate fix-up pass is needed.
+     * Inactive records are stored but hold neither a seat nor credits.
+     */
+    public void restoreEnrollment(Enrollment enrollment) {
+        restoreEnrollment(enrollment, enrollments.reservePositions(1));
+    }
+    
+    /**
+     * Restore an enrollment at a listing position from reservePositions,
+     * so records restored in parallel are still listed in their original order
+     */
+    public void restoreEnrollment(Enrollment enrollment, long position) {
+        Student student = enrollment.getStudent();
+        CourseCode courseCode = enrollment.getCourse().getCode();
+        
+        synchronized (lockFor(student.getId())) {
+            Enrollment replaced = enrollments.add(enrollment, position);
+            if (replaced != null) {
+                releaseHoldings(replaced);
+                replaced.getStudent().removeEnrollment(replaced);
+            }
+            
+            student.addEnrollment(enrollment);
+            if (enrollment.getGrade() != null || (replaced != null && replaced.getGrade() != null)) {
+                studentService.onGradesChanged(student);
+            }
+            if (enrollment.isActive()) {
+                seatLedger.occupy(courseCode);
+            }
+            // A record loaded from elsewhere holds nothing in this ledger yet
+            enrollment.setChargedCredits(0);
+            reprice(enrollment);
+            
+            // Not synced per record: bulk loads rely on the journal's group commit
+            journal.enrolled(student.getId(), courseCode, enrollment.getSemester(), enrollment.getEnrollmentDate(),
+                enrollment.isCompleted() ? enrollment.getMarks() : Double.NaN, enrollment.isActive());
+        }
+    }
+    
+    /**
+     * Reserve count consecutive listing positions for restoreEnrollment
+     * @return the first reserved position
+     */
+    public long reservePositions(int count) {
+        return enrollments.reservePositions(count);
+    }
+    
+    // An active enrollment holds a seat, kept after it is graded; only an
+    // active, not yet completed one counts towards the credit load
+    private static boolean isInProgress(Enrollment enrollment) {
+        return enrollment.isActive() && !enrollment.isCompleted();
+    }
+    
+    // Give back what a stored enrollment held, when it is removed or replaced
+    private void releaseHoldings(Enrollment enrollment) {
+        if (enrollment.isActive()) {
+            seatLedger.release(enrollment.getCourse().getCode());
+        }
+        creditLedger.release(enrollment.getStudent().getId(), enrollment.getSemester(),
+            enrollment.getChargedCredits());
+        enrollment.setChargedCredits(0);
+    }
+    
+    // Charge an in-progress enrollment its course's current credits and
+    // anything else nothing, adjusting by the difference from what it was
+    // charged before. Called under the student's lock.
+    private void reprice(Enrollment enrollment) {
+        int credits = isInProgress(enrollment) ? creditsOf(enrollment.getCourse()) : 0;
+        int delta = credits - enrollment.getChargedCredits();
+        if (delta > 0) {
+            creditLedger.charge(enrollment.getStudent().getId(), enrollment.getSemester(), delta);
+        } else if (delta < 0) {
+            creditLedger.release(enrollment.getStudent().getId(), enrollment.getSemester(), -delta);
+        }
+        enrollment.setChargedCredits(credits);
+    }
+    
+    // Credits are changed under the course's monitor (updateCourseCredits).
+    // Taken after a student lock, never before, so there is one lock order.
+    private static int creditsOf(Course course) {
+        synchronized (course) {
+            return course.getCredits();
+        }
+    }
+    
+    /**
+     * Number of seats currently held in a course (O(1))
+     */
+    public int getSeatsTaken(CourseCode courseCode) {
+        return seatLedger.getSeatsTaken(courseCode);
     }
     
     // Additional utility methods
+    public void forEachEnrollment(Consumer<? super Enrollment> action) {
+        enrollments.getAll().forEach(action);
+    }
+    
     public List<Enrollment> getAllEnrollments() {
-        return new ArrayList<>(enrollments);
+        return new ArrayList<>(enrollments.getAll());
     }
     
     public void clearAllEnrollments() {
         enrollments.clear();
+        creditLedger.clear();
+        seatLedger.clear();
+        journal.enrollmentsCleared();
+        journal.sync();
     }
 }
\ No newline at end of file
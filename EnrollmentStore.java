@@ -0,0 +1,219 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Indexed in-memory storage for enrollments
+ * Keeps a unique (studentId, courseCode, semester) index plus per-student,
+ * per-course and per-semester secondary indexes so lookups cost O(1) or O(k)
+ * instead of scanning every enrollment
+ * Every view lists enrollments in the order they were added: each record
+ * gets a position number, and the indexes are sorted maps keyed by it.
+ *
+ * Thread-safety: all indexes are concurrent and reads are weakly consistent.
+ * Writers must serialize mutations per student (EnrollmentServiceImpl does
+ * this with striped locks); different students can be written in parallel.
+ */
+public class EnrollmentStore {
+
+    /**
+     * Composite key identifying a single enrollment
+     */
+    public static final class Key {
+        private final String studentId;
+        private final CourseCode courseCode;
+        private final Semester semester;
+        private final int hash;
+
+        public Key(String studentId, CourseCode courseCode, Semester semester) {
+            this.studentId = studentId;
+            this.courseCode = courseCode;
+            this.semester = semester;
+            this.hash = (studentId.hashCode() * 31 + courseCode.hashCode()) * 31 + semester.ordinal();
+        }
+
+        public static Key of(Enrollment enrollment) {
+            return new Key(enrollment.getStudent().getId(),
+                enrollment.getCourse().getCode(),
+                enrollment.getSemester());
+        }
+
+        public String getStudentId() {
+            return studentId;
+        }
+
+        public CourseCode getCourseCode() {
+            return courseCode;
+        }
+
+        public Semester getSemester() {
+            return semester;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+
+            Key that = (Key) obj;
+            return semester == that.semester &&
+                   studentId.equals(that.studentId) &&
+                   courseCode.equals(that.courseCode);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return studentId + "/" + courseCode + "/" + semester;
+        }
+    }
+
+    // A stored enrollment and its position in listings
+    private static final class Slot {
+        final Long position; // Boxed once, shared by every index
+        final Enrollment enrollment;
+
+        Slot(Long position, Enrollment enrollment) {
+            this.position = position;
+            this.enrollment = enrollment;
+        }
+    }
+
+    private final AtomicLong nextPosition = new AtomicLong();
+
+    // Primary index
+    private final Map<Key, Slot> byKey = new ConcurrentHashMap<>();
+
+    // All enrollments and the secondary indexes, keyed by position
+    private final ConcurrentSkipListMap<Long, Enrollment> all = new ConcurrentSkipListMap<>();
+    private final Map<String, ConcurrentSkipListMap<Long, Enrollment>> byStudent = new ConcurrentHashMap<>();
+    private final Map<CourseCode, ConcurrentSkipListMap<Long, Enrollment>> byCourse = new ConcurrentHashMap<>();
+    private final Map<Semester, ConcurrentSkipListMap<Long, Enrollment>> bySemester = new EnumMap<>(Semester.class);
+
+    public EnrollmentStore() {
+        // Semester buckets are created up front so the EnumMap is never structurally modified
+        for (Semester semester : Semester.values()) {
+            bySemester.put(semester, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * Reserve count consecutive listing positions, for records that are
+     * added out of order (e.g. restored in parallel) but should be listed
+     * in their original order; see add(Enrollment, long)
+     * @return the first reserved position
+     */
+    public long reservePositions(int count) {
+        return nextPosition.getAndAdd(count);
+    }
+
+    /**
+     * Add an enrollment to all indexes, listed after every enrollment added
+     * before it. An existing enrollment with the same key is replaced (and
+     * returned), so the store never holds two records for the same
+     * student, course and semester.
+     */
+    public Enrollment add(Enrollment enrollment) {
+        return add(enrollment, reservePositions(1));
+    }
+
+    /**
+     * Add an enrollment at a position from reservePositions
+     */
+    public Enrollment add(Enrollment enrollment, long position) {
+        Key key = Key.of(enrollment);
+        Slot previous = byKey.remove(key);
+        if (previous != null) {
+            removeFromIndexes(previous);
+        }
+
+        Slot slot = new Slot(position, enrollment);
+        byKey.put(key, slot);
+        all.put(slot.position, enrollment);
+        byStudent.computeIfAbsent(key.getStudentId(), k -> new ConcurrentSkipListMap<>()).put(slot.position, enrollment);
+        byCourse.computeIfAbsent(key.getCourseCode(), k -> new ConcurrentSkipListMap<>()).put(slot.position, enrollment);
+        bySemester.get(key.getSemester()).put(slot.position, enrollment);
+        return previous != null ? previous.enrollment : null;
+    }
+
+    public Enrollment find(String studentId, CourseCode courseCode, Semester semester) {
+        Slot slot = byKey.get(new Key(studentId, courseCode, semester));
+        return slot != null ? slot.enrollment : null;
+    }
+
+    /**
+     * Remove the enrollment stored under the given key from all indexes
+     */
+    public Enrollment remove(String studentId, CourseCode courseCode, Semester semester) {
+        Slot removed = byKey.remove(new Key(studentId, courseCode, semester));
+        if (removed == null) {
+            return null;
+        }
+        removeFromIndexes(removed);
+        return removed.enrollment;
+    }
+
+    private void removeFromIndexes(Slot slot) {
+        Enrollment enrollment = slot.enrollment;
+        all.remove(slot.position);
+
+        String studentId = enrollment.getStudent().getId();
+        ConcurrentSkipListMap<Long, Enrollment> studentBucket = byStudent.get(studentId);
+        if (studentBucket != null) {
+            studentBucket.remove(slot.position);
+            // Safe to drop: only the owning student's writer touches this bucket
+            if (studentBucket.isEmpty()) {
+                byStudent.remove(studentId, studentBucket);
+            }
+        }
+
+        // Course buckets are shared across concurrent writers and are kept
+        // even when empty; their number is bounded by the catalog size
+        ConcurrentSkipListMap<Long, Enrollment> courseBucket = byCourse.get(enrollment.getCourse().getCode());
+        if (courseBucket != null) {
+            courseBucket.remove(slot.position);
+        }
+        bySemester.get(enrollment.getSemester()).remove(slot.position);
+    }
+
+    // Secondary index views (read-only, backed by the store, in listing order)
+    public Collection<Enrollment> getByStudent(String studentId) {
+        return unmodifiable(byStudent.get(studentId));
+    }
+
+    public Collection<Enrollment> getByCourse(CourseCode courseCode) {
+        return unmodifiable(byCourse.get(courseCode));
+    }
+
+    public Collection<Enrollment> getBySemester(Semester semester) {
+        return unmodifiable(bySemester.get(semester));
+    }
+
+    public Collection<Enrollment> getAll() {
+        return unmodifiable(all);
+    }
+
+    private static Collection<Enrollment> unmodifiable(ConcurrentSkipListMap<Long, Enrollment> bucket) {
+        return bucket != null ? Collections.unmodifiableCollection(bucket.values()) : Collections.emptyList();
+    }
+
+    public int size() {
+        return byKey.size();
+    }
+
+    public void clear() {
+        byKey.clear();
+        all.clear();
+        byStudent.clear();
+        byCourse.clear();
+        bySemester.values().forEach(Map::clear);
+    }
+}
\ No newline at end of file
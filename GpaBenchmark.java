@@ -0,0 +1,107 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times the cached GPA (Student.calculateGPA, a running aggregate) against
+ * recomputing it from the enrollment history (Student.recalculateGPA),
+ * after checking that the two agree for every student
+ * Plain Java, no benchmark harness: run with
+ * <pre>
+ * java -cp bin edu.ccrm.service.GpaBenchmark [students] [enrollmentsPerStudent]
+ * </pre>
+ * Exits with status 1 if any cached GPA differs from the recomputed one.
+ */
+public class GpaBenchmark {
+
+    private static final int ROUNDS = 5;
+    private static final int READS_PER_STUDENT = 200;
+
+    public static void main(String[] args) {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int perStudent = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+
+        List<Student> students = populate(studentCount, perStudent, new Random(42));
+        int mismatches = 0;
+        for (Student student : students) {
+            if (Math.abs(student.calculateGPA() - student.recalculateGPA()) > 1e-9) {
+                mismatches++;
+                System.out.println("MISMATCH " + student.getId() + ": cached " + student.calculateGPA()
+                    + ", recomputed " + student.recalculateGPA());
+            }
+        }
+        System.out.printf("%d students x %d enrollments: %d GPA mismatches%n", studentCount, perStudent, mismatches);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+
+        // Later rounds show the steady state once the JIT has compiled both paths
+        double sink = 0;
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < READS_PER_STUDENT; i++) {
+                for (Student student : students) {
+                    sink += student.calculateGPA();
+                }
+            }
+            long cached = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < READS_PER_STUDENT; i++) {
+                for (Student student : students) {
+                    sink += student.recalculateGPA();
+                }
+            }
+            long recomputed = System.nanoTime() - start;
+
+            long reads = (long) READS_PER_STUDENT * studentCount;
+            System.out.printf("round %d: cached %.1f ns/read, recomputed %.1f ns/read%n",
+                round, (double) cached / reads, (double) recomputed / reads);
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    // Students with enrollments across all semesters: most graded, some
+    // re-graded and a few dropped before grading
+    private static List<Student> populate(int studentCount, int perStudent, Random random) {
+        StudentServiceImpl studentService = new StudentServiceImpl();
+        CourseServiceImpl courseService = new CourseServiceImpl();
+        EnrollmentServiceImpl enrollmentService = new EnrollmentServiceImpl(studentService, courseService);
+
+        List<Course> courses = new ArrayList<>(perStudent);
+        for (int c = 0; c < perStudent; c++) {
+            courses.add(courseService.create(new Course.Builder(CourseCode.of("BM" + (100 + c)), "Benchmark " + c, 3)
+                .maxEnrollment(studentCount)
+                .build()));
+        }
+
+        Semester[] semesters = Semester.values();
+        List<Student> students = new ArrayList<>(studentCount);
+        for (int s = 0; s < studentCount; s++) {
+            String id = "B" + s;
+            Student student = studentService.create(new Student(id, "BM" + s, new Name("Bench", id), id.toLowerCase() + "@uni.edu"));
+            students.add(student);
+
+            for (int c = 0; c < perStudent; c++) {
+                Course course = courses.get(c);
+                Semester semester = semesters[c % semesters.length];
+                enrollmentService.restoreEnrollment(new Enrollment(student, course, semester, LocalDate.now()));
+
+                int action = random.nextInt(10);
+                if (action < 8) {
+                    enrollmentService.recordGrade(id, course.getCode(), semester, random.nextInt(101));
+                }
+                if (action < 2) {
+                    enrollmentService.recordGrade(id, course.getCode(), semester, random.nextInt(101));
+                } else if (action == 9) {
+                    enrollmentService.unenrollStudent(id, course.getCode(), semester);
+                }
+            }
+        }
+        return students;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.CourseCode;
+import edu.ccrm.domain.Semester;
+
+/**
+ * Immutable grade record for bulk ingestion: one mark for one enrollment
+ */
+public final class GradeEntry {
+    private final String studentId;
+    private final CourseCode courseCode;
+    private final Semester semester;
+    private final double marks;
+    private final long sourceRow;
+    
+    public GradeEntry(String studentId, CourseCode courseCode, Semester semester, double marks, long sourceRow) {
+        this.studentId = studentId;
+        this.courseCode = courseCode;
+        this.semester = semester;
+        this.marks = marks;
+        this.sourceRow = sourceRow;
+    }
+    
+    public String getStudentId() {
+        return studentId;
+    }
+    
+    public CourseCode getCourseCode() {
+        return courseCode;
+    }
+    
+    public Semester getSemester() {
+        return semester;
+    }
+    
+    public double getMarks() {
+        return marks;
+    }
+    
+    /**
+     * Row number in the source file, for error reporting (0 if not from a file)
+     */
+    public long getSourceRow() {
+        return sourceRow;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s,%s,%s,%s", studentId, courseCode, semester.name(), marks);
+    }
+}
\ No newline at end of file
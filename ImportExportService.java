@@ -3,11 +3,16 @@ package edu.ccrm.io;
 import edu.ccrm.domain.*;
 import edu.ccrm.service.*;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -21,6 +26,11 @@ public class ImportExportService {
     private final EnrollmentService enrollmentService;
     private final Path exportPath;
     
+    private static final int PROGRESS_INTERVAL = 100_000;
+    private static final int MAX_REPORTED_ERRORS = 50;
+    private static final int GRADE_BATCH_SIZE = 50_000;
+    private static final String BINARY_EXTENSION = ".ccrmb";
+    
     public ImportExportService(StudentService studentService, CourseService courseService, 
                               EnrollmentService enrollmentService) {
         this.studentService = studentService;
@@ -37,138 +47,418 @@ public class ImportExportService {
     }
     
     /**
-     * Import students from CSV file using NIO.2 and Streams
+     * Import students from CSV file, streaming row by row
+     * Each record is parsed and inserted as it is read, so memory use does
+     * not grow with the file size
+     */
+    public ImportResult importStudentsFromCSV(String fileName) throws IOException {
+        return importFromCSV(fileName, "Student", fields -> studentService.create(parseStudent(fields)));
+    }
+    
+    /**
+     * Import courses from CSV file, streaming row by row
      */
-    public void importStudentsFromCSV(String fileName) throws IOException {
+    public ImportResult importCoursesFromCSV(String fileName) throws IOException {
+        return importFromCSV(fileName, "Course", fields -> courseService.create(parseCourse(fields)));
+    }
+    
+    /**
+     * Bulk-import grades from a CSV file (StudentID,CourseCode,Semester,Marks)
+     * Rows are streamed and applied in bounded batches through
+     * EnrollmentService.recordGrades; rejected rows are reported
+     */
+    public ImportResult importGradesFromCSV(String fileName) throws IOException {
         Path filePath = Paths.get(fileName);
         
-        // Check if file exists
         if (!Files.exists(filePath)) {
             throw new IOException("File not found: " + fileName);
         }
         
-        try (Stream<String> lines = Files.lines(filePath)) {
-            List<String[]> studentData = lines
-                .skip(1) // Skip header line
-                .filter(line -> !line.trim().isEmpty())
-                .map(line -> line.split(","))
-                .collect(Collectors.toList());
-            
-            System.out.println("Importing " + studentData.size() + " students...");
-            
-            int successCount = 0;
-            int errorCount = 0;
+        System.out.println("Importing grades from " + filePath.getFileName() + "...");
+        long start = System.nanoTime();
+        long rows = 0;
+        BulkGradeResult total = new BulkGradeResult();
+        List<GradeEntry> batch = new ArrayList<>(GRADE_BATCH_SIZE);
+        
+        try (CsvTokenizer tokenizer = new CsvTokenizer(
+                new InputStreamReader(Files.newInputStream(filePath), StandardCharsets.UTF_8))) {
+            tokenizer.nextRecord(); // Skip header line
             
-            for (String[] data : studentData) {
+            List<String> fields;
+            while ((fields = tokenizer.nextRecord()) != null) {
+                rows++;
+                long row = tokenizer.getRecordNumber();
                 try {
-                    if (data.length >= 4) {
-                        String id = data[0].trim();
-                        String regNo = data[1].trim();
-                        String fullName = data[2].trim();
-                        String email = data[3].trim();
-                        
-                        // Parse name
-                        String[] nameParts = fullName.split("\\s+", 2);
-                        Name name = nameParts.length == 2 ? 
-                            new Name(nameParts[0], nameParts[1]) : 
-                            new Name(nameParts[0], "");
-                        
-                        Student student = new Student(id, regNo, name, email);
-                        studentService.create(student);
-                        successCount++;
-                    }
-                } catch (Exception e) {
-                    System.err.println("Error importing student: " + Arrays.toString(data) + 
-                                     " - " + e.getMessage());
-                    errorCount++;
+                    batch.add(parseGradeEntry(fields, row));
+                } catch (RuntimeException e) {
+                    total.recordRejected(row, fields + " - " + e.getMessage());
+                }
+                
+                if (batch.size() == GRADE_BATCH_SIZE) {
+                    total.merge(enrollmentService.recordGrades(batch));
+                    batch.clear();
+                    System.out.println("  ... " + rows + " rows processed");
                 }
             }
-            
-            System.out.println("Import completed. Success: " + successCount + ", Errors: " + errorCount);
         }
+        
+        if (!batch.isEmpty()) {
+            total.merge(enrollmentService.recordGrades(batch));
+        }
+        
+        List<String> rejected = total.getRejected();
+        rejected.stream().limit(MAX_REPORTED_ERRORS).forEach(System.err::println);
+        if (rejected.size() > MAX_REPORTED_ERRORS) {
+            System.err.println("... and " + (rejected.size() - MAX_REPORTED_ERRORS) + " more rejected rows");
+        }
+        
+        System.out.println("Grade import completed. " + total);
+        return new ImportResult("Grade", rows, total.getApplied(), rejected.size(),
+            (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    static GradeEntry parseGradeEntry(List<String> data, long row) {
+        if (data.size() < 4) {
+            throw new IllegalArgumentException("Insufficient data fields");
+        }
+        
+        String studentId = data.get(0).trim();
+        CourseCode courseCode = CourseCode.of(data.get(1).trim());
+        Semester semester = Semester.valueOf(data.get(2).trim().toUpperCase());
+        double marks = Double.parseDouble(data.get(3).trim());
+        
+        return new GradeEntry(studentId, courseCode, semester, marks, row);
     }
     
     /**
-     * Import courses from CSV file
+     * Import students using the parallel memory-mapped importer
+     * Duplicate IDs/RegNos: the first occurrence in the file wins
      */
-    public void importCoursesFromCSV(String fileName) throws IOException {
+    public ImportResult importStudentsFromCSVParallel(String fileName, int parallelism) throws IOException {
+        return importParallel(fileName, new ParallelCsvImporter<>("Student", 
+            ImportExportService::parseStudent, studentService::create, parallelism));
+    }
+    
+    /**
+     * Import courses using the parallel memory-mapped importer
+     */
+    public ImportResult importCoursesFromCSVParallel(String fileName, int parallelism) throws IOException {
+        return importParallel(fileName, new ParallelCsvImporter<>("Course", 
+            ImportExportService::parseCourse, courseService::create, parallelism));
+    }
+    
+    private ImportResult importParallel(String fileName, ParallelCsvImporter<?> importer) throws IOException {
         Path filePath = Paths.get(fileName);
         
         if (!Files.exists(filePath)) {
             throw new IOException("File not found: " + fileName);
         }
         
-        try (Stream<String> lines = Files.lines(filePath)) {
-            List<String[]> courseData = lines
-                .skip(1) // Skip header
-                .filter(line -> !line.trim().isEmpty())
-                .map(line -> line.split(","))
-                .collect(Collectors.toList());
-            
-            System.out.println("Importing " + courseData.size() + " courses...");
-            
-            int successCount = 0;
-            int errorCount = 0;
+        ImportResult result = importer.importFile(filePath);
+        System.out.println("Import completed. Success: " + result.getImported() + ", Errors: " + result.getErrors());
+        return result;
+    }
+    
+    /**
+     * Handles one parsed CSV record
+     */
+    @FunctionalInterface
+    private interface RowHandler {
+        void accept(List<String> fields);
+    }
+    
+    private ImportResult importFromCSV(String fileName, String entityType, RowHandler handler) throws IOException {
+        Path filePath = Paths.get(fileName);
+        
+        // Check if file exists
+        if (!Files.exists(filePath)) {
+            throw new IOException("File not found: " + fileName);
+        }
+        
+        System.out.println("Importing " + entityType.toLowerCase() + "s from " + filePath.getFileName() + "...");
+        long start = System.nanoTime();
+        long rows = 0;
+        long successCount = 0;
+        long errorCount = 0;
+        
+        try (CsvTokenizer tokenizer = new CsvTokenizer(
+                new InputStreamReader(Files.newInputStream(filePath), StandardCharsets.UTF_8))) {
+            tokenizer.nextRecord(); // Skip header line
             
-            for (String[] data : courseData) {
+            List<String> fields;
+            while ((fields = tokenizer.nextRecord()) != null) {
+                rows++;
                 try {
-                    if (data.length >= 5) {
-                        CourseCode code = new CourseCode(data[0].trim());
-                        String title = data[1].trim();
-                        int credits = Integer.parseInt(data[2].trim());
-                        String department = data[3].trim();
-                        Semester semester = Semester.valueOf(data[4].trim().toUpperCase());
-                        
-                        Course course = new Course.Builder(code, title, credits)
-                            .department(department)
-                            .semester(semester)
-                            .build();
-                        
-                        courseService.create(course);
-                        successCount++;
-                    }
+                    handler.accept(fields);
+                    successCount++;
                 } catch (Exception e) {
-                    System.err.println("Error importing course: " + Arrays.toString(data) + 
-                                     " - " + e.getMessage());
                     errorCount++;
+                    if (errorCount <= MAX_REPORTED_ERRORS) {
+                        System.err.println("Error importing " + entityType.toLowerCase() + " (record " 
+                            + tokenizer.getRecordNumber() + "): " + fields + " - " + e.getMessage());
+                    } else if (errorCount == MAX_REPORTED_ERRORS + 1) {
+                        System.err.println("Further import errors suppressed...");
+                    }
+                }
+                
+                if (rows % PROGRESS_INTERVAL == 0) {
+                    System.out.println("  ... " + rows + " rows processed (" + errorCount + " errors)");
+                }
+            }
+        }
+        
+        ImportResult result = new ImportResult(entityType, rows, successCount, errorCount,
+            (System.nanoTime() - start) / 1_000_000);
+        System.out.println("Import completed. Success: " + successCount + ", Errors: " + errorCount);
+        return result;
+    }
+    
+    static Student parseStudent(List<String> data) {
+        if (data.size() < 4) {
+            throw new IllegalArgumentException("Insufficient data fields");
+        }
+        
+        String id = data.get(0).trim();
+        String regNo = data.get(1).trim();
+        String fullName = data.get(2).trim();
+        String email = data.get(3).trim();
+        
+        // Parse name
+        String[] nameParts = fullName.split("\\s+", 2);
+        Name name = nameParts.length == 2 ? 
+            new Name(nameParts[0], nameParts[1]) : 
+            new Name(nameParts[0], "");
+        
+        return new Student(id, regNo, name, email);
+    }
+    
+    static Course parseCourse(List<String> data) {
+        if (data.size() < 5) {
+            throw new IllegalArgumentException("Insufficient data fields");
+        }
+        
+        CourseCode code = CourseCode.of(data.get(0).trim());
+        String title = data.get(1).trim();
+        int credits = Integer.parseInt(data.get(2).trim());
+        String department = data.get(3).trim();
+        String semesterName = data.get(4).trim();
+        Semester semester = semesterName.isEmpty() ? null : Semester.valueOf(semesterName.toUpperCase());
+        
+        return new Course.Builder(code, title, credits)
+            .department(department)
+            .semester(semester)
+            .build();
+    }
+    
+    /**
+     * Replace all current data with the contents of an export snapshot
+     * (e.g. a backup directory). The most recent binary data_ file is used
+     * if there is one; otherwise the most recent students_, courses_ and
+     * enrollments_ files in the directory are parsed through the parallel
+     * importer. Each enrollment is linked to its staged student and course
+     * while it is parsed and is then bulk-loaded with its seat and credit
+     * bookkeeping, so relationships are rebuilt in a single pass.
+     * All files are parsed before anything is cleared: if one cannot be
+     * read the current data is left untouched.
+     */
+    public List<ImportResult> restoreSnapshot(Path snapshotDirectory) throws IOException {
+        if (!(studentService instanceof StudentServiceImpl) || !(courseService instanceof CourseServiceImpl)
+                || !(enrollmentService instanceof EnrollmentServiceImpl)) {
+            throw new UnsupportedOperationException("Restore not supported for this implementation");
+        }
+        
+        Path dataFile = findLatestExport(snapshotDirectory, "data_", BINARY_EXTENSION);
+        Path studentsFile = findLatestExport(snapshotDirectory, "students_", ".csv");
+        Path coursesFile = findLatestExport(snapshotDirectory, "courses_", ".csv");
+        Path enrollmentsFile = findLatestExport(snapshotDirectory, "enrollments_", ".csv");
+        
+        // Prefer the binary file unless the CSV exports are newer
+        if (dataFile != null && (studentsFile == null
+                || exportTimestamp(dataFile).compareTo(exportTimestamp(studentsFile)) >= 0)) {
+            return restoreBinaryData(dataFile);
+        }
+        if (studentsFile == null || coursesFile == null) {
+            throw new IOException("Snapshot does not contain student and course exports: " + snapshotDirectory);
+        }
+        
+        EnrollmentServiceImpl enrollmentImpl = (EnrollmentServiceImpl) enrollmentService;
+        long start = System.nanoTime();
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        
+        // Parse everything into staging lists first
+        List<Student> students = new ArrayList<>();
+        ImportResult studentsParsed = new ParallelCsvImporter<>("Student",
+            ImportExportService::parseStudentSnapshot, students::add, parallelism).importFile(studentsFile);
+        List<Course> courses = new ArrayList<>();
+        ImportResult coursesParsed = new ParallelCsvImporter<>("Course",
+            ImportExportService::parseCourseSnapshot, courses::add, parallelism).importFile(coursesFile);
+        
+        // Enrollments link to the staged records; the first occurrence of an ID is the one loaded
+        Map<String, Student> studentsById = new HashMap<>();
+        students.forEach(student -> studentsById.putIfAbsent(student.getId(), student));
+        Map<CourseCode, Course> coursesByCode = new HashMap<>();
+        courses.forEach(course -> coursesByCode.putIfAbsent(course.getCode(), course));
+        List<Enrollment> enrollments = new ArrayList<>();
+        ImportResult enrollmentsParsed = null;
+        if (enrollmentsFile != null) {
+            enrollmentsParsed = new ParallelCsvImporter<>("Enrollment",
+                data -> parseEnrollment(data, studentsById, coursesByCode), enrollments::add, parallelism)
+                .importFile(enrollmentsFile);
+        }
+        
+        // Enrollments first: they reference the students and courses
+        enrollmentImpl.clearAllEnrollments();
+        ((StudentServiceImpl) studentService).clearAllStudents();
+        ((CourseServiceImpl) courseService).clearAllCourses();
+        
+        List<ImportResult> results = new ArrayList<>();
+        results.add(loadStaged(studentsParsed, students, studentService::create));
+        results.add(loadStaged(coursesParsed, courses, courseService::create));
+        if (enrollmentsParsed != null) {
+            results.add(loadStaged(enrollmentsParsed, enrollments, enrollment -> {
+                // Its student or course may itself have been rejected as a duplicate
+                if (studentService.findById(enrollment.getStudent().getId()) != enrollment.getStudent()
+                        || courseService.findById(enrollment.getCourse().getCode()) != enrollment.getCourse()) {
+                    throw new IllegalArgumentException("Student or course was not restored");
+                }
+                enrollmentImpl.restoreEnrollment(enrollment);
+            }));
+        }
+        
+        results.forEach(System.out::println);
+        System.out.println("Restore completed in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return results;
+    }
+    
+    // Store parsed records in file order; records the service rejects (e.g. duplicates) count as errors
+    private static <T> ImportResult loadStaged(ImportResult parsed, List<T> staged, Consumer<T> sink) {
+        long start = System.nanoTime();
+        long imported = 0;
+        long errors = parsed.getErrors();
+        for (T entity : staged) {
+            try {
+                sink.accept(entity);
+                imported++;
+            } catch (RuntimeException e) {
+                if (++errors <= MAX_REPORTED_ERRORS) {
+                    System.err.println("Error importing " + parsed.getEntityType().toLowerCase() + ": "
+                        + entity + " - " + e.getMessage());
                 }
             }
-            
-            System.out.println("Import completed. Success: " + successCount + ", Errors: " + errorCount);
         }
+        return new ImportResult(parsed.getEntityType(), parsed.getRowsRead(), imported, errors,
+            parsed.getElapsedMillis() + (System.nanoTime() - start) / 1_000_000);
     }
     
     /**
-     * Export students to CSV using NIO.2
+     * Replace all current data with the contents of a binary data file
+     */
+    private List<ImportResult> restoreBinaryData(Path dataFile) throws IOException {
+        long start = System.nanoTime();
+        BinaryCodec.Reader reader;
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            reader = new BinaryCodec.Reader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        
+        EnrollmentServiceImpl enrollmentImpl = (EnrollmentServiceImpl) enrollmentService;
+        enrollmentImpl.clearAllEnrollments();
+        ((StudentServiceImpl) studentService).clearAllStudents();
+        ((CourseServiceImpl) courseService).clearAllCourses();
+        reader.readInto((StudentServiceImpl) studentService, (CourseServiceImpl) courseService, enrollmentImpl);
+        
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        long records = (long) reader.getStudentCount() + reader.getCourseCount() + reader.getEnrollmentCount();
+        System.out.printf("Restored %d students, %d courses and %d enrollments from %s in %d ms%n",
+            reader.getStudentCount(), reader.getCourseCount(), reader.getEnrollmentCount(),
+            dataFile.getFileName(), elapsed);
+        return List.of(new ImportResult("Binary data", records, records, 0, elapsed));
+    }
+    
+    // "yyyyMMdd_HHmmss" part of an export file name
+    private static String exportTimestamp(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(name.indexOf('_') + 1, name.lastIndexOf('.'));
+    }
+    
+    // Latest export with the given prefix and extension (file names embed the timestamp)
+    private static Path findLatestExport(Path directory, String prefix, String extension) throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream
+                .filter(path -> path.getFileName().toString().startsWith(prefix))
+                .filter(path -> path.getFileName().toString().endsWith(extension))
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+        }
+    }
+    
+    // Student export row: ID, RegNo, Name, Email, Status, DateCreated, Active
+    static Student parseStudentSnapshot(List<String> data) {
+        Student student = parseStudent(data);
+        if (data.size() > 4 && !data.get(4).isBlank()) {
+            student.setStatus(Student.StudentStatus.valueOf(data.get(4).trim()));
+        }
+        if (data.size() > 6 && !data.get(6).isBlank()) {
+            student.setActive(Boolean.parseBoolean(data.get(6).trim()));
+        }
+        return student;
+    }
+    
+    // Course export row: Code, Title, Credits, Department, Semester, Instructor, Active
+    static Course parseCourseSnapshot(List<String> data) {
+        Course course = parseCourse(data);
+        if (data.size() > 6 && !data.get(6).isBlank()) {
+            course.setActive(Boolean.parseBoolean(data.get(6).trim()));
+        }
+        return course;
+    }
+    
+    // Enrollment export row: StudentID, CourseCode, Semester, EnrollmentDate, Grade, Marks, Active
+    private static Enrollment parseEnrollment(List<String> data, Map<String, Student> students,
+                                              Map<CourseCode, Course> courses) {
+        if (data.size() < 7) {
+            throw new IllegalArgumentException("Insufficient data fields");
+        }
+        
+        Student student = students.get(data.get(0).trim());
+        if (student == null) {
+            throw new IllegalArgumentException("Student not found: " + data.get(0));
+        }
+        Course course = courses.get(CourseCode.of(data.get(1).trim()));
+        if (course == null) {
+            throw new IllegalArgumentException("Course not found: " + data.get(1));
+        }
+        
+        Semester semester = Semester.valueOf(data.get(2).trim().toUpperCase());
+        Enrollment enrollment = new Enrollment(student, course, semester, LocalDate.parse(data.get(3).trim()));
+        
+        String marks = data.get(5).trim();
+        if (!marks.isEmpty()) {
+            enrollment.setMarks(Double.parseDouble(marks));
+        }
+        enrollment.setActive(Boolean.parseBoolean(data.get(6).trim()));
+        return enrollment;
+    }
+    
+    /**
+     * Export students to CSV, streaming rows straight to disk
      */
     public Path exportStudentsToCSV() throws IOException {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
         Path outputFile = exportPath.resolve("students_" + timestamp + ".csv");
         
-        List<Student> students = studentService.findAll();
-        
-        List<String> lines = new ArrayList<>();
-        lines.add("ID,RegNo,Name,Email,Status,DateCreated,Active");
-        
-        // Using streams to convert students to CSV lines
-        List<String> studentLines = students.stream()
-            .map(student -> String.join(",",
+        long count = writeCSV(outputFile, 
+            new String[] {"ID", "RegNo", "Name", "Email", "Status", "DateCreated", "Active"},
+            writer -> studentService.forEachEntity(student -> writeRow(writer,
                 student.getId(),
                 student.getRegNo(),
-                "\"" + student.getName().getFullName() + "\"",
+                student.getName().getFullName(),
                 student.getEmail(),
                 student.getStatus().toString(),
                 student.getDateCreated().toString(),
                 String.valueOf(student.isActive())
-            ))
-            .collect(Collectors.toList());
-        
-        lines.addAll(studentLines);
+            )));
         
-        // Write to file using NIO.2
-        Files.write(outputFile, lines, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
-        
-        System.out.println("Exported " + students.size() + " students to: " + outputFile);
+        System.out.println("Exported " + count + " students to: " + outputFile);
         return outputFile;
     }
     
@@ -179,28 +469,19 @@ public class ImportExportService {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
         Path outputFile = exportPath.resolve("courses_" + timestamp + ".csv");
         
-        List<Course> courses = courseService.findAll();
-        
-        List<String> lines = new ArrayList<>();
-        lines.add("Code,Title,Credits,Department,Semester,Instructor,Active");
-        
-        List<String> courseLines = courses.stream()
-            .map(course -> String.join(",",
+        long count = writeCSV(outputFile, 
+            new String[] {"Code", "Title", "Credits", "Department", "Semester", "Instructor", "Active"},
+            writer -> courseService.forEachEntity(course -> writeRow(writer,
                 course.getCode().getCode(),
-                "\"" + course.getTitle() + "\"",
+                course.getTitle(),
                 String.valueOf(course.getCredits()),
                 course.getDepartment() != null ? course.getDepartment() : "",
                 course.getSemester() != null ? course.getSemester().toString() : "",
-                course.getInstructor() != null ? "\"" + course.getInstructor().getName().getFullName() + "\"" : "",
+                course.getInstructor() != null ? course.getInstructor().getName().getFullName() : "",
                 String.valueOf(course.isActive())
-            ))
-            .collect(Collectors.toList());
-        
-        lines.addAll(courseLines);
-        
-        Files.write(outputFile, lines, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            )));
         
-        System.out.println("Exported " + courses.size() + " courses to: " + outputFile);
+        System.out.println("Exported " + count + " courses to: " + outputFile);
         return outputFile;
     }
     
@@ -213,13 +494,10 @@ public class ImportExportService {
         
         if (enrollmentService instanceof EnrollmentServiceImpl) {
             EnrollmentServiceImpl impl = (EnrollmentServiceImpl) enrollmentService;
-            List<Enrollment> enrollments = impl.getAllEnrollments();
             
-            List<String> lines = new ArrayList<>();
-            lines.add("StudentID,CourseCode,Semester,EnrollmentDate,Grade,Marks,Active");
-            
-            List<String> enrollmentLines = enrollments.stream()
-                .map(enrollment -> String.join(",",
+            long count = writeCSV(outputFile, 
+                new String[] {"StudentID", "CourseCode", "Semester", "EnrollmentDate", "Grade", "Marks", "Active"},
+                writer -> impl.forEachEnrollment(enrollment -> writeRow(writer,
                     enrollment.getStudent().getId(),
                     enrollment.getCourse().getCode().getCode(),
                     enrollment.getSemester().toString(),
@@ -227,14 +505,9 @@ public class ImportExportService {
                     enrollment.getGrade() != null ? enrollment.getGrade().getLetter() : "",
                     enrollment.getGrade() != null ? String.valueOf(enrollment.getMarks()) : "",
                     String.valueOf(enrollment.isActive())
-                ))
-                .collect(Collectors.toList());
-            
-            lines.addAll(enrollmentLines);
+                )));
             
-            Files.write(outputFile, lines, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
-            
-            System.out.println("Exported " + enrollments.size() + " enrollments to: " + outputFile);
+            System.out.println("Exported " + count + " enrollments to: " + outputFile);
             return outputFile;
         }
         
@@ -242,7 +515,68 @@ public class ImportExportService {
     }
     
     /**
-     * Export all data (students, courses, enrollments)
+     * Writes the data rows of one export
+     */
+    @FunctionalInterface
+    private interface RowWriter {
+        void writeRows(CsvWriter writer);
+    }
+    
+    /**
+     * Write a header and the data rows through a streaming CsvWriter
+     * @return number of data rows written
+     */
+    private long writeCSV(Path outputFile, String[] header, RowWriter rows) throws IOException {
+        try (CsvWriter writer = CsvWriter.open(outputFile)) {
+            writer.writeRow(header);
+            rows.writeRows(writer);
+            return writer.getRowCount() - 1;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    // Bridges CsvWriter's IOException out of forEach callbacks
+    private static void writeRow(CsvWriter writer, String... fields) {
+        try {
+            writer.writeRow(fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Export all data to a binary data file (see BinaryCodec)
+     * Meant for internal storage such as backups: it is smaller than the
+     * CSV exports and restores without re-parsing text. Use the CSV exports
+     * to exchange data with other tools.
+     */
+    public Path exportBinaryData() throws IOException {
+        if (!(enrollmentService instanceof EnrollmentServiceImpl)) {
+            throw new UnsupportedOperationException("Binary export not supported for this implementation");
+        }
+        
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        Path outputFile = exportPath.resolve("data_" + timestamp + BINARY_EXTENSION);
+        
+        BinaryCodec.Writer writer;
+        long bytes;
+        try (FileChannel channel = FileChannel.open(outputFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writer = new BinaryCodec.Writer(channel);
+            writer.writeAll(studentService, courseService, (EnrollmentServiceImpl) enrollmentService);
+            bytes = writer.finish();
+        }
+        
+        System.out.println("Exported " + writer.getStudentCount() + " students, " + writer.getCourseCount() + 
+                         " courses and " + writer.getEnrollmentCount() + " enrollments (" + bytes / 1024 + 
+                         " KB) to: " + outputFile);
+        return outputFile;
+    }
+    
+    /**
+     * Export all data (students, courses, enrollments), plus a binary data
+     * file that backups restore from
      */
     public List<Path> exportAllData() throws IOException {
         List<Path> exportedFiles = new ArrayList<>();
@@ -253,6 +587,9 @@ public class ImportExportService {
             exportedFiles.add(exportStudentsToCSV());
             exportedFiles.add(exportCoursesToCSV());
             exportedFiles.add(exportEnrollmentsToCSV());
+            if (enrollmentService instanceof EnrollmentServiceImpl) {
+                exportedFiles.add(exportBinaryData());
+            }
             
             System.out.println("Full data export completed successfully.");
             
@@ -278,50 +615,75 @@ public class ImportExportService {
         reportLines.add("=".repeat(60));
         reportLines.add("");
         
-        // Student statistics
-        List<Student> students = studentService.findAll();
+        // Student statistics (single aggregation pass)
+        ReportStatistics.StudentSummary studentSummary = 
+            ReportStatistics.summarizeStudents(studentService.findAll());
         reportLines.add("STUDENT STATISTICS:");
-        reportLines.add("Total Students: " + students.size());
-        reportLines.add("Active Students: " + students.stream().filter(Student::isActive).count());
-        
-        // Calculate average GPA using streams
-        OptionalDouble avgGPA = students.stream()
-            .mapToDouble(Student::calculateGPA)
-            .filter(gpa -> gpa > 0)
-            .average();
+        reportLines.add("Total Students: " + studentSummary.getTotal());
+        reportLines.add("Active Students: " + studentSummary.getActive());
         
-        if (avgGPA.isPresent()) {
-            reportLines.add("Average GPA: " + String.format("%.2f", avgGPA.getAsDouble()));
+        if (studentSummary.getStudentsWithGrades() > 0) {
+            reportLines.add("Average GPA: " + String.format("%.2f", studentSummary.getAverageGPA()));
+        }
+        reportLines.add("GPA Distribution:");
+        for (int i = 0; i < ReportStatistics.GPA_BUCKET_LABELS.length; i++) {
+            reportLines.add("  " + ReportStatistics.GPA_BUCKET_LABELS[i] + ": " + studentSummary.getBucketCount(i));
         }
         reportLines.add("");
         
         // Course statistics
-        List<Course> courses = courseService.findAll();
+        ReportStatistics.CourseSummary courseSummary = 
+            ReportStatistics.summarizeCourses(courseService.findAll());
         reportLines.add("COURSE STATISTICS:");
-        reportLines.add("Total Courses: " + courses.size());
-        reportLines.add("Active Courses: " + courses.stream().filter(Course::isActive).count());
-        
-        // Group courses by department
-        Map<String, Long> coursesByDept = courses.stream()
-            .filter(c -> c.getDepartment() != null)
-            .collect(Collectors.groupingBy(Course::getDepartment, Collectors.counting()));
+        reportLines.add("Total Courses: " + courseSummary.getTotal());
+        reportLines.add("Active Courses: " + courseSummary.getActive());
         
         reportLines.add("Courses by Department:");
-        coursesByDept.forEach((dept, count) -> 
+        courseSummary.getCountByDepartment().forEach((dept, count) -> 
             reportLines.add("  " + dept + ": " + count));
         reportLines.add("");
         
         // Enrollment statistics
         if (enrollmentService instanceof EnrollmentServiceImpl) {
             EnrollmentServiceImpl impl = (EnrollmentServiceImpl) enrollmentService;
-            List<Enrollment> enrollments = impl.getAllEnrollments();
+            ReportStatistics.EnrollmentSummary enrollmentSummary = 
+                ReportStatistics.summarizeEnrollments(impl.getAllEnrollments());
             
             reportLines.add("ENROLLMENT STATISTICS:");
-            reportLines.add("Total Enrollments: " + enrollments.size());
-            reportLines.add("Active Enrollments: " + enrollments.stream().filter(Enrollment::isActive).count());
-            reportLines.add("Completed Enrollments: " + enrollments.stream().filter(Enrollment::isCompleted).count());
+            reportLines.add("Total Enrollments: " + enrollmentSummary.getTotal());
+            reportLines.add("Active Enrollments: " + enrollmentSummary.getActive());
+            reportLines.add("Completed Enrollments: " + enrollmentSummary.getCompleted());
+            reportLines.add("Grade Distribution:");
+            enrollmentSummary.getGradeDistribution().forEach((grade, count) -> 
+                reportLines.add("  " + grade.getLetter() + ": " + count));
         }
         
+        reportLines.add("");
+        
+        // Rankings (bounded top-k, no full sort of the student body)
+        Rankings rankings = new Rankings(studentService, courseService, enrollmentService);
+        reportLines.add("RANKINGS:");
+        reportLines.add("Dean's List (top 10 by GPA):");
+        List<Student> deansList = rankings.deansList(10);
+        for (int i = 0; i < deansList.size(); i++) {
+            Student student = deansList.get(i);
+            reportLines.add(String.format("  %d. %s (%s) - %.2f", i + 1,
+                student.getName().getFullName(), student.getId(), student.calculateGPA()));
+        }
+        reportLines.add("Department Toppers (top 3):");
+        rankings.departmentToppers(3).forEach((dept, toppers) -> {
+            reportLines.add("  " + dept + ":");
+            for (int i = 0; i < toppers.size(); i++) {
+                reportLines.add("    " + (i + 1) + ". " + toppers.get(i));
+            }
+        });
+        reportLines.add("Course Top Scorers:");
+        rankings.courseTopScorers(1).forEach((code, toppers) -> {
+            Enrollment top = toppers.get(0);
+            reportLines.add(String.format("  %s: %s (%s) - %.1f %s", code, top.getStudent().getName().getFullName(),
+                top.getStudent().getId(), top.getMarks(), top.getGrade()));
+        });
+        
         reportLines.add("");
         reportLines.add("=".repeat(60));
         reportLines.add("End of Report");
@@ -0,0 +1,50 @@
+package edu.ccrm.io;
+
+/**
+ * Outcome of a CSV import: rows read, rows imported, rows rejected and time taken
+ */
+public class ImportResult {
+    private final String entityType;
+    private final long rowsRead;
+    private final long imported;
+    private final long errors;
+    private final long elapsedMillis;
+
+    public ImportResult(String entityType, long rowsRead, long imported, long errors, long elapsedMillis) {
+        this.entityType = entityType;
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.errors = errors;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis > 0 ? rowsRead * 1000.0 / elapsedMillis : rowsRead;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s import: %d rows, %d imported, %d errors in %d ms (%.0f rows/sec)",
+            entityType, rowsRead, imported, errors, elapsedMillis, getRowsPerSecond());
+    }
+}
\ No newline at end of file
@@ -13,7 +13,7 @@ public class Instructor extends Person {
     
     public Instructor(String id, Name name, String email, String department, String designation) {
         super(id, name, email);
-        this.department = department;
+        this.department = Interner.DEPARTMENTS.intern(department);
         this.designation = designation;
         this.assignedCourses = new HashSet<>();
     }
@@ -42,7 +42,7 @@ public class Instructor extends Person {
     }
     
     public void setDepartment(String department) {
-        this.department = department;
+        this.department = Interner.DEPARTMENTS.intern(department);
     }
     
     public String getDesignation() {
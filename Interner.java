@@ -0,0 +1,138 @@
+package edu.ccrm.domain;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Canonicalizing cache for immutable values (course codes, department names)
+ * Equal values map to one shared instance, so large catalogs hold each
+ * distinct value once and equality checks usually succeed on identity.
+ * Entries are weak: a value no longer referenced elsewhere is dropped.
+ * Each entry is a single weak reference (no separate key and value
+ * objects) to keep the cache cheap when most values are unique.
+ * Thread-safe: the cache is split into independently locked stripes.
+ */
+public final class Interner<T> {
+
+    private static final int STRIPES = 16;
+    private static final int INITIAL_TABLE_SIZE = 64;
+
+    // Departments of courses and instructors
+    public static final Interner<String> DEPARTMENTS = new Interner<>();
+
+    private final Stripe<T>[] stripes;
+
+    public Interner() {
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        Stripe<T>[] table = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            table[i] = new Stripe<>();
+        }
+        stripes = table;
+    }
+
+    /**
+     * The canonical instance equal to the value (the value itself if it is
+     * the first one seen); null stays null
+     */
+    public T intern(T value) {
+        if (value == null) {
+            return null;
+        }
+
+        int hash = value.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[hash & (STRIPES - 1)].intern(value, hash);
+    }
+
+    /**
+     * Number of distinct values currently cached
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe<T> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.expungeCleared();
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    private static final class Entry<T> extends WeakReference<T> {
+        final int hash;
+        Entry<T> next;
+
+        Entry(T value, int hash, ReferenceQueue<T> queue, Entry<T> next) {
+            super(value, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    private static final class Stripe<T> {
+        private final ReferenceQueue<T> cleared = new ReferenceQueue<>();
+        private Entry<T>[] table = newTable(INITIAL_TABLE_SIZE);
+        private int size;
+
+        synchronized T intern(T value, int hash) {
+            expungeCleared();
+
+            // The low bits chose the stripe, so index buckets by the high bits
+            int index = (hash >>> 4) & (table.length - 1);
+            for (Entry<T> entry = table[index]; entry != null; entry = entry.next) {
+                T existing = entry.get();
+                if (entry.hash == hash && existing != null && existing.equals(value)) {
+                    return existing;
+                }
+            }
+
+            table[index] = new Entry<>(value, hash, cleared, table[index]);
+            if (++size > table.length - (table.length >>> 2)) {
+                resize();
+            }
+            return value;
+        }
+
+        // Unlink entries whose values have been collected
+        void expungeCleared() {
+            Object reference;
+            while ((reference = cleared.poll()) != null) {
+                @SuppressWarnings("unchecked")
+                Entry<T> stale = (Entry<T>) reference;
+                int index = (stale.hash >>> 4) & (table.length - 1);
+                Entry<T> previous = null;
+                for (Entry<T> entry = table[index]; entry != null; previous = entry, entry = entry.next) {
+                    if (entry == stale) {
+                        if (previous == null) {
+                            table[index] = entry.next;
+                        } else {
+                            previous.next = entry.next;
+                        }
+                        size--;
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void resize() {
+            Entry<T>[] old = table;
+            table = newTable(old.length * 2);
+            for (Entry<T> head : old) {
+                for (Entry<T> entry = head; entry != null; ) {
+                    Entry<T> next = entry.next;
+                    int index = (entry.hash >>> 4) & (table.length - 1);
+                    entry.next = table[index];
+                    table[index] = entry;
+                    entry = next;
+                }
+            }
+        }
+        
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private static <T> Entry<T>[] newTable(int length) {
+            return new Entry[length];
+        }
+    }
+}
\ No newline at end of file
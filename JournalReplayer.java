@@ -0,0 +1,200 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies journaled mutations to the service implementations, e.g. while
+ * replaying a write-ahead log at startup. The services should not have a
+ * journal attached while replaying, or every record would be logged again.
+ *
+ * Replay is tolerant: creating an entity that already exists updates it in
+ * place and deleting a missing one is ignored, so a record that was already
+ * applied (e.g. by a snapshot) can be replayed safely. Instructors arrive
+ * embedded in course records and are merged by ID, so courses taught by the
+ * same instructor share one Instructor object.
+ */
+public class JournalReplayer implements MutationJournal {
+
+    private final StudentServiceImpl studentService;
+    private final CourseServiceImpl courseService;
+    private final EnrollmentServiceImpl enrollmentService;
+    private final Map<String, Instructor> instructors = new HashMap<>();
+    private long applied;
+    private long skipped;
+
+    public JournalReplayer(StudentServiceImpl studentService, CourseServiceImpl courseService,
+                           EnrollmentServiceImpl enrollmentService) {
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
+        courseService.forEachEntity(course -> {
+            if (course.getInstructor() != null) {
+                instructors.putIfAbsent(course.getInstructor().getId(), course.getInstructor());
+            }
+        });
+    }
+
+    @Override
+    public void studentCreated(Student student) {
+        Student existing = studentService.findById(student.getId());
+        if (existing != null) {
+            studentUpdated(student);
+            return;
+        }
+        studentService.create(student);
+        applied++;
+    }
+
+    @Override
+    public void studentUpdated(Student student) {
+        Student existing = studentService.findById(student.getId());
+        if (existing == null) {
+            studentCreated(student);
+            return;
+        }
+
+        // Update in place so the student's enrollment history stays attached
+        existing.setRegNo(student.getRegNo());
+        existing.setName(student.getName());
+        existing.setEmail(student.getEmail());
+        existing.setStatus(student.getStatus());
+        existing.setActive(student.isActive());
+        studentService.update(existing);
+        applied++;
+    }
+
+    @Override
+    public void studentDeleted(String studentId) {
+        count(studentService.delete(studentId));
+    }
+
+    @Override
+    public void studentsCleared() {
+        studentService.clearAllStudents();
+        applied++;
+    }
+
+    @Override
+    public void courseCreated(Course course) {
+        if (courseService.findById(course.getCode()) != null) {
+            courseUpdated(course);
+            return;
+        }
+        Instructor instructor = course.getInstructor();
+        courseService.create(course);
+        if (instructor != null) {
+            courseService.assignInstructor(course.getCode(), canonical(instructor));
+        }
+        applied++;
+    }
+
+    @Override
+    public void courseUpdated(Course course) {
+        Course existing = courseService.findById(course.getCode());
+        if (existing == null) {
+            courseCreated(course);
+            return;
+        }
+
+        existing.setTitle(course.getTitle());
+        existing.setDepartment(course.getDepartment());
+        existing.setSemester(course.getSemester());
+        existing.setMaxEnrollment(course.getMaxEnrollment());
+        existing.setActive(course.isActive());
+        Instructor current = existing.getInstructor();
+        Instructor instructor = course.getInstructor() != null ? canonical(course.getInstructor()) : null;
+        if (current != null && current != instructor) {
+            current.unassignCourse(existing);
+        }
+        existing.setInstructor(instructor);
+        if (instructor != null) {
+            instructor.assignCourse(existing);
+        }
+        if (existing.getCredits() != course.getCredits()) {
+            enrollmentService.updateCourseCredits(course.getCode(), course.getCredits());
+        }
+        courseService.update(existing);
+        applied++;
+    }
+
+    @Override
+    public void courseDeleted(CourseCode courseCode) {
+        count(courseService.delete(courseCode));
+    }
+
+    @Override
+    public void coursesCleared() {
+        courseService.clearAllCourses();
+        applied++;
+    }
+
+    @Override
+    public void enrolled(String studentId, CourseCode courseCode, Semester semester,
+                         LocalDate enrollmentDate, double marks, boolean active) {
+        Student student = studentService.findById(studentId);
+        Course course = courseService.findById(courseCode);
+        if (student == null || course == null) {
+            skipped++;
+            return;
+        }
+
+        Enrollment enrollment = new Enrollment(student, course, semester, enrollmentDate);
+        if (!Double.isNaN(marks)) {
+            enrollment.setMarks(marks);
+        }
+        enrollment.setActive(active);
+        enrollmentService.restoreEnrollment(enrollment);
+        applied++;
+    }
+
+    @Override
+    public void unenrolled(String studentId, CourseCode courseCode, Semester semester) {
+        count(enrollmentService.unenrollStudent(studentId, courseCode, semester));
+    }
+
+    @Override
+    public void gradeRecorded(String studentId, CourseCode courseCode, Semester semester, double marks) {
+        count(enrollmentService.recordGrade(studentId, courseCode, semester, marks));
+    }
+
+    @Override
+    public void enrollmentsCleared() {
+        enrollmentService.clearAllEnrollments();
+        applied++;
+    }
+
+    // The shared Instructor for this ID, refreshed with the record's details
+    private Instructor canonical(Instructor instructor) {
+        Instructor shared = instructors.putIfAbsent(instructor.getId(), instructor);
+        if (shared == null) {
+            return instructor;
+        }
+        shared.setName(instructor.getName());
+        shared.setEmail(instructor.getEmail());
+        shared.setDepartment(instructor.getDepartment());
+        shared.setDesignation(instructor.getDesignation());
+        return shared;
+    }
+
+    private void count(boolean success) {
+        if (success) {
+            applied++;
+        } else {
+            skipped++;
+        }
+    }
+
+    public long getApplied() {
+        return applied;
+    }
+
+    /**
+     * Records that referred to missing entities or no longer applied
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+}
\ No newline at end of file
@@ -1,10 +1,24 @@
 package edu.ccrm.cli;
 
+import edu.ccrm.config.AppConfig;
 import edu.ccrm.domain.*;
 import edu.ccrm.service.*;
+import edu.ccrm.io.BackupService;
+import edu.ccrm.io.Checkpointer;
+import edu.ccrm.io.ImportExportService;
+import edu.ccrm.io.SnapshotStore;
+import edu.ccrm.io.WriteAheadLog;
+import edu.ccrm.util.ComparatorUtils;
+import edu.ccrm.util.CourseFields;
 import edu.ccrm.util.InputValidator;
+import edu.ccrm.util.Query;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Scanner;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Main menu system for the CCRM application
@@ -12,21 +26,97 @@ import java.util.List;
  */
 public class MainMenu {
     
+    private static final int PAGE_SIZE = 20;
+    
     private final Scanner scanner;
     private final StudentService studentService;
     private final CourseService courseService;
     private final EnrollmentService enrollmentService;
+    private final BackupService backupService;
+    private final ImportExportService importExportService;
+    private final Rankings rankings;
+    private CompletableFuture<?> backgroundTask;
+    private String backgroundTaskName;
+    private WriteAheadLog journal;
+    private Checkpointer checkpointer;
     private boolean running;
     
     public MainMenu() {
         this.scanner = new Scanner(System.in);
-        this.studentService = new StudentServiceImpl();
-        this.courseService = new CourseServiceImpl();
-        this.enrollmentService = new EnrollmentServiceImpl(studentService, courseService);
+        StudentServiceImpl students = new StudentServiceImpl();
+        CourseServiceImpl courses = new CourseServiceImpl();
+        EnrollmentServiceImpl enrollments = new EnrollmentServiceImpl(students, courses);
+        this.studentService = students;
+        this.courseService = courses;
+        this.enrollmentService = enrollments;
+        this.backupService = new BackupService();
+        this.importExportService = new ImportExportService(studentService, courseService, enrollmentService);
+        this.rankings = new Rankings(studentService, courseService, enrollmentService);
         this.running = true;
         
-        // Initialize with some sample data
-        initializeSampleData();
+        // Recover state from the latest snapshot and the write-ahead log;
+        // sample data only on a fresh start
+        boolean recovered = openJournal(students, courses, enrollments);
+        if (!recovered) {
+            initializeSampleData();
+        }
+    }
+    
+    /**
+     * Load the latest snapshot, replay the write-ahead log records after it,
+     * then attach the log so every further mutation is logged and start
+     * background checkpointing
+     * @return true if any state was recovered
+     */
+    private boolean openJournal(StudentServiceImpl students, CourseServiceImpl courses,
+                                EnrollmentServiceImpl enrollments) {
+        AppConfig config = AppConfig.getInstance();
+        if (!config.isJournalEnabled()) {
+            return false;
+        }
+        
+        try {
+            long start = System.nanoTime();
+            SnapshotStore snapshots = new SnapshotStore(config.getSnapshotDirectory());
+            SnapshotStore.SnapshotInfo snapshot = snapshots.loadLatest(students, courses, enrollments);
+            long snapshotLsn = snapshot != null ? snapshot.getLsn() : 0;
+            
+            JournalReplayer replayer = new JournalReplayer(students, courses, enrollments);
+            journal = WriteAheadLog.open(config.getJournalDirectory(), config.getJournalSyncPolicy(),
+                config.getJournalSyncIntervalMillis(), snapshotLsn, replayer);
+            
+            students.setJournal(journal);
+            courses.setJournal(journal);
+            enrollments.setJournal(journal);
+            checkpointer = new Checkpointer(journal, snapshots, students, courses, enrollments,
+                snapshotLsn, config.getCheckpointRecordThreshold(), config.getSnapshotsToKeep());
+            checkpointer.start(config.getCheckpointIntervalMillis());
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closeJournal));
+            
+            if (snapshot != null || journal.getRecordsReplayed() > 0) {
+                System.out.println("Recovered " + (snapshot != null ? snapshot.getEnrollments() + 
+                                 " enrollments from " + snapshot.getPath().getFileName() + " and " : "") + 
+                                 journal.getRecordsReplayed() + " logged changes in " + 
+                                 (System.nanoTime() - start) / 1_000_000 + " ms");
+                return true;
+            }
+        } catch (Exception e) {
+            System.err.println("Could not open write-ahead log, changes will not be saved: " + e.getMessage());
+        }
+        return false;
+    }
+    
+    private void closeJournal() {
+        if (checkpointer != null) {
+            checkpointer.close();
+        }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (Exception e) {
+                System.err.println("Error closing write-ahead log: " + e.getMessage());
+            }
+        }
     }
     
     public void start() {
@@ -66,6 +156,7 @@ public class MainMenu {
         }
         
         scanner.close();
+        closeJournal();
     }
     
     private void displayMainMenu() {
@@ -180,25 +271,28 @@ public class MainMenu {
     
     private void listAllStudents() {
         System.out.println("\\n=== All Students ===");
+        System.out.println("Sort by: 1. Name  2. Registration Number  3. GPA");
+        System.out.print("Choice: ");
         
-        List<Student> students = studentService.findActiveStudents();
+        Comparator<Student> order;
+        switch (getMenuChoice()) {
+            case 2: order = ComparatorUtils.BY_REG_NO; break;
+            case 3: order = ComparatorUtils.BY_GPA; break;
+            default: order = ComparatorUtils.BY_NAME;
+        }
         
-        if (students.isEmpty()) {
+        Page<Student> first = studentService.listActiveStudents(order, null, PAGE_SIZE);
+        if (first.isEmpty()) {
             System.out.println("No students found.");
             return;
         }
         
-        // Enhanced for loop
-        for (Student student : students) {
-            System.out.println(student);
-        }
-        
-        System.out.println("\\nTotal active students: " + students.size());
+        browsePages(first, cursor -> studentService.listActiveStudents(order, cursor, PAGE_SIZE));
     }
     
     private void searchStudent() {
         System.out.println("\\n=== Search Student ===");
-        System.out.print("Enter Student ID or Registration Number: ");
+        System.out.print("Enter Student ID, Registration Number, name or email: ");
         String searchTerm = scanner.nextLine().trim();
         
         Student student = studentService.findById(searchTerm);
@@ -209,8 +303,15 @@ public class MainMenu {
         if (student != null) {
             System.out.println("Student found:");
             System.out.println(student.getDetailedInfo());
-        } else {
+            return;
+        }
+        
+        List<Student> matches = searchTerm.isEmpty() ? List.of() : studentService.searchByText(searchTerm, 10);
+        if (matches.isEmpty()) {
             System.out.println("Student not found.");
+        } else {
+            System.out.println("Closest matches:");
+            matches.forEach(match -> System.out.println("  " + match));
         }
     }
     
@@ -269,7 +370,8 @@ public class MainMenu {
         System.out.println("2. List All Courses");
         System.out.println("3. Search Courses");
         System.out.println("4. Assign Instructor");
-        System.out.println("5. Back to Main Menu");
+        System.out.println("5. Activate/Deactivate Course");
+        System.out.println("6. Back to Main Menu");
         System.out.print("Choice: ");
         
         int choice = getMenuChoice();
@@ -279,7 +381,8 @@ public class MainMenu {
             case 2 -> listAllCourses();
             case 3 -> searchCourses();
             case 4 -> assignInstructor();
-            case 5 -> { /* Return to main menu */ }
+            case 5 -> toggleCourseStatus();
+            case 6 -> { /* Return to main menu */ }
             default -> System.out.println("Invalid choice.");
         }
     }
@@ -290,7 +393,7 @@ public class MainMenu {
         try {
             System.out.print("Course Code: ");
             String codeStr = scanner.nextLine().trim().toUpperCase();
-            CourseCode code = new CourseCode(codeStr);
+            CourseCode code = CourseCode.of(codeStr);
             
             System.out.print("Course Title: ");
             String title = scanner.nextLine().trim();
@@ -332,15 +435,38 @@ public class MainMenu {
     private void listAllCourses() {
         System.out.println("\\n=== All Courses ===");
         
-        List<Course> courses = courseService.findActiveCourses();
-        
-        if (courses.isEmpty()) {
+        Page<Course> first = courseService.listActiveCourses(ComparatorUtils.BY_CODE, null, PAGE_SIZE);
+        if (first.isEmpty()) {
             System.out.println("No courses found.");
             return;
         }
         
-        courses.forEach(System.out::println); // Method reference
-        System.out.println("\\nTotal active courses: " + courses.size());
+        browsePages(first, cursor -> courseService.listActiveCourses(ComparatorUtils.BY_CODE, cursor, PAGE_SIZE));
+    }
+    
+    // Print pages, moving forward or back on request; each page is read
+    // from its cursor, so later pages cost no more than the first
+    private <T> void browsePages(Page<T> first, Function<Page.Cursor, Page<T>> fetch) {
+        Page<T> page = first;
+        int pageNumber = 1;
+        while (true) {
+            page.getItems().forEach(System.out::println); // Method reference
+            if (!page.hasNext() && !page.hasPrevious()) {
+                return;
+            }
+            
+            System.out.print("Page " + pageNumber + " - n: next, p: previous, Enter: done: ");
+            String input = scanner.nextLine().trim();
+            if (input.equalsIgnoreCase("n") && page.hasNext()) {
+                page = fetch.apply(page.getNext());
+                pageNumber++;
+            } else if (input.equalsIgnoreCase("p") && page.hasPrevious()) {
+                page = fetch.apply(page.getPrevious());
+                pageNumber--;
+            } else {
+                return;
+            }
+        }
     }
     
     private void searchCourses() {
@@ -348,6 +474,7 @@ public class MainMenu {
         System.out.println("1. By Department");
         System.out.println("2. By Semester");
         System.out.println("3. By Course Code");
+        System.out.println("4. Advanced (combine filters)");
         System.out.print("Choice: ");
         
         int choice = getMenuChoice();
@@ -368,7 +495,7 @@ public class MainMenu {
             case 3:
                 System.out.print("Enter course code: ");
                 String codeStr = scanner.nextLine().trim();
-                Course course = courseService.findById(new CourseCode(codeStr));
+                Course course = courseService.findById(CourseCode.of(codeStr));
                 if (course != null) {
                     System.out.println("Course found: " + course);
                     courseService.generateCourseReport(course.getCode());
@@ -376,6 +503,9 @@ public class MainMenu {
                     System.out.println("Course not found.");
                 }
                 return;
+            case 4:
+                results = advancedCourseSearch();
+                break;
         }
         
         if (results != null && !results.isEmpty()) {
@@ -385,11 +515,69 @@ public class MainMenu {
         }
     }
     
+    // Combine the optional filters into one query and show how it is run
+    private List<Course> advancedCourseSearch() {
+        List<Query<Course>> clauses = new ArrayList<>();
+        
+        System.out.print("Department (blank for any): ");
+        String dept = scanner.nextLine().trim();
+        if (!dept.isEmpty()) {
+            clauses.add(CourseFields.DEPARTMENT.eq(dept));
+        }
+        
+        System.out.print("Semester (1-SPRING, 2-SUMMER, 3-FALL, blank for any): ");
+        String semChoice = scanner.nextLine().trim();
+        if (!semChoice.isEmpty()) {
+            clauses.add(CourseFields.SEMESTER.eq(Semester.values()[Integer.parseInt(semChoice) - 1]));
+        }
+        
+        System.out.print("Minimum credits (blank for any): ");
+        String minCredits = scanner.nextLine().trim();
+        if (!minCredits.isEmpty()) {
+            clauses.add(CourseFields.CREDITS.ge(Integer.parseInt(minCredits)));
+        }
+        
+        System.out.print("Active courses only? (y/n): ");
+        if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            clauses.add(CourseFields.ACTIVE.eq(true));
+        }
+        
+        if (clauses.isEmpty()) {
+            return courseService.findAll();
+        }
+        
+        Query<Course> query = Query.allOf(clauses);
+        System.out.println(courseService.explain(query));
+        System.out.println();
+        return courseService.query(query);
+    }
+    
     private void assignInstructor() {
         System.out.println("\\n=== Assign Instructor (Not implemented in this demo) ===");
         System.out.println("This would require instructor management functionality.");
     }
     
+    private void toggleCourseStatus() {
+        System.out.println("\\n=== Activate/Deactivate Course ===");
+        System.out.print("Enter Course Code: ");
+        String codeStr = scanner.nextLine().trim();
+        
+        try {
+            CourseCode code = CourseCode.of(codeStr);
+            Course course = courseService.findById(code);
+            if (course == null) {
+                System.out.println("Course not found.");
+                return;
+            }
+            
+            boolean active = !course.isActive();
+            courseService.setActive(code, active);
+            System.out.println("Course " + (active ? "activated" : "deactivated") + ": " + course);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid course code: " + e.getMessage());
+        }
+    }
+    
     // Enrollment Management
     private void handleEnrollmentManagement() {
         System.out.println("\\n--- Enrollment Management ---");
@@ -421,7 +609,7 @@ public class MainMenu {
             
             System.out.print("Course Code: ");
             String courseCodeStr = scanner.nextLine().trim();
-            CourseCode courseCode = new CourseCode(courseCodeStr);
+            CourseCode courseCode = CourseCode.of(courseCodeStr);
             
             System.out.println("Select Semester (1-SPRING, 2-SUMMER, 3-FALL): ");
             int semChoice = Integer.parseInt(scanner.nextLine().trim());
@@ -434,6 +622,8 @@ public class MainMenu {
             System.err.println("Enrollment failed: " + e.getMessage());
         } catch (MaxCreditLimitExceededException e) {
             System.err.println("Credit limit exceeded: " + e.getMessage());
+        } catch (CourseFullException e) {
+            System.err.println("Course full: " + e.getMessage());
         } catch (Exception e) {
             System.err.println("Error during enrollment: " + e.getMessage());
         }
@@ -448,7 +638,7 @@ public class MainMenu {
             
             System.out.print("Course Code: ");
             String courseCodeStr = scanner.nextLine().trim();
-            CourseCode courseCode = new CourseCode(courseCodeStr);
+            CourseCode courseCode = CourseCode.of(courseCodeStr);
             
             System.out.println("Select Semester (1-SPRING, 2-SUMMER, 3-FALL): ");
             int semChoice = Integer.parseInt(scanner.nextLine().trim());
@@ -489,7 +679,7 @@ public class MainMenu {
         String courseCodeStr = scanner.nextLine().trim();
         
         try {
-            CourseCode courseCode = new CourseCode(courseCodeStr);
+            CourseCode courseCode = CourseCode.of(courseCodeStr);
             List<Enrollment> enrollments = enrollmentService.getCourseEnrollments(courseCode);
             
             if (enrollments.isEmpty()) {
@@ -532,7 +722,7 @@ public class MainMenu {
             
             System.out.print("Course Code: ");
             String courseCodeStr = scanner.nextLine().trim();
-            CourseCode courseCode = new CourseCode(courseCodeStr);
+            CourseCode courseCode = CourseCode.of(courseCodeStr);
             
             System.out.println("Select Semester (1-SPRING, 2-SUMMER, 3-FALL): ");
             int semChoice = Integer.parseInt(scanner.nextLine().trim());
@@ -576,7 +766,10 @@ public class MainMenu {
         System.out.println("1. Student Statistics");
         System.out.println("2. Course Statistics");
         System.out.println("3. GPA Distribution");
-        System.out.println("4. Back to Main Menu");
+        System.out.println("4. Dean's List");
+        System.out.println("5. Department Toppers");
+        System.out.println("6. Course Top Scorers");
+        System.out.println("7. Back to Main Menu");
         System.out.print("Choice: ");
         
         int choice = getMenuChoice();
@@ -585,66 +778,128 @@ public class MainMenu {
             case 1 -> showStudentStatistics();
             case 2 -> showCourseStatistics();
             case 3 -> showGPADistribution();
-            case 4 -> { /* Return to main menu */ }
+            case 4 -> showDeansList();
+            case 5 -> showDepartmentToppers();
+            case 6 -> showCourseTopScorers();
+            case 7 -> { /* Return to main menu */ }
             default -> System.out.println("Invalid choice.");
         }
     }
     
     private void showStudentStatistics() {
         System.out.println("\\n=== Student Statistics ===");
-        List<Student> students = studentService.findActiveStudents();
-        
-        System.out.println("Total Active Students: " + students.size());
-        
-        // Using streams for statistics
-        double avgGPA = students.stream()
-            .mapToDouble(Student::calculateGPA)
-            .filter(gpa -> gpa > 0)
-            .average()
-            .orElse(0.0);
-        
-        System.out.println("Average GPA: " + String.format("%.2f", avgGPA));
         
-        long studentsWithGrades = students.stream()
-            .filter(s -> s.calculateGPA() > 0)
-            .count();
+        // One aggregation pass instead of a stream pass per figure
+        ReportStatistics.StudentSummary summary = 
+            ReportStatistics.summarizeStudents(studentService.search(Student::isActive));
         
-        System.out.println("Students with recorded grades: " + studentsWithGrades);
+        System.out.println("Total Active Students: " + summary.getTotal());
+        System.out.println("Average GPA: " + String.format("%.2f", summary.getAverageGPA()));
+        System.out.println("Students with recorded grades: " + summary.getStudentsWithGrades());
+        summary.getCountByStatus().forEach((status, count) -> 
+            System.out.println("  " + status + ": " + count));
     }
     
     private void showCourseStatistics() {
         System.out.println("\\n=== Course Statistics ===");
-        List<Course> courses = courseService.findActiveCourses();
         
-        System.out.println("Total Active Courses: " + courses.size());
+        ReportStatistics.CourseSummary summary = 
+            ReportStatistics.summarizeCourses(courseService.search(Course::isActive));
         
-        // Group by department
-        courses.stream()
-            .collect(java.util.stream.Collectors.groupingBy(
-                Course::getDepartment,
-                java.util.stream.Collectors.counting()))
-            .forEach((dept, count) -> 
-                System.out.println(dept + ": " + count + " courses"));
+        System.out.println("Total Active Courses: " + summary.getTotal());
+        
+        // Department counts collected in the same pass
+        summary.getCountByDepartment().forEach((dept, count) -> 
+            System.out.println(dept + ": " + count + " courses"));
     }
     
     private void showGPADistribution() {
         System.out.println("\\n=== GPA Distribution ===");
-        List<Student> students = studentService.findActiveStudents();
         
-        long excellent = students.stream().filter(s -> s.calculateGPA() >= 9.0).count();
-        long veryGood = students.stream().filter(s -> s.calculateGPA() >= 8.0 && s.calculateGPA() < 9.0).count();
-        long good = students.stream().filter(s -> s.calculateGPA() >= 7.0 && s.calculateGPA() < 8.0).count();
-        long satisfactory = students.stream().filter(s -> s.calculateGPA() >= 6.0 && s.calculateGPA() < 7.0).count();
-        long poor = students.stream().filter(s -> s.calculateGPA() > 0 && s.calculateGPA() < 6.0).count();
+        ReportStatistics.StudentSummary summary = 
+            ReportStatistics.summarizeStudents(studentService.search(Student::isActive));
+        
+        for (int i = 0; i < ReportStatistics.GPA_BUCKET_LABELS.length; i++) {
+            System.out.println(ReportStatistics.GPA_BUCKET_LABELS[i] + ": " + summary.getBucketCount(i));
+        }
+    }
+    
+    private void showDeansList() {
+        System.out.println("\\n=== Dean's List ===");
+        int k = readRankingSize(10);
+        
+        List<Student> top = rankings.deansList(k);
+        if (top.isEmpty()) {
+            System.out.println("No students with recorded grades.");
+            return;
+        }
+        for (int i = 0; i < top.size(); i++) {
+            Student student = top.get(i);
+            System.out.println(String.format("%3d. %s (%s) - GPA %.2f", i + 1,
+                student.getName().getFullName(), student.getId(), student.calculateGPA()));
+        }
+    }
+    
+    private void showDepartmentToppers() {
+        System.out.println("\\n=== Department Toppers ===");
+        System.out.print("Department (blank for all): ");
+        String department = scanner.nextLine().trim();
+        int k = readRankingSize(3);
         
-        System.out.println("Excellent (9.0+): " + excellent);
-        System.out.println("Very Good (8.0-8.9): " + veryGood);
-        System.out.println("Good (7.0-7.9): " + good);
-        System.out.println("Satisfactory (6.0-6.9): " + satisfactory);
-        System.out.println("Poor (<6.0): " + poor);
+        Map<String, List<Rankings.StudentScore>> toppers = department.isEmpty()
+            ? rankings.departmentToppers(k)
+            : Map.of(department, rankings.departmentToppers(department, k));
+        printRankings(toppers, Rankings.StudentScore::toString);
+    }
+    
+    private void showCourseTopScorers() {
+        System.out.println("\\n=== Course Top Scorers ===");
+        System.out.print("Course Code (blank for all): ");
+        String code = scanner.nextLine().trim();
+        int k = readRankingSize(3);
+        
+        try {
+            Map<CourseCode, List<Enrollment>> toppers;
+            if (code.isEmpty()) {
+                toppers = rankings.courseTopScorers(k);
+            } else {
+                CourseCode courseCode = CourseCode.of(code);
+                toppers = Map.of(courseCode, rankings.courseTopScorers(courseCode, k));
+            }
+            printRankings(toppers, enrollment -> String.format("%s (%s) - %.1f %s",
+                enrollment.getStudent().getName().getFullName(), enrollment.getStudent().getId(),
+                enrollment.getMarks(), enrollment.getGrade()));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+    
+    // Ranked entries under each group heading
+    private <K, V> void printRankings(Map<K, List<V>> rankedGroups, Function<? super V, String> format) {
+        if (rankedGroups.values().stream().allMatch(List::isEmpty)) {
+            System.out.println("No graded enrollments found.");
+            return;
+        }
+        rankedGroups.forEach((group, ranked) -> {
+            System.out.println(group + ":");
+            for (int i = 0; i < ranked.size(); i++) {
+                System.out.println(String.format("%5d. %s", i + 1, format.apply(ranked.get(i))));
+            }
+        });
+    }
+    
+    private int readRankingSize(int defaultSize) {
+        System.out.print("How many (default " + defaultSize + "): ");
+        String input = scanner.nextLine().trim();
+        try {
+            int k = input.isEmpty() ? defaultSize : Integer.parseInt(input);
+            return k > 0 ? k : defaultSize;
+        } catch (NumberFormatException e) {
+            return defaultSize;
+        }
     }
     
-    // File Operations and Backup (placeholder methods)
+    // File Operations (placeholder) and Backup
     private void handleFileOperations() {
         System.out.println("\\n--- File Operations ---");
         System.out.println("File I/O operations will be implemented in the next phase.");
@@ -652,9 +907,96 @@ public class MainMenu {
     }
     
     private void handleBackupOperations() {
-        System.out.println("\\n--- Backup Operations ---");
-        System.out.println("Backup operations will be implemented in the next phase.");
-        System.out.println("This would include timestamped backups and recursive utilities.");
+        System.out.println("\n--- Backup Operations ---");
+        System.out.println("1. Create Backup");
+        System.out.println("2. Create Archive Backup");
+        System.out.println("3. Create Incremental Backup");
+        System.out.println("4. List Backups");
+        System.out.println("5. Backup Statistics");
+        System.out.println("6. Clean Up Old Backups (background)");
+        System.out.println("7. Run Backup in Background");
+        System.out.println("8. Background Task Status");
+        System.out.println("9. Restore from Backup");
+        System.out.println("10. Checkpoint Data Now");
+        System.out.println("11. Back to Main Menu");
+        System.out.print("Choice: ");
+        
+        int choice = getMenuChoice();
+        
+        try {
+            switch (choice) {
+                case 1 -> backupService.createBackup();
+                case 2 -> backupService.createArchiveBackup();
+                case 3 -> backupService.createIncrementalBackup();
+                case 4 -> backupService.listBackups();
+                case 5 -> backupService.printBackupStatistics();
+                case 6 -> {
+                    System.out.print("Number of backups to keep: ");
+                    int keepCount = Integer.parseInt(scanner.nextLine().trim());
+                    startBackgroundTask("Cleanup", backupService.cleanupOldBackupsAsync(keepCount));
+                }
+                case 7 -> startBackgroundTask("Backup", backupService.createBackupAsync());
+                case 8 -> showBackgroundTaskStatus();
+                case 9 -> restoreFromBackup();
+                case 10 -> checkpointNow();
+                case 11 -> { /* Return to main menu */ }
+                default -> System.out.println("Invalid choice.");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number.");
+        } catch (Exception e) {
+            System.err.println("Backup operation failed: " + e.getMessage());
+        }
+    }
+    
+    private void restoreFromBackup() throws Exception {
+        backupService.listBackups();
+        System.out.print("Backup name to restore: ");
+        String backupName = scanner.nextLine().trim();
+        
+        System.out.print("This replaces all current students, courses and enrollments. Continue? (y/n): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            System.out.println("Restore cancelled.");
+            return;
+        }
+        
+        backupService.withSnapshotDirectory(backupName, importExportService::restoreSnapshot);
+    }
+    
+    private void checkpointNow() throws Exception {
+        if (checkpointer == null) {
+            System.out.println("The write-ahead log is disabled; there is nothing to checkpoint.");
+            return;
+        }
+        SnapshotStore.SnapshotInfo info = checkpointer.checkpointNow();
+        System.out.printf("Snapshot %s written: %d students, %d courses, %d enrollments, %d KB in %d ms%n",
+            info.getPath().getFileName(), info.getStudents(), info.getCourses(), info.getEnrollments(),
+            info.getBytes() / 1024, info.getElapsedMillis());
+    }
+    
+    private void startBackgroundTask(String name, CompletableFuture<?> task) {
+        backgroundTaskName = name;
+        backgroundTask = task;
+        task.whenComplete((result, error) -> {
+            if (error != null) {
+                System.err.println(name + " failed in background: " + error.getMessage());
+            } else {
+                System.out.println(name + " finished in background.");
+            }
+        });
+        System.out.println(name + " started in background. The menu stays available.");
+    }
+    
+    private void showBackgroundTaskStatus() {
+        if (backgroundTask == null) {
+            System.out.println("No background task has been started.");
+        } else if (!backgroundTask.isDone()) {
+            System.out.println(backgroundTaskName + " is still running.");
+        } else if (backgroundTask.isCompletedExceptionally()) {
+            System.out.println(backgroundTaskName + " failed.");
+        } else {
+            System.out.println(backgroundTaskName + " completed.");
+        }
     }
     
     // Initialize sample data for demonstration
@@ -673,17 +1015,17 @@ public class MainMenu {
             studentService.create(student3);
             
             // Sample courses
-            Course course1 = new Course.Builder(new CourseCode("CS101"), "Introduction to Programming", 3)
+            Course course1 = new Course.Builder(CourseCode.of("CS101"), "Introduction to Programming", 3)
                 .department("Computer Science")
                 .semester(Semester.FALL)
                 .build();
             
-            Course course2 = new Course.Builder(new CourseCode("CS201"), "Data Structures", 4)
+            Course course2 = new Course.Builder(CourseCode.of("CS201"), "Data Structures", 4)
                 .department("Computer Science")
                 .semester(Semester.SPRING)
                 .build();
             
-            Course course3 = new Course.Builder(new CourseCode("IT301"), "Database Systems", 3)
+            Course course3 = new Course.Builder(CourseCode.of("IT301"), "Database Systems", 3)
                 .department("Information Technology")
                 .semester(Semester.FALL)
                 .build();
@@ -693,14 +1035,14 @@ public class MainMenu {
             courseService.create(course3);
             
             // Sample enrollments
-            enrollmentService.enrollStudent("S001", new CourseCode("CS101"), Semester.FALL);
-            enrollmentService.enrollStudent("S001", new CourseCode("IT301"), Semester.FALL);
-            enrollmentService.enrollStudent("S002", new CourseCode("CS101"), Semester.FALL);
-            enrollmentService.enrollStudent("S003", new CourseCode("IT301"), Semester.FALL);
+            enrollmentService.enrollStudent("S001", CourseCode.of("CS101"), Semester.FALL);
+            enrollmentService.enrollStudent("S001", CourseCode.of("IT301"), Semester.FALL);
+            enrollmentService.enrollStudent("S002", CourseCode.of("CS101"), Semester.FALL);
+            enrollmentService.enrollStudent("S003", CourseCode.of("IT301"), Semester.FALL);
             
             // Sample grades
-            enrollmentService.recordGrade("S001", new CourseCode("CS101"), Semester.FALL, 85.0);
-            enrollmentService.recordGrade("S002", new CourseCode("CS101"), Semester.FALL, 92.0);
+            enrollmentService.recordGrade("S001", CourseCode.of("CS101"), Semester.FALL, 85.0);
+            enrollmentService.recordGrade("S002", CourseCode.of("CS101"), Semester.FALL, 92.0);
             
             System.out.println("Sample data initialized successfully.");
             
@@ -0,0 +1,45 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+import java.time.LocalDate;
+
+/**
+ * Receives every successful state change made through the service
+ * implementations, in the order the changes were applied to each entity.
+ * A write-ahead log implements this to make mutations durable; replaying a
+ * log calls the same methods on a JournalReplayer.
+ *
+ * Recording methods are called while the entity is locked and must only
+ * buffer; sync() is called after the lock is released and is where an
+ * implementation may block until the recorded changes are durable.
+ */
+public interface MutationJournal {
+
+    // Journal that records nothing (the default for every service)
+    MutationJournal NONE = new MutationJournal() { };
+
+    default void studentCreated(Student student) { }
+    default void studentUpdated(Student student) { }
+    default void studentDeleted(String studentId) { }
+    default void studentsCleared() { }
+
+    default void courseCreated(Course course) { }
+    default void courseUpdated(Course course) { }
+    default void courseDeleted(CourseCode courseCode) { }
+    default void coursesCleared() { }
+
+    /**
+     * @param marks recorded marks, or NaN if the enrollment has no grade yet
+     */
+    default void enrolled(String studentId, CourseCode courseCode, Semester semester,
+                          LocalDate enrollmentDate, double marks, boolean active) { }
+    default void unenrolled(String studentId, CourseCode courseCode, Semester semester) { }
+    default void gradeRecorded(String studentId, CourseCode courseCode, Semester semester, double marks) { }
+    default void enrollmentsCleared() { }
+
+    /**
+     * Block until everything recorded so far is as durable as the journal's
+     * policy promises
+     */
+    default void sync() { }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package edu.ccrm.service;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a sorted listing, with cursors to the neighbouring pages
+ * Cursors mark a position rather than an offset, so fetching the next page
+ * costs the same however deep the listing is, and rows added or removed
+ * elsewhere do not shift the pages. A cursor is only valid for the order
+ * that produced it.
+ */
+public final class Page<T> {
+
+    /**
+     * Position just after (or, for backward cursors, just before) a row
+     */
+    public static final class Cursor {
+        final Object key;
+        final String id;
+        final boolean forward;
+        final Object order;
+
+        Cursor(Object key, String id, boolean forward, Object order) {
+            this.key = key;
+            this.id = id;
+            this.forward = forward;
+            this.order = order;
+        }
+    }
+
+    private final List<T> items;
+    private final Cursor next;
+    private final Cursor previous;
+
+    Page(List<T> items, Cursor next, Cursor previous) {
+        this.items = Collections.unmodifiableList(items);
+        this.next = next;
+        this.previous = previous;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * Cursor for the following page, or null on the last page
+     */
+    public Cursor getNext() {
+        return next;
+    }
+
+    public boolean hasPrevious() {
+        return previous != null;
+    }
+
+    /**
+     * Cursor for the preceding page, or null on the first page
+     */
+    public Cursor getPrevious() {
+        return previous;
+    }
+}
\ No newline at end of file
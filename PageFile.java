@@ -0,0 +1,166 @@
+package edu.ccrm.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * File of fixed-size pages accessed through memory mapping
+ * The file is mapped in 64 MB segments as it grows, so pages live in the OS
+ * page cache rather than on the Java heap and the file can be many times
+ * larger than the heap. Page 0 is the header: page count plus a few root
+ * slots in which index structures (see BPlusTree) record their root page
+ * and entry count.
+ *
+ * Not thread-safe; callers serialize access.
+ */
+public class PageFile implements Closeable {
+
+    public static final int PAGE_SIZE = 4096;
+    public static final int MAX_ROOTS = 8;
+
+    private static final int MAGIC = 0x43435047; // "CCPG"
+    private static final int VERSION = 1;
+    private static final int PAGES_PER_SEGMENT = (64 << 20) / PAGE_SIZE;
+    private static final int ROOTS_OFFSET = 16;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final int[] roots = new int[MAX_ROOTS];
+    private final long[] counts = new long[MAX_ROOTS];
+    private int pageCount;
+
+    private PageFile(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Open an existing page file or create an empty one
+     */
+    public static PageFile open(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PageFile file = new PageFile(path, channel);
+        try {
+            if (channel.size() == 0) {
+                file.pageCount = 1; // The header page
+                file.writeHeader();
+            } else {
+                file.readHeader();
+            }
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = page(0);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a CCRM page file: " + path);
+        }
+        int version = header.getInt(4);
+        if (version != VERSION || header.getInt(8) != PAGE_SIZE) {
+            throw new IOException("Unsupported page file version " + version + ": " + path);
+        }
+        pageCount = header.getInt(12);
+        for (int i = 0; i < MAX_ROOTS; i++) {
+            roots[i] = header.getInt(ROOTS_OFFSET + i * 12);
+            counts[i] = header.getLong(ROOTS_OFFSET + i * 12 + 4);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = page(0);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putInt(8, PAGE_SIZE);
+        header.putInt(12, pageCount);
+        for (int i = 0; i < MAX_ROOTS; i++) {
+            header.putInt(ROOTS_OFFSET + i * 12, roots[i]);
+            header.putLong(ROOTS_OFFSET + i * 12 + 4, counts[i]);
+        }
+    }
+
+    /**
+     * A view of one page (absolute offsets 0 to PAGE_SIZE - 1)
+     */
+    public ByteBuffer page(int pageNo) throws IOException {
+        int segment = pageNo / PAGES_PER_SEGMENT;
+        while (segments.size() <= segment) {
+            // Mapping past the end of the file extends it
+            long position = (long) segments.size() * PAGES_PER_SEGMENT * PAGE_SIZE;
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, (long) PAGES_PER_SEGMENT * PAGE_SIZE));
+        }
+
+        int offset = (pageNo % PAGES_PER_SEGMENT) * PAGE_SIZE;
+        ByteBuffer view = segments.get(segment).duplicate();
+        view.position(offset).limit(offset + PAGE_SIZE);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int allocatePage() {
+        return pageCount++;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Root page recorded in a slot, or 0 if the slot is unused
+     */
+    public int getRoot(int slot) {
+        return roots[slot];
+    }
+
+    public void setRoot(int slot, int pageNo) {
+        roots[slot] = pageNo;
+    }
+
+    public long getCount(int slot) {
+        return counts[slot];
+    }
+
+    public void setCount(int slot, long count) {
+        counts[slot] = count;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Write the header and force all mapped pages to disk
+     */
+    public void flush() throws IOException {
+        writeHeader();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            segments.clear();
+            channel.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,217 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Parallel CSV importer over a memory-mapped file
+ * The file is split into line-aligned chunks that are parsed concurrently
+ * on a fork/join pool. Parsed chunks are merged into the target service in
+ * file order, so duplicate IDs and RegNos are resolved deterministically:
+ * the first occurrence in the file wins and later ones are reported.
+ * At most parallelism * 2 chunks are parsed ahead of the merge, so only a
+ * bounded part of the file is held as parsed entities at any time.
+ *
+ * Records are assumed to be one per line; quoted fields may contain commas
+ * but not line breaks (use the streaming import for such files).
+ */
+public class ParallelCsvImporter<T> {
+
+    private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+    private static final long MAX_CHUNK_SIZE = 256L * 1024 * 1024; // Well under the 2 GB mapping limit
+    private static final int MAX_REPORTED_ERRORS = 50;
+
+    private final String entityType;
+    private final Function<List<String>, T> parser;
+    private final Consumer<T> sink;
+    private final int parallelism;
+
+    /**
+     * @param parser turns one record into an entity; runs on pool threads
+     * @param sink   stores one entity; always called from the calling thread in file order
+     */
+    public ParallelCsvImporter(String entityType, Function<List<String>, T> parser,
+                               Consumer<T> sink, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.entityType = entityType;
+        this.parser = parser;
+        this.sink = sink;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Result of parsing one chunk
+     */
+    private static class ChunkResult<T> {
+        final List<T> entities = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        long rows;
+    }
+
+    public ImportResult importFile(Path file) throws IOException {
+        long start = System.nanoTime();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> chunks = splitIntoChunks(channel);
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+            try {
+                int window = parallelism * 2;
+                Deque<Future<ChunkResult<T>>> inFlight = new ArrayDeque<>(window);
+                Iterator<long[]> pending = chunks.iterator();
+                while (inFlight.size() < window && pending.hasNext()) {
+                    inFlight.add(submitChunk(pool, channel, pending.next()));
+                }
+
+                // Merge in file order while later chunks are still being parsed;
+                // each merged chunk makes room for the next one
+                long rows = 0;
+                long imported = 0;
+                long errors = 0;
+                while (!inFlight.isEmpty()) {
+                    ChunkResult<T> result = inFlight.poll().get();
+                    if (pending.hasNext()) {
+                        inFlight.add(submitChunk(pool, channel, pending.next()));
+                    }
+                    rows += result.rows;
+
+                    for (String error : result.errors) {
+                        errors = reportError(errors, error);
+                    }
+                    for (T entity : result.entities) {
+                        try {
+                            sink.accept(entity);
+                            imported++;
+                        } catch (RuntimeException e) {
+                            errors = reportError(errors, entity + " - " + e.getMessage());
+                        }
+                    }
+                }
+
+                return new ImportResult(entityType, rows, imported, errors,
+                    (System.nanoTime() - start) / 1_000_000);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Error parsing " + file + ": " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private Future<ChunkResult<T>> submitChunk(ForkJoinPool pool, FileChannel channel, long[] chunk) {
+        Callable<ChunkResult<T>> task = () -> parseChunk(channel, chunk[0], chunk[1]);
+        return pool.submit(task);
+    }
+
+    private long reportError(long errorCount, String message) {
+        errorCount++;
+        if (errorCount <= MAX_REPORTED_ERRORS) {
+            System.err.println("Error importing " + entityType.toLowerCase() + ": " + message);
+        } else if (errorCount == MAX_REPORTED_ERRORS + 1) {
+            System.err.println("Further import errors suppressed...");
+        }
+        return errorCount;
+    }
+
+    /**
+     * Compute [start, end) byte ranges that begin after the header line and
+     * always end just after a newline (or at end of file)
+     */
+    private List<long[]> splitIntoChunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<long[]> chunks = new ArrayList<>();
+
+        long position = nextLineStart(channel, 0, size); // Skip header line
+        long target = Math.min(MAX_CHUNK_SIZE,
+            Math.max(MIN_CHUNK_SIZE, size / ((long) parallelism * 4)));
+
+        while (position < size) {
+            long end = Math.min(size, position + target);
+            if (end < size) {
+                end = nextLineStart(channel, end, size);
+            }
+            chunks.add(new long[] {position, end});
+            position = end;
+        }
+        return chunks;
+    }
+
+    // Position just after the next '\n' at or beyond 'from'
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        long position = from;
+        while (position < size) {
+            int window = (int) Math.min(64 * 1024, size - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, window);
+            for (int i = 0; i < window; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += window;
+        }
+        return size;
+    }
+
+    private ChunkResult<T> parseChunk(FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        ChunkResult<T> result = new ChunkResult<>();
+
+        // Per-task scratch space, reused for every line in the chunk
+        byte[] lineBytes = new byte[256];
+        List<String> fields = new ArrayList<>();
+        StringBuilder scratch = new StringBuilder(64);
+
+        int limit = buffer.limit();
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && buffer.get(i) != '\n') {
+                continue;
+            }
+
+            int length = i - lineStart;
+            if (length > 0 && buffer.get(lineStart + length - 1) == '\r') {
+                length--;
+            }
+            if (length > 0) {
+                if (length > lineBytes.length) {
+                    lineBytes = new byte[Math.max(length, lineBytes.length * 2)];
+                }
+                buffer.get(lineStart, lineBytes, 0, length);
+                String line = new String(lineBytes, 0, length, StandardCharsets.UTF_8);
+
+                if (!line.isBlank()) {
+                    result.rows++;
+                    try {
+                        CsvTokenizer.splitLine(line, fields, scratch);
+                        result.entities.add(parser.apply(fields));
+                    } catch (RuntimeException e) {
+                        result.errors.add(line + " - " + e.getMessage());
+                    }
+                }
+            }
+            lineStart = i + 1;
+        }
+        return result;
+    }
+}
\ No newline at end of file
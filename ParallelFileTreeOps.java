@@ -0,0 +1,198 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Parallel file-tree copier and deleter
+ * The tree is walked once on the calling thread; individual file copies and
+ * deletes are handed to an executor, with a semaphore bounding how many are
+ * in flight. On runtimes with virtual threads (Java 21+) each file gets a
+ * virtual thread, otherwise a fixed pool of platform threads is used.
+ * Errors are collected per file instead of aborting the whole operation.
+ */
+public class ParallelFileTreeOps {
+
+    public static final int DEFAULT_PARALLELISM = 8;
+
+    private static final int PROGRESS_STEPS = 10;
+
+    /**
+     * Receives (filesDone, filesTotal) roughly every tenth of the work
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProgress(long done, long total);
+    }
+
+    /**
+     * Outcome of a copy or delete: counts, bytes, time and per-file errors
+     */
+    public static class TreeResult {
+        private final long files;
+        private final long bytes;
+        private final List<String> errors;
+        private final long elapsedMillis;
+
+        TreeResult(long files, long bytes, List<String> errors, long elapsedMillis) {
+            this.files = files;
+            this.bytes = bytes;
+            this.errors = Collections.unmodifiableList(errors);
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getFiles() { return files; }
+        public long getBytes() { return bytes; }
+        public List<String> getErrors() { return errors; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public boolean isSuccessful() { return errors.isEmpty(); }
+    }
+
+    private final int parallelism;
+    private final ProgressListener listener;
+
+    public ParallelFileTreeOps(int parallelism, ProgressListener listener) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+        this.listener = listener;
+    }
+
+    /**
+     * Copy every file under source into target, creating directories as needed
+     */
+    public TreeResult copyTree(Path source, Path target) throws IOException {
+        long start = System.nanoTime();
+        List<Path> files = new ArrayList<>();
+
+        // Directories are created up front so file tasks never race on them
+        try (Stream<Path> stream = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) stream::iterator) {
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(target.resolve(source.relativize(path)));
+                } else {
+                    files.add(path);
+                }
+            }
+        }
+
+        AtomicLong bytes = new AtomicLong();
+        List<String> errors = runAll(files, file -> {
+            Path targetFile = target.resolve(source.relativize(file));
+            Files.copy(file, targetFile, StandardCopyOption.REPLACE_EXISTING);
+            bytes.addAndGet(Files.size(targetFile));
+        });
+
+        return new TreeResult(files.size(), bytes.get(), errors, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Delete a file or a whole directory tree
+     */
+    public TreeResult deleteTree(Path root) throws IOException {
+        long start = System.nanoTime();
+        if (!Files.exists(root)) {
+            return new TreeResult(0, 0, new ArrayList<>(), 0);
+        }
+
+        List<Path> files = new ArrayList<>();
+        List<Path> directories = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) stream::iterator) {
+                (Files.isDirectory(path) ? directories : files).add(path);
+            }
+        }
+
+        AtomicLong bytes = new AtomicLong();
+        List<String> errors = runAll(files, file -> {
+            long size = Files.size(file);
+            Files.delete(file);
+            bytes.addAndGet(size);
+        });
+
+        // Directories go last, deepest first, once their files are gone
+        directories.sort(Comparator.reverseOrder());
+        for (Path directory : directories) {
+            try {
+                Files.delete(directory);
+            } catch (IOException e) {
+                errors.add(directory + " - " + e.getMessage());
+            }
+        }
+
+        return new TreeResult(files.size(), bytes.get(), errors, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @FunctionalInterface
+    private interface FileTask {
+        void run(Path file) throws IOException;
+    }
+
+    private List<String> runAll(List<Path> files, FileTask task) throws IOException {
+        List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong done = new AtomicLong();
+        long total = files.size();
+        long step = Math.max(1, total / PROGRESS_STEPS);
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        ExecutorService executor = newExecutor(parallelism);
+
+        try {
+            for (Path file : files) {
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        task.run(file);
+                    } catch (IOException | RuntimeException e) {
+                        errors.add(file + " - " + e.getMessage());
+                    } finally {
+                        inFlight.release();
+                        long completed = done.incrementAndGet();
+                        if (listener != null && (completed % step == 0 || completed == total)) {
+                            listener.onProgress(completed, total);
+                        }
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IOException("File operation interrupted", e);
+        }
+
+        return new ArrayList<>(errors);
+    }
+
+    /**
+     * Virtual-thread-per-task executor when the runtime has one, otherwise
+     * a fixed pool. Looked up reflectively so the code also runs on the JDKs
+     * before 21, down to the project's minimum of Java 14.
+     */
+    static ExecutorService newExecutor(int parallelism) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "ccrm-file-io");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,293 @@
+package edu.ccrm.util;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Declarative filter over students or courses
+ * A query is a tree of field comparisons (e.g. "gpa >= 8.0") combined with
+ * and, or and not. Unlike an opaque Predicate its clauses can be inspected,
+ * so a query planner can answer a clause from an index and test only the
+ * remaining clauses on the candidates. A Query is still a Predicate: it can
+ * be passed to search(Predicate), and and/or/negate keep the structure.
+ * Any other Predicate can be embedded with matching(), but is never
+ * answered from an index. Immutable.
+ */
+public final class Query<T> implements Predicate<T> {
+
+    /**
+     * Comparison between a field's value and a constant
+     */
+    public enum Operator {
+        EQ("="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        boolean accepts(int comparison) {
+            switch (this) {
+                case EQ: return comparison == 0;
+                case NE: return comparison != 0;
+                case LT: return comparison < 0;
+                case LE: return comparison <= 0;
+                case GT: return comparison > 0;
+                default: return comparison >= 0;
+            }
+        }
+    }
+
+    /**
+     * A named, comparable attribute of T (see StudentFields, CourseFields)
+     */
+    public static final class Field<T, V> {
+        private final String name;
+        private final Function<? super T, ? extends V> getter;
+        private final Comparator<? super V> order;
+
+        private Field(String name, Function<? super T, ? extends V> getter, Comparator<? super V> order) {
+            this.name = name;
+            this.getter = getter;
+            this.order = order;
+        }
+
+        public static <T, V extends Comparable<? super V>> Field<T, V> of(String name, Function<? super T, ? extends V> getter) {
+            return new Field<>(name, getter, Comparator.naturalOrder());
+        }
+
+        /**
+         * A field whose values are compared with the given order (e.g.
+         * String.CASE_INSENSITIVE_ORDER)
+         */
+        public static <T, V> Field<T, V> of(String name, Function<? super T, ? extends V> getter, Comparator<? super V> order) {
+            return new Field<>(name, getter, order);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public V valueOf(T entity) {
+            return getter.apply(entity);
+        }
+
+        public Query<T> eq(V value) { return compare(this, Operator.EQ, value); }
+        public Query<T> ne(V value) { return compare(this, Operator.NE, value); }
+        public Query<T> lt(V value) { return compare(this, Operator.LT, value); }
+        public Query<T> le(V value) { return compare(this, Operator.LE, value); }
+        public Query<T> gt(V value) { return compare(this, Operator.GT, value); }
+        public Query<T> ge(V value) { return compare(this, Operator.GE, value); }
+
+        // A missing (null) value only satisfies NE
+        boolean matches(T entity, Operator operator, Object value) {
+            V actual = getter.apply(entity);
+            if (actual == null) {
+                return operator == Operator.NE;
+            }
+            @SuppressWarnings("unchecked")
+            V expected = (V) value;
+            return operator.accepts(order.compare(actual, expected));
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private enum Kind { COMPARE, AND, OR, NOT, PREDICATE }
+
+    private final Kind kind;
+    private final Field<T, ?> field;
+    private final Operator operator;
+    private final Object value;
+    private final List<Query<T>> operands;
+    private final Predicate<? super T> predicate;
+    private final String description;
+
+    private Query(Kind kind, Field<T, ?> field, Operator operator, Object value,
+                  List<Query<T>> operands, Predicate<? super T> predicate, String description) {
+        this.kind = kind;
+        this.field = field;
+        this.operator = operator;
+        this.value = value;
+        this.operands = operands;
+        this.predicate = predicate;
+        this.description = description;
+    }
+
+    /**
+     * field operator value, e.g. compare(StudentFields.GPA, Operator.GE, 8.0)
+     */
+    public static <T, V> Query<T> compare(Field<T, V> field, Operator operator, V value) {
+        Objects.requireNonNull(field, "field");
+        Objects.requireNonNull(operator, "operator");
+        Objects.requireNonNull(value, "value");
+        return new Query<>(Kind.COMPARE, field, operator, value, List.of(), null, null);
+    }
+
+    @SafeVarargs
+    public static <T> Query<T> allOf(Query<T>... queries) {
+        // Copied element by element so the varargs array is never passed on
+        List<Query<T>> operands = new ArrayList<>(queries.length);
+        for (Query<T> query : queries) {
+            operands.add(query);
+        }
+        return combine(Kind.AND, operands);
+    }
+
+    public static <T> Query<T> allOf(List<Query<T>> queries) {
+        return combine(Kind.AND, queries);
+    }
+
+    @SafeVarargs
+    public static <T> Query<T> anyOf(Query<T>... queries) {
+        List<Query<T>> operands = new ArrayList<>(queries.length);
+        for (Query<T> query : queries) {
+            operands.add(query);
+        }
+        return combine(Kind.OR, operands);
+    }
+
+    public static <T> Query<T> not(Query<T> query) {
+        if (query.kind == Kind.NOT) {
+            return query.operands.get(0);
+        }
+        return new Query<>(Kind.NOT, null, null, null, List.of(query), null, null);
+    }
+
+    /**
+     * An opaque condition, evaluated as a filter only
+     * @param description shown in toString and query plans
+     */
+    public static <T> Query<T> matching(String description, Predicate<? super T> predicate) {
+        if (predicate instanceof Query) {
+            @SuppressWarnings("unchecked")
+            Query<T> query = (Query<T>) predicate;
+            return query;
+        }
+        return new Query<>(Kind.PREDICATE, null, null, null, List.of(), Objects.requireNonNull(predicate), description);
+    }
+
+    // Nested ands (and ors) are flattened into one operand list
+    private static <T> Query<T> combine(Kind kind, List<Query<T>> queries) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("At least one query is required");
+        }
+
+        List<Query<T>> operands = new ArrayList<>();
+        for (Query<T> query : queries) {
+            if (Objects.requireNonNull(query).kind == kind) {
+                operands.addAll(query.operands);
+            } else {
+                operands.add(query);
+            }
+        }
+        return operands.size() == 1 ? operands.get(0)
+            : new Query<>(kind, null, null, null, Collections.unmodifiableList(operands), null, null);
+    }
+
+    @Override
+    public boolean test(T entity) {
+        switch (kind) {
+            case COMPARE:
+                return field.matches(entity, operator, value);
+            case AND:
+                for (Query<T> operand : operands) {
+                    if (!operand.test(entity)) {
+                        return false;
+                    }
+                }
+                return true;
+            case OR:
+                for (Query<T> operand : operands) {
+                    if (operand.test(entity)) {
+                        return true;
+                    }
+                }
+                return false;
+            case NOT:
+                return !operands.get(0).test(entity);
+            default:
+                return predicate.test(entity);
+        }
+    }
+
+    @Override
+    public Query<T> and(Predicate<? super T> other) {
+        return allOf(this, matching("<predicate>", other));
+    }
+
+    @Override
+    public Query<T> or(Predicate<? super T> other) {
+        return anyOf(this, matching("<predicate>", other));
+    }
+
+    @Override
+    public Query<T> negate() {
+        return not(this);
+    }
+
+    // Structure, for query planners
+
+    public boolean isComparison() {
+        return kind == Kind.COMPARE;
+    }
+
+    public boolean isAnd() {
+        return kind == Kind.AND;
+    }
+
+    public boolean isOr() {
+        return kind == Kind.OR;
+    }
+
+    /**
+     * The field of a comparison, otherwise null
+     */
+    public Field<T, ?> getField() {
+        return field;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * The operands of an and, or or not; empty for other queries
+     */
+    public List<Query<T>> getOperands() {
+        return operands;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case COMPARE:
+                return field.getName() + " " + operator.getSymbol() + " " + value;
+            case AND:
+            case OR:
+                StringJoiner joiner = new StringJoiner(kind == Kind.AND ? " AND " : " OR ");
+                for (Query<T> operand : operands) {
+                    joiner.add(operand.kind == Kind.AND || operand.kind == Kind.OR
+                        ? "(" + operand + ")" : operand.toString());
+                }
+                return joiner.toString();
+            case NOT:
+                return "NOT (" + operands.get(0) + ")";
+            default:
+                return description;
+        }
+    }
+}
\ No newline at end of file
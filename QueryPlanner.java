@@ -0,0 +1,300 @@
+package edu.ccrm.service;
+
+import edu.ccrm.util.Query;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Chooses how to run a Query against one collection of entities
+ * Indexes are registered per field and answer equality comparisons. For an
+ * and, the planner reads the index expected to return the fewest rows and
+ * tests only the other clauses on those candidates; an or is answered by
+ * the union of its operands' index reads when every operand can use one.
+ * Anything else becomes a full scan filtered by the whole query, as does
+ * any plan expected to read half the rows or more: rows read through an
+ * index cost more than rows read in a scan.
+ *
+ * Rows read from an index are re-checked against the indexed clause, so a
+ * plan never returns a row the query does not match.
+ * Thread-safe if the registered scan and lookups are.
+ */
+public final class QueryPlanner<T> {
+
+    private static final class Index<T> {
+        private final String name;
+        private final Function<Object, Collection<? extends T>> lookup;
+
+        Index(String name, Function<Object, Collection<? extends T>> lookup) {
+            this.name = name;
+            this.lookup = lookup;
+        }
+    }
+
+    private final String source;
+    private final Consumer<Consumer<? super T>> scan;
+    private final LongSupplier count;
+    private final Map<Query.Field<T, ?>, Index<T>> indexes = new HashMap<>();
+
+    /**
+     * @param source name of the scanned collection, shown in plans
+     * @param scan visits every entity
+     * @param count number of entities
+     */
+    public QueryPlanner(String source, Consumer<Consumer<? super T>> scan, LongSupplier count) {
+        this.source = source;
+        this.scan = scan;
+        this.count = count;
+    }
+
+    /**
+     * Register an index answering field = value
+     * @param lookup the entities filed under a value, or null if the index
+     *               cannot answer for that value; the collection's size is
+     *               used as the estimate, so it should be the live bucket
+     *               rather than a copy
+     */
+    @SuppressWarnings("unchecked")
+    public <V> QueryPlanner<T> index(String name, Query.Field<T, V> field,
+                                     Function<? super V, ? extends Collection<? extends T>> lookup) {
+        indexes.put(field, new Index<>(name, value -> lookup.apply((V) value)));
+        return this;
+    }
+
+    /**
+     * Register an index holding at most one entity per value
+     */
+    public <V> QueryPlanner<T> uniqueIndex(String name, Query.Field<T, V> field, Function<? super V, ? extends T> lookup) {
+        return index(name, field, value -> {
+            T entity = lookup.apply(value);
+            return entity != null ? List.of(entity) : List.of();
+        });
+    }
+
+    public Plan<T> plan(Query<T> query) {
+        long total = count.getAsLong();
+        Step<T> access = access(query);
+        if (access == null || access.estimate * 2 >= total) {
+            access = new Filter<>(new Scan<>(source, scan, total), query);
+        }
+        return new Plan<>(query, access, total);
+    }
+
+    // The cheapest index-based way to produce exactly the rows matching the
+    // query, or null if it needs a scan
+    private Step<T> access(Query<T> query) {
+        if (query.isComparison()) {
+            Index<T> index = indexes.get(query.getField());
+            if (index == null || query.getOperator() != Query.Operator.EQ) {
+                return null;
+            }
+            Collection<? extends T> rows = index.lookup.apply(query.getValue());
+            return rows != null ? new Lookup<>(index, query, rows.size()) : null;
+        }
+
+        if (query.isAnd()) {
+            List<Query<T>> operands = query.getOperands();
+            Step<T> best = null;
+            int bestOperand = -1;
+            for (int i = 0; i < operands.size(); i++) {
+                Step<T> step = access(operands.get(i));
+                if (step != null && (best == null || step.estimate < best.estimate)) {
+                    best = step;
+                    bestOperand = i;
+                }
+            }
+            if (best == null) {
+                return null;
+            }
+
+            List<Query<T>> residual = new ArrayList<>(operands);
+            residual.remove(bestOperand);
+            return residual.isEmpty() ? best : new Filter<>(best, Query.allOf(residual));
+        }
+
+        if (query.isOr()) {
+            List<Step<T>> steps = new ArrayList<>();
+            for (Query<T> operand : query.getOperands()) {
+                Step<T> step = access(operand);
+                if (step == null) {
+                    return null;
+                }
+                steps.add(step);
+            }
+            return new Union<>(steps);
+        }
+
+        return null;
+    }
+
+    /**
+     * A chosen way of running one query
+     */
+    public static final class Plan<T> {
+        private final Query<T> query;
+        private final Step<T> root;
+        private final long total;
+
+        private Plan(Query<T> query, Step<T> root, long total) {
+            this.query = query;
+            this.root = root;
+            this.total = total;
+        }
+
+        public List<T> execute() {
+            List<T> results = new ArrayList<>();
+            root.forEach(results::add);
+            return results;
+        }
+
+        /**
+         * Upper bound on the rows the plan reads, from index sizes at planning time
+         */
+        public long getEstimatedRows() {
+            return root.estimate;
+        }
+
+        /**
+         * The plan as an indented tree, one step per line, e.g.
+         * <pre>
+         * Query: department = CS AND credits >= 3
+         * Filter: credits >= 3
+         *   Index lookup courses by department: department = CS (~42 rows)
+         * Estimated rows read: 42 of 1200
+         * </pre>
+         */
+        public String explain() {
+            StringBuilder out = new StringBuilder();
+            out.append("Query: ").append(query).append('\n');
+            root.explain(out, "");
+            out.append("Estimated rows read: ").append(root.estimate).append(" of ").append(total);
+            return out.toString();
+        }
+
+        @Override
+        public String toString() {
+            return explain();
+        }
+    }
+
+    private abstract static class Step<T> {
+        final long estimate;
+
+        Step(long estimate) {
+            this.estimate = estimate;
+        }
+
+        abstract void forEach(Consumer<? super T> sink);
+
+        abstract void explain(StringBuilder out, String indent);
+    }
+
+    private static final class Scan<T> extends Step<T> {
+        private final String source;
+        private final Consumer<Consumer<? super T>> scan;
+
+        Scan(String source, Consumer<Consumer<? super T>> scan, long total) {
+            super(total);
+            this.source = source;
+            this.scan = scan;
+        }
+
+        @Override
+        void forEach(Consumer<? super T> sink) {
+            scan.accept(sink);
+        }
+
+        @Override
+        void explain(StringBuilder out, String indent) {
+            out.append(indent).append("Scan ").append(source).append(" (").append(estimate).append(" rows)\n");
+        }
+    }
+
+    private static final class Lookup<T> extends Step<T> {
+        private final Index<T> index;
+        private final Query<T> clause;
+
+        Lookup(Index<T> index, Query<T> clause, long estimate) {
+            super(estimate);
+            this.index = index;
+            this.clause = clause;
+        }
+
+        @Override
+        void forEach(Consumer<? super T> sink) {
+            // Read again rather than at planning time, so the plan sees current rows
+            Collection<? extends T> rows = index.lookup.apply(clause.getValue());
+            if (rows == null) {
+                return;
+            }
+            for (T row : rows) {
+                if (clause.test(row)) {
+                    sink.accept(row);
+                }
+            }
+        }
+
+        @Override
+        void explain(StringBuilder out, String indent) {
+            out.append(indent).append("Index lookup ").append(index.name).append(": ").append(clause)
+                .append(" (~").append(estimate).append(" rows)\n");
+        }
+    }
+
+    private static final class Filter<T> extends Step<T> {
+        private final Step<T> input;
+        private final Query<T> condition;
+
+        Filter(Step<T> input, Query<T> condition) {
+            super(input.estimate);
+            this.input = input;
+            this.condition = condition;
+        }
+
+        @Override
+        void forEach(Consumer<? super T> sink) {
+            input.forEach(row -> {
+                if (condition.test(row)) {
+                    sink.accept(row);
+                }
+            });
+        }
+
+        @Override
+        void explain(StringBuilder out, String indent) {
+            out.append(indent).append("Filter: ").append(condition).append('\n');
+            input.explain(out, indent + "  ");
+        }
+    }
+
+    private static final class Union<T> extends Step<T> {
+        private final List<Step<T>> inputs;
+
+        Union(List<Step<T>> inputs) {
+            super(inputs.stream().mapToLong(step -> step.estimate).sum());
+            this.inputs = inputs;
+        }
+
+        @Override
+        void forEach(Consumer<? super T> sink) {
+            // A row matching several operands is returned once
+            Set<T> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Step<T> input : inputs) {
+                input.forEach(row -> {
+                    if (seen.add(row)) {
+                        sink.accept(row);
+                    }
+                });
+            }
+        }
+
+        @Override
+        void explain(StringBuilder out, String indent) {
+            out.append(indent).append("Union (~").append(estimate).append(" rows)\n");
+            for (Step<T> input : inputs) {
+                input.explain(out, indent + "  ");
+            }
+        }
+    }
+}
\ No newline at end of file
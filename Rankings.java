@@ -0,0 +1,160 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.util.ComparatorUtils;
+import edu.ccrm.util.TopK;
+import java.util.*;
+
+/**
+ * Top-k rankings for reports: dean's list, department toppers and course
+ * top scorers
+ * No ranking sorts the whole student body. The dean's list is the first
+ * page of the students' maintained GPA order (kept current by
+ * StudentService.onGradesChanged); per-department and per-course rankings
+ * read only the matching courses' enrollments and keep the k best of each
+ * group in a bounded heap, O(n log k) for n graded enrollments.
+ *
+ * Students have no department of their own, so a department's toppers are
+ * ranked by their average grade points over graded enrollments in that
+ * department's courses. Only active students are ranked; ties go to the
+ * lower student ID.
+ */
+public class Rankings {
+
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final EnrollmentService enrollmentService;
+
+    public Rankings(StudentService studentService, CourseService courseService, EnrollmentService enrollmentService) {
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.enrollmentService = enrollmentService;
+    }
+
+    /**
+     * A student's average grade points over the graded courses counted
+     */
+    public static final class StudentScore {
+        private final Student student;
+        private double pointsSum;
+        private int gradedCourses;
+
+        private StudentScore(Student student) {
+            this.student = student;
+        }
+
+        public Student getStudent() {
+            return student;
+        }
+
+        public double getAverageGradePoints() {
+            return gradedCourses == 0 ? 0 : pointsSum / gradedCourses;
+        }
+
+        public int getGradedCourses() {
+            return gradedCourses;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%s) - %.2f over %d course%s", student.getName().getFullName(),
+                student.getId(), getAverageGradePoints(), gradedCourses, gradedCourses == 1 ? "" : "s");
+        }
+    }
+
+    private static final Comparator<StudentScore> BY_AVERAGE_POINTS =
+        Comparator.comparingDouble(StudentScore::getAverageGradePoints).reversed()
+            .thenComparing(score -> score.getStudent().getId());
+
+    private static final Comparator<Enrollment> BY_MARKS =
+        Comparator.comparingDouble(Enrollment::getMarks).reversed()
+            .thenComparing(enrollment -> enrollment.getStudent().getId());
+
+    /**
+     * The k active students with the highest GPA, best first; students
+     * without grades are left out
+     */
+    public List<Student> deansList(int k) {
+        List<Student> top = studentService.topActiveStudents(ComparatorUtils.BY_GPA, k);
+        // Ungraded students (GPA 0) sort last, so only the tail is dropped
+        top.removeIf(student -> student.calculateGPA() <= 0);
+        return top;
+    }
+
+    /**
+     * The k best students of one department's courses, best first
+     */
+    public List<StudentScore> departmentToppers(String department, int k) {
+        return topScores(courseService.findByDepartment(department), k);
+    }
+
+    /**
+     * The k best students of every department, by department name;
+     * courses without a department are left out
+     */
+    public Map<String, List<StudentScore>> departmentToppers(int k) {
+        Map<String, List<Course>> byDepartment = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        courseService.forEachEntity(course -> {
+            // Courses without a department are not ranked by department
+            if (course.getDepartment() != null) {
+                byDepartment.computeIfAbsent(course.getDepartment(), dept -> new ArrayList<>()).add(course);
+            }
+        });
+
+        Map<String, List<StudentScore>> toppers = new LinkedHashMap<>();
+        byDepartment.forEach((dept, courses) -> {
+            List<StudentScore> top = topScores(courses, k);
+            if (!top.isEmpty()) {
+                toppers.put(dept, top);
+            }
+        });
+        return toppers;
+    }
+
+    /**
+     * The k highest-marked graded enrollments of a course, best first
+     */
+    public List<Enrollment> courseTopScorers(CourseCode courseCode, int k) {
+        TopK<Enrollment> top = new TopK<>(k, BY_MARKS);
+        for (Enrollment enrollment : enrollmentService.getCourseEnrollments(courseCode)) {
+            if (isRanked(enrollment)) {
+                top.accept(enrollment);
+            }
+        }
+        return top.toList();
+    }
+
+    /**
+     * The k top scorers of every course with graded enrollments, by course code
+     */
+    public Map<CourseCode, List<Enrollment>> courseTopScorers(int k) {
+        Map<CourseCode, List<Enrollment>> toppers = new TreeMap<>(Comparator.comparing(CourseCode::getCode));
+        courseService.forEachEntity(course -> {
+            List<Enrollment> top = courseTopScorers(course.getCode(), k);
+            if (!top.isEmpty()) {
+                toppers.put(course.getCode(), top);
+            }
+        });
+        return toppers;
+    }
+
+    // One score per student over the courses' graded enrollments, then the k best
+    private List<StudentScore> topScores(Collection<Course> courses, int k) {
+        Map<String, StudentScore> scores = new HashMap<>();
+        for (Course course : courses) {
+            for (Enrollment enrollment : enrollmentService.getCourseEnrollments(course.getCode())) {
+                if (isRanked(enrollment)) {
+                    StudentScore score = scores.computeIfAbsent(enrollment.getStudent().getId(),
+                        id -> new StudentScore(enrollment.getStudent()));
+                    score.pointsSum += enrollment.getGrade().getGradePoints();
+                    score.gradedCourses++;
+                }
+            }
+        }
+        return scores.values().stream().collect(TopK.collector(k, BY_AVERAGE_POINTS));
+    }
+
+    private static boolean isRanked(Enrollment enrollment) {
+        return enrollment.getGrade() != null && enrollment.getStudent().isActive();
+    }
+}
\ No newline at end of file
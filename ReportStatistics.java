@@ -0,0 +1,161 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+import java.util.*;
+
+/**
+ * Single-pass aggregation engine behind the CLI reports and summary export
+ * Each summary is built with one mutable-reduction pass; large inputs are
+ * split across the common fork/join pool via parallel streams and the
+ * partial results are merged with combine()
+ */
+public class ReportStatistics {
+
+    // Below this size the fork/join overhead outweighs the gain
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    public static final String[] GPA_BUCKET_LABELS = {
+        "Excellent (9.0+)",
+        "Very Good (8.0-8.9)",
+        "Good (7.0-7.9)",
+        "Satisfactory (6.0-6.9)",
+        "Poor (<6.0)"
+    };
+
+    // Private constructor to prevent instantiation
+    private ReportStatistics() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Student aggregates: counts by status, GPA average and GPA buckets.
+     * A GPA of 0 means no recorded grades and is left out of GPA figures.
+     */
+    public static class StudentSummary {
+        private long total;
+        private long active;
+        private long graded;
+        private double gpaSum;
+        private final long[] gpaBuckets = new long[GPA_BUCKET_LABELS.length];
+        private final EnumMap<Student.StudentStatus, Long> byStatus = new EnumMap<>(Student.StudentStatus.class);
+
+        void accept(Student student) {
+            total++;
+            if (student.isActive()) {
+                active++;
+            }
+            byStatus.merge(student.getStatus(), 1L, Long::sum);
+
+            double gpa = student.calculateGPA(); // Exactly one GPA read per student
+            if (gpa > 0) {
+                graded++;
+                gpaSum += gpa;
+                gpaBuckets[bucketOf(gpa)]++;
+            }
+        }
+
+        void combine(StudentSummary other) {
+            total += other.total;
+            active += other.active;
+            graded += other.graded;
+            gpaSum += other.gpaSum;
+            for (int i = 0; i < gpaBuckets.length; i++) {
+                gpaBuckets[i] += other.gpaBuckets[i];
+            }
+            other.byStatus.forEach((status, count) -> byStatus.merge(status, count, Long::sum));
+        }
+
+        private static int bucketOf(double gpa) {
+            if (gpa >= 9.0) return 0;
+            if (gpa >= 8.0) return 1;
+            if (gpa >= 7.0) return 2;
+            if (gpa >= 6.0) return 3;
+            return 4;
+        }
+
+        public long getTotal() { return total; }
+        public long getActive() { return active; }
+        public long getStudentsWithGrades() { return graded; }
+        public double getAverageGPA() { return graded > 0 ? gpaSum / graded : 0.0; }
+        public long getBucketCount(int bucket) { return gpaBuckets[bucket]; }
+        public Map<Student.StudentStatus, Long> getCountByStatus() { return Collections.unmodifiableMap(byStatus); }
+    }
+
+    /**
+     * Course aggregates: active count and course count per department
+     */
+    public static class CourseSummary {
+        private long total;
+        private long active;
+        private final TreeMap<String, Long> byDepartment = new TreeMap<>();
+
+        void accept(Course course) {
+            total++;
+            if (course.isActive()) {
+                active++;
+            }
+            if (course.getDepartment() != null) {
+                byDepartment.merge(course.getDepartment(), 1L, Long::sum);
+            }
+        }
+
+        void combine(CourseSummary other) {
+            total += other.total;
+            active += other.active;
+            other.byDepartment.forEach((dept, count) -> byDepartment.merge(dept, count, Long::sum));
+        }
+
+        public long getTotal() { return total; }
+        public long getActive() { return active; }
+        public Map<String, Long> getCountByDepartment() { return Collections.unmodifiableMap(byDepartment); }
+    }
+
+    /**
+     * Enrollment aggregates: active/completed counts and grade distribution
+     */
+    public static class EnrollmentSummary {
+        private long total;
+        private long active;
+        private long completed;
+        private final EnumMap<Grade, Long> byGrade = new EnumMap<>(Grade.class);
+
+        void accept(Enrollment enrollment) {
+            total++;
+            if (enrollment.isActive()) {
+                active++;
+            }
+            Grade grade = enrollment.getGrade();
+            if (grade != null) {
+                completed++;
+                byGrade.merge(grade, 1L, Long::sum);
+            }
+        }
+
+        void combine(EnrollmentSummary other) {
+            total += other.total;
+            active += other.active;
+            completed += other.completed;
+            other.byGrade.forEach((grade, count) -> byGrade.merge(grade, count, Long::sum));
+        }
+
+        public long getTotal() { return total; }
+        public long getActive() { return active; }
+        public long getCompleted() { return completed; }
+        public Map<Grade, Long> getGradeDistribution() { return Collections.unmodifiableMap(byGrade); }
+    }
+
+    public static StudentSummary summarizeStudents(Collection<Student> students) {
+        return (students.size() >= PARALLEL_THRESHOLD ? students.parallelStream() : students.stream())
+            .collect(StudentSummary::new, StudentSummary::accept, StudentSummary::combine);
+    }
+
+    public static CourseSummary summarizeCourses(Collection<Course> courses) {
+        return (courses.size() >= PARALLEL_THRESHOLD ? courses.parallelStream() : courses.stream())
+            .collect(CourseSummary::new, CourseSummary::accept, CourseSummary::combine);
+    }
+
+    public static EnrollmentSummary summarizeEnrollments(Collection<Enrollment> enrollments) {
+        return (enrollments.size() >= PARALLEL_THRESHOLD ? enrollments.parallelStream() : enrollments.stream())
+            .collect(EnrollmentSummary::new, EnrollmentSummary::accept, EnrollmentSummary::combine);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.CourseCode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free seat counters per course
+ * A seat is reserved with a compare-and-set loop before an enrollment is
+ * created, so concurrent registrations for a popular course never take a
+ * shared lock and the course's maximum enrollment is never exceeded
+ */
+public class SeatLedger {
+
+    private final Map<CourseCode, AtomicInteger> seatsTaken = new ConcurrentHashMap<>();
+
+    /**
+     * Try to take one seat in the course
+     * @return true if a seat was reserved, false if the course is full
+     */
+    public boolean tryReserve(Course course) {
+        AtomicInteger taken = seatsTaken.computeIfAbsent(course.getCode(), k -> new AtomicInteger());
+        int max = course.getMaxEnrollment();
+
+        while (true) {
+            int current = taken.get();
+            if (current >= max) {
+                return false;
+            }
+            if (taken.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Take a seat without a capacity check, for enrollments that were
+     * already admitted (e.g. when restoring a backup)
+     */
+    public void occupy(CourseCode courseCode) {
+        seatsTaken.computeIfAbsent(courseCode, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    public void release(CourseCode courseCode) {
+        AtomicInteger taken = seatsTaken.get(courseCode);
+        if (taken != null) {
+            taken.updateAndGet(current -> Math.max(0, current - 1));
+        }
+    }
+
+    public int getSeatsTaken(CourseCode courseCode) {
+        AtomicInteger taken = seatsTaken.get(courseCode);
+        return taken != null ? taken.get() : 0;
+    }
+
+    public void clear() {
+        seatsTaken.clear();
+    }
+}
\ No newline at end of file
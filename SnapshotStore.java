@@ -0,0 +1,350 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.CourseServiceImpl;
+import edu.ccrm.service.EnrollmentServiceImpl;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.StudentServiceImpl;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshots of the complete service state, written at a write-ahead
+ * log position so startup can load the snapshot and replay only the log
+ * records after it
+ *
+ * File layout (snapshot_<lsn>.ccrms, little-endian): a 64-byte header
+ * (magic, version, lsn, created time) followed by the state encoded with
+ * BinaryCodec, which carries its own counts and checksum.
+ *
+ * Snapshots are taken while the services keep changing, so a snapshot may
+ * already contain some changes logged after its LSN. Replaying those records
+ * again is harmless because JournalReplayer applies them idempotently.
+ */
+public class SnapshotStore {
+
+    public static final String SNAPSHOT_PREFIX = "snapshot_";
+    public static final String SNAPSHOT_SUFFIX = ".ccrms";
+
+    private static final int MAGIC = 0x43435331; // "CCS1"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * Where a snapshot was written or loaded from and what it contains
+     */
+    public static class SnapshotInfo {
+        private final Path path;
+        private final long lsn;
+        private final int students;
+        private final int courses;
+        private final int enrollments;
+        private final long bytes;
+        private final long elapsedMillis;
+
+        SnapshotInfo(Path path, long lsn, int students, int courses, int enrollments,
+                     long bytes, long elapsedMillis) {
+            this.path = path;
+            this.lsn = lsn;
+            this.students = students;
+            this.courses = courses;
+            this.enrollments = enrollments;
+            this.bytes = bytes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public Path getPath() { return path; }
+        public long getLsn() { return lsn; }
+        public int getStudents() { return students; }
+        public int getCourses() { return courses; }
+        public int getEnrollments() { return enrollments; }
+        public long getBytes() { return bytes; }
+        public long getElapsedMillis() { return elapsedMillis; }
+    }
+
+    private final Path directory;
+
+    public SnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Snapshot files keyed by the LSN they were taken at
+     */
+    public NavigableMap<Long, Path> listSnapshots() throws IOException {
+        NavigableMap<Long, Path> snapshots = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)) {
+                    try {
+                        snapshots.put(Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(),
+                            name.length() - SNAPSHOT_SUFFIX.length())), path);
+                    } catch (NumberFormatException e) {
+                        // Not a snapshot
+                    }
+                }
+            });
+        }
+        return snapshots;
+    }
+
+    /**
+     * Delete all but the newest keep snapshots
+     * @return number of snapshots deleted
+     */
+    public int deleteOldSnapshots(int keep) throws IOException {
+        NavigableMap<Long, Path> snapshots = listSnapshots();
+        int deleted = 0;
+        while (snapshots.size() > Math.max(1, keep)) {
+            Files.deleteIfExists(snapshots.pollFirstEntry().getValue());
+            deleted++;
+        }
+        return deleted;
+    }
+
+    // --- Writing ---------------------------------------------------------
+
+    /**
+     * Write a snapshot of the services taken at the given log position
+     * The file is written under a temporary name and moved into place once
+     * complete, so a crash never leaves a partial snapshot behind.
+     */
+    public SnapshotInfo write(long lsn, StudentService studentService, CourseService courseService,
+                              EnrollmentServiceImpl enrollmentService) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, lsn, SNAPSHOT_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        BinaryCodec.Writer data;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putLong(lsn);
+            header.putLong(System.currentTimeMillis());
+            header.clear();
+            channel.write(header);
+
+            data = new BinaryCodec.Writer(channel);
+            data.writeAll(studentService, courseService, enrollmentService);
+            data.finish();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new SnapshotInfo(target, lsn, data.getStudentCount(), data.getCourseCount(),
+            data.getEnrollmentCount(), Files.size(target), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // --- Loading ---------------------------------------------------------
+
+    /**
+     * Load the newest readable snapshot into empty services
+     * A snapshot that fails validation is reported and the next older one
+     * is tried; nothing is loaded from a file until its checksum matches.
+     * @return the loaded snapshot, or null if there is none
+     */
+    public SnapshotInfo loadLatest(StudentServiceImpl studentService, CourseServiceImpl courseService,
+                                   EnrollmentServiceImpl enrollmentService) throws IOException {
+        for (Path snapshot : listSnapshots().descendingMap().values()) {
+            try {
+                return load(snapshot, studentService, courseService, enrollmentService);
+            } catch (IOException e) {
+                System.err.println("Skipping unreadable snapshot " + snapshot + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Load one snapshot file into empty services
+     */
+    public SnapshotInfo load(Path snapshot, StudentServiceImpl studentService, CourseServiceImpl courseService,
+                             EnrollmentServiceImpl enrollmentService) throws IOException {
+        long start = System.nanoTime();
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid snapshot size: " + size);
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a CCRM snapshot");
+        }
+        int version = buffer.getInt();
+        long lsn = buffer.getLong();
+
+        int[] counts;
+        if (version == VERSION) {
+            buffer.position(HEADER_SIZE);
+            BinaryCodec.Reader reader = new BinaryCodec.Reader(buffer);
+            reader.readInto(studentService, courseService, enrollmentService);
+            counts = new int[] {reader.getStudentCount(), reader.getCourseCount(), reader.getEnrollmentCount()};
+        } else if (version == 1) {
+            counts = loadVersion1(buffer, studentService, courseService, enrollmentService);
+        } else {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+
+        return new SnapshotInfo(snapshot, lsn, counts[0], counts[1], counts[2],
+            buffer.capacity(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // --- Version 1 -------------------------------------------------------
+
+    /*
+     * Version 1 snapshots used length-prefixed strings and fixed 22-byte
+     * enrollment rows (student index, course index, semester, epoch day,
+     * marks or NaN, active) followed by a CRC32 of the body. They are still
+     * read so that snapshots taken before the switch to BinaryCodec, and
+     * the log segments they replaced, are not lost.
+     */
+    private static final int V1_ENROLLMENT_ROW_SIZE = 4 + 4 + 1 + 4 + 8 + 1;
+
+    private static int[] loadVersion1(ByteBuffer buffer, StudentServiceImpl studentService,
+                                      CourseServiceImpl courseService,
+                                      EnrollmentServiceImpl enrollmentService) throws IOException {
+        buffer.position(24);
+        int studentCount = buffer.getInt();
+        int courseCount = buffer.getInt();
+        int enrollmentCount = buffer.getInt();
+
+        int end = buffer.limit() - 4;
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_SIZE).limit(end);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if (buffer.getInt(end) != (int) crc.getValue()) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+
+        buffer.position(HEADER_SIZE).limit(end);
+        Student[] students = new Student[studentCount];
+        Course[] courses = new Course[courseCount];
+        Enrollment[] enrollments = new Enrollment[enrollmentCount];
+        try {
+            for (int i = 0; i < studentCount; i++) {
+                students[i] = readStudentV1(buffer);
+            }
+            Map<String, Instructor> instructors = new HashMap<>();
+            for (int i = 0; i < courseCount; i++) {
+                courses[i] = readCourseV1(buffer, instructors);
+            }
+            if (end - buffer.position() != (long) enrollmentCount * V1_ENROLLMENT_ROW_SIZE) {
+                throw new IOException("Corrupt snapshot: enrollment section size mismatch");
+            }
+
+            Semester[] semesters = Semester.values();
+            for (int i = 0; i < enrollmentCount; i++) {
+                Enrollment enrollment = new Enrollment(students[buffer.getInt()], courses[buffer.getInt()],
+                    semesters[buffer.get()], LocalDate.ofEpochDay(buffer.getInt()));
+                double marks = buffer.getDouble();
+                if (!Double.isNaN(marks)) {
+                    enrollment.setMarks(marks);
+                }
+                enrollment.setActive(buffer.get() != 0);
+                enrollments[i] = enrollment;
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt snapshot: " + e, e);
+        }
+
+        for (Student student : students) {
+            studentService.create(student);
+        }
+        for (Course course : courses) {
+            courseService.create(course);
+        }
+        BinaryCodec.restoreEnrollments(enrollments, enrollmentService);
+        return new int[] {studentCount, courseCount, enrollmentCount};
+    }
+
+    private static String getStringV1(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Student readStudentV1(ByteBuffer buffer) {
+        String id = getStringV1(buffer);
+        String regNo = getStringV1(buffer);
+        Name name = new Name(getStringV1(buffer), getStringV1(buffer), getStringV1(buffer));
+        Student student = new Student(id, regNo, name, getStringV1(buffer));
+        student.setStatus(Student.StudentStatus.values()[buffer.get()]);
+        student.setActive(buffer.get() != 0);
+        return student;
+    }
+
+    private static Course readCourseV1(ByteBuffer buffer, Map<String, Instructor> instructors) {
+        CourseCode code = CourseCode.of(getStringV1(buffer));
+        String title = getStringV1(buffer);
+        String department = getStringV1(buffer);
+        int credits = buffer.get();
+        byte semester = buffer.get();
+        Course.Builder builder = new Course.Builder(code, title, credits)
+            .department(department)
+            .semester(semester >= 0 ? Semester.values()[semester] : null)
+            .maxEnrollment(buffer.getInt());
+        boolean active = buffer.get() != 0;
+        int prerequisites = buffer.getInt();
+        for (int i = 0; i < prerequisites; i++) {
+            builder.prerequisite(getStringV1(buffer));
+        }
+
+        Instructor instructor = null;
+        if (buffer.get() != 0) {
+            String id = getStringV1(buffer);
+            Name name = new Name(getStringV1(buffer), getStringV1(buffer), getStringV1(buffer));
+            Instructor read = new Instructor(id, name, getStringV1(buffer), getStringV1(buffer),
+                getStringV1(buffer));
+            // Courses taught by the same instructor share one object again
+            instructor = instructors.computeIfAbsent(id, key -> read);
+            builder.instructor(instructor);
+        }
+
+        Course course = builder.build();
+        course.setActive(active);
+        if (instructor != null) {
+            instructor.assignCourse(course);
+        }
+        return course;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,212 @@
+package edu.ccrm.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Entities kept in sort order for paged listings
+ * Each entity is filed in a skip list under its sort key, computed once
+ * when it is put (so e.g. full names are not rebuilt on every comparison),
+ * with the entity's ID breaking ties. A page is read from a cursor in
+ * O(log n + page size) without copying or sorting the collection.
+ *
+ * A view given a source is built from it on the first read instead, and
+ * ignores puts and removes until then, so bulk loads do not pay for views
+ * nobody reads. Callers must change the source before calling put/remove.
+ *
+ * Keys are not recomputed on their own: put the entity again after a change
+ * that affects its key. Thread-safe; puts and removes for one ID must not
+ * race each other (callers hold the entity's lock). Readers may see a
+ * re-keyed entity briefly under both its old and new keys.
+ */
+public final class SortedView<T, K> {
+
+    private static final class Entry<K> {
+        private final K key;
+        private final String id;
+
+        Entry(K key, String id) {
+            this.key = key;
+            this.id = id;
+        }
+    }
+
+    private final Function<? super T, String> idOf;
+    private final Function<? super T, ? extends K> keyOf;
+    private final Comparator<? super K> keyOrder;
+    private final ConcurrentSkipListMap<Entry<K>, T> rows;
+    private final Map<String, Entry<K>> entries = new ConcurrentHashMap<>();
+    private final Supplier<? extends Iterable<? extends T>> source;
+    private volatile boolean built;
+
+    public SortedView(Function<? super T, String> idOf, Function<? super T, ? extends K> keyOf,
+                      Comparator<? super K> keyOrder) {
+        this(idOf, keyOf, keyOrder, null);
+        built = true;
+    }
+
+    /**
+     * A view built from the source (the entities it should hold) on first read
+     */
+    public SortedView(Function<? super T, String> idOf, Function<? super T, ? extends K> keyOf,
+                      Comparator<? super K> keyOrder, Supplier<? extends Iterable<? extends T>> source) {
+        this.source = source;
+        this.idOf = idOf;
+        this.keyOf = keyOf;
+        this.keyOrder = keyOrder;
+        this.rows = new ConcurrentSkipListMap<>((a, b) -> {
+            int byKey = keyOrder.compare(a.key, b.key);
+            return byKey != 0 ? byKey : a.id.compareTo(b.id);
+        });
+    }
+
+    /**
+     * Add the entity, or move it to the position of its current key
+     */
+    public void put(T entity) {
+        if (!isPending()) {
+            insert(entity);
+        }
+    }
+
+    public boolean remove(String id) {
+        if (isPending()) {
+            return false;
+        }
+
+        Entry<K> entry = entries.remove(id);
+        return entry != null && rows.remove(entry) != null;
+    }
+
+    /**
+     * Remove every entity; a view with a source is rebuilt on the next read
+     */
+    public synchronized void clear() {
+        built = source == null;
+        entries.clear();
+        rows.clear();
+    }
+
+    /**
+     * Number of entities, O(1)
+     */
+    public int size() {
+        ensureBuilt();
+        return entries.size();
+    }
+
+    /**
+     * Live, sorted view of the entities (size() is O(1))
+     */
+    public Collection<T> values() {
+        ensureBuilt();
+        return new AbstractCollection<T>() {
+            @Override
+            public Iterator<T> iterator() {
+                return rows.values().iterator();
+            }
+
+            @Override
+            public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    /**
+     * The page starting after the cursor (or the first page if it is null)
+     * @throws IllegalArgumentException if the cursor came from another order
+     */
+    public Page<T> page(Page.Cursor cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        ensureBuilt();
+
+        Entry<K> at = cursor != null ? entryAt(cursor) : null;
+        NavigableMap<Entry<K>, T> range;
+        if (at == null) {
+            range = rows;
+        } else if (cursor.forward) {
+            range = rows.tailMap(at, false);
+        } else {
+            range = rows.headMap(at, false).descendingMap();
+        }
+
+        List<Entry<K>> keys = new ArrayList<>(pageSize);
+        List<T> items = new ArrayList<>(pageSize);
+        for (Map.Entry<Entry<K>, T> row : range.entrySet()) {
+            if (items.size() == pageSize) {
+                break;
+            }
+            keys.add(row.getKey());
+            items.add(row.getValue());
+        }
+        if (at != null && !cursor.forward) {
+            Collections.reverse(keys);
+            Collections.reverse(items);
+        }
+
+        if (items.isEmpty()) {
+            // Rows around the cursor were removed; offer the way back
+            Page.Cursor back = at != null && cursor.forward && rows.lowerKey(at) != null ? cursorAt(at, false) : null;
+            Page.Cursor ahead = at != null && !cursor.forward && rows.higherKey(at) != null ? cursorAt(at, true) : null;
+            return new Page<>(items, ahead, back);
+        }
+
+        Entry<K> first = keys.get(0);
+        Entry<K> last = keys.get(keys.size() - 1);
+        return new Page<>(items,
+            rows.higherKey(last) != null ? cursorAt(last, true) : null,
+            rows.lowerKey(first) != null ? cursorAt(first, false) : null);
+    }
+
+    // True while the view has not been built: changes are picked up from the
+    // source by the build. Waits for a build in progress to finish.
+    private boolean isPending() {
+        if (built) {
+            return false;
+        }
+        synchronized (this) {
+            return !built;
+        }
+    }
+
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        synchronized (this) {
+            if (!built) {
+                for (T entity : source.get()) {
+                    insert(entity);
+                }
+                built = true;
+            }
+        }
+    }
+
+    private void insert(T entity) {
+        Entry<K> entry = new Entry<>(keyOf.apply(entity), idOf.apply(entity));
+        rows.put(entry, entity);
+        Entry<K> previous = entries.put(entry.id, entry);
+        if (previous != null && rows.comparator().compare(previous, entry) != 0) {
+            rows.remove(previous);
+        }
+    }
+
+    private Page.Cursor cursorAt(Entry<K> entry, boolean forward) {
+        return new Page.Cursor(entry.key, entry.id, forward, keyOrder);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<K> entryAt(Page.Cursor cursor) {
+        if (cursor.order != keyOrder) {
+            throw new IllegalArgumentException("Cursor belongs to a different order");
+        }
+        return new Entry<>((K) cursor.key, cursor.id);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package edu.ccrm.service;
+
+/**
+ * Fixed set of monitors chosen by key hash: updates to one key are
+ * serialized while unrelated keys proceed in parallel, without a lock
+ * object per key
+ */
+class StripedLocks {
+
+    private final Object[] locks;
+
+    StripedLocks(int stripes) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two");
+        }
+        locks = new Object[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    Object lockFor(Object key) {
+        int h = key.hashCode();
+        return locks[(h ^ (h >>> 16)) & (locks.length - 1)];
+    }
+}
\ No newline at end of file
@@ -13,6 +13,10 @@ public class Student extends Person {
     private List<Enrollment> enrollmentHistory;
     private StudentStatus status;
     
+    // Running GPA aggregates over graded enrollments in the history
+    private double gradePointSum;
+    private int gradedCount;
+    
     // Static nested class for student statistics
     public static class StudentStats {
         private final int totalEnrollments;
@@ -42,12 +46,11 @@ public class Student extends Person {
             if (!canEnroll(course, semester)) {
                 throw new IllegalStateException("Cannot enroll: Credit limit exceeded");
             }
-            enrolledCourses.add(course);
-            enrollmentHistory.add(new Enrollment(Student.this, course, semester, LocalDate.now()));
+            addEnrollment(new Enrollment(Student.this, course, semester, LocalDate.now()));
         }
         
         private int getCurrentSemesterCredits(Semester semester) {
-            return enrollmentHistory.stream()
+            return getEnrollmentHistory().stream()
                 .filter(e -> e.getSemester() == semester)
                 .filter(e -> e.getGrade() == null) // Only active enrollments
                 .mapToInt(e -> e.getCourse().getCredits())
@@ -97,14 +100,59 @@ public class Student extends Person {
         this.regNo = regNo;
     }
     
-    public Set<Course> getEnrolledCourses() {
+    public synchronized Set<Course> getEnrolledCourses() {
         return new HashSet<>(enrolledCourses); // Defensive copy
     }
     
-    public List<Enrollment> getEnrollmentHistory() {
+    public synchronized List<Enrollment> getEnrollmentHistory() {
         return new ArrayList<>(enrollmentHistory); // Defensive copy
     }
     
+    /**
+     * Add an enrollment to this student's history and fold its grade
+     * (if any) into the cached GPA
+     */
+    public synchronized void addEnrollment(Enrollment enrollment) {
+        enrollmentHistory.add(enrollment);
+        enrolledCourses.add(enrollment.getCourse());
+        enrollment.setTracked(true);
+        if (enrollment.getGrade() != null) {
+            onGradeChanged(null, enrollment.getGrade());
+        }
+    }
+    
+    /**
+     * Remove an enrollment from this student's history and the cached GPA
+     */
+    public synchronized boolean removeEnrollment(Enrollment enrollment) {
+        if (!enrollmentHistory.removeIf(e -> e == enrollment)) {
+            return false;
+        }
+        
+        enrollment.setTracked(false);
+        if (enrollment.getGrade() != null) {
+            onGradeChanged(enrollment.getGrade(), null);
+        }
+        
+        Course course = enrollment.getCourse();
+        if (enrollmentHistory.stream().noneMatch(e -> e.getCourse().equals(course))) {
+            enrolledCourses.remove(course);
+        }
+        return true;
+    }
+    
+    // Called by Enrollment when the grade of a tracked enrollment changes
+    synchronized void onGradeChanged(Grade previous, Grade current) {
+        if (previous != null) {
+            gradePointSum -= previous.getGradePoints();
+            gradedCount--;
+        }
+        if (current != null) {
+            gradePointSum += current.getGradePoints();
+            gradedCount++;
+        }
+    }
+    
     public StudentStatus getStatus() {
         return status;
     }
@@ -117,8 +165,13 @@ public class Student extends Person {
         return new EnrollmentManager();
     }
     
-    // Calculate GPA using streams
-    public double calculateGPA() {
+    // GPA from the running aggregates, O(1)
+    public synchronized double calculateGPA() {
+        return gradedCount > 0 ? gradePointSum / gradedCount : 0.0;
+    }
+    
+    // Full recomputation using streams; used to verify the cached GPA
+    public synchronized double recalculateGPA() {
         return enrollmentHistory.stream()
             .filter(e -> e.getGrade() != null)
             .mapToDouble(e -> e.getGrade().getGradePoints())
@@ -126,7 +179,7 @@ public class Student extends Person {
             .orElse(0.0);
     }
     
-    public StudentStats getStatistics() {
+    public synchronized StudentStats getStatistics() {
         double gpa = calculateGPA();
         int completedCredits = enrollmentHistory.stream()
             .filter(e -> e.getGrade() != null && e.getGrade() != Grade.F)
@@ -0,0 +1,25 @@
+package edu.ccrm.util;
+
+import edu.ccrm.domain.Student;
+
+/**
+ * Query fields of a Student
+ * Text fields compare case-insensitively, e.g.
+ * StudentFields.STATUS.eq(StudentStatus.ACTIVE).and(StudentFields.GPA.ge(8.0))
+ */
+public final class StudentFields {
+
+    private StudentFields() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    public static final Query.Field<Student, String> ID = Query.Field.of("id", Student::getId);
+    public static final Query.Field<Student, String> REG_NO = Query.Field.of("regNo", Student::getRegNo);
+    public static final Query.Field<Student, String> NAME =
+        Query.Field.of("name", student -> student.getName().getFullName(), String.CASE_INSENSITIVE_ORDER);
+    public static final Query.Field<Student, String> EMAIL =
+        Query.Field.of("email", Student::getEmail, String.CASE_INSENSITIVE_ORDER);
+    public static final Query.Field<Student, Student.StudentStatus> STATUS = Query.Field.of("status", Student::getStatus);
+    public static final Query.Field<Student, Boolean> ACTIVE = Query.Field.of("active", Student::isActive);
+    public static final Query.Field<Student, Double> GPA = Query.Field.of("gpa", Student::calculateGPA);
+}
\ No newline at end of file
@@ -0,0 +1,395 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Name;
+import edu.ccrm.domain.Student;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Text search over students' names, registration numbers, emails and IDs
+ * Every field is split into lower-case tokens kept in sorted maps from
+ * token to student IDs, so a query token is matched exactly, as a prefix
+ * (a range of the sorted map) or, for name tokens, within a small edit
+ * distance. All query tokens must match; students are ranked by how well
+ * they match and the best k are returned (ties by student ID).
+ *
+ * The index is built from all students on the first search and updated
+ * incrementally from then on, so bulk loads and restores do not pay for it
+ * until it is used. Thread-safe: guarded by a read-write lock.
+ */
+public class StudentSearchIndex {
+
+    private static final int EXACT_SCORE = 100;
+    private static final int PREFIX_SCORE = 60;
+    private static final int FUZZY_SCORE = 40;
+    private static final int FUZZY_PENALTY = 10;
+
+    // Names are fuzzy-matched; registration numbers, emails and IDs are
+    // mostly unique and only matched exactly or by prefix
+    private final TreeMap<String, List<String>> nameTokens = new TreeMap<>();
+    private final TreeMap<String, List<String>> keyTokens = new TreeMap<>();
+    private final Map<String, String[][]> tokensById = new HashMap<>();
+    private final Function<String, Student> lookup;
+    private final Supplier<? extends Iterable<Student>> source;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean built;
+
+    /**
+     * @param lookup resolves a student ID to the current Student
+     * @param source all current students, read when the index is built;
+     *               changes made after that must be passed to add/remove
+     */
+    public StudentSearchIndex(Function<String, Student> lookup, Supplier<? extends Iterable<Student>> source) {
+        this.lookup = lookup;
+        this.source = source;
+    }
+
+    /**
+     * Index a student, replacing whatever was indexed for its ID (ignored
+     * until the index has been built)
+     */
+    public void add(Student student) {
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                return;
+            }
+            removeTokens(student.getId());
+            index(student);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String studentId) {
+        lock.writeLock().lock();
+        try {
+            if (built) {
+                removeTokens(studentId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the index; it is rebuilt from the source on the next search
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            built = false;
+            nameTokens.clear();
+            keyTokens.clear();
+            tokensById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The best matches for a free-text query (e.g. "jo smi", "2023cs",
+     * "alice@"), best first
+     * @param limit maximum number of results
+     */
+    public List<Student> search(String query, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Integer> scores;
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            scores = match(terms[0]);
+            for (int i = 1; i < terms.length && !scores.isEmpty(); i++) {
+                Map<String, Integer> next = match(terms[i]);
+                scores.keySet().retainAll(next.keySet());
+                scores.replaceAll((id, score) -> score + next.get(id));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return topK(scores, limit);
+    }
+
+    /**
+     * Students with any token starting with the prefix, best first
+     */
+    public List<Student> prefixSearch(String prefix, int limit) {
+        String term = normalize(prefix);
+        if (term.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Integer> scores = new HashMap<>();
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            collectPrefix(nameTokens, term, scores);
+            collectPrefix(keyTokens, term, scores);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return topK(scores, limit);
+    }
+
+    /**
+     * Students with a name token within maxEdits edits (insertions,
+     * deletions, substitutions or adjacent transpositions) of the term,
+     * closest first
+     */
+    public List<Student> fuzzySearch(String term, int maxEdits, int limit) {
+        String normalized = normalize(term);
+        Map<String, Integer> scores = new HashMap<>();
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            collectFuzzy(normalized, maxEdits, scores);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return topK(scores, limit);
+    }
+
+    public int size() {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            return tokensById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        lock.readLock().lock();
+        try {
+            if (built) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                build();
+                built = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void build() {
+        for (Student student : source.get()) {
+            index(student);
+        }
+    }
+
+    private void index(Student student) {
+        String[] names = nameTokensOf(student.getName());
+        String[] keys = keyTokensOf(student);
+        tokensById.put(student.getId(), new String[][] {names, keys});
+        for (String token : names) {
+            addId(nameTokens, token, student.getId());
+        }
+        for (String token : keys) {
+            addId(keyTokens, token, student.getId());
+        }
+    }
+
+    // Best score per student for one query token
+    private Map<String, Integer> match(String term) {
+        Map<String, Integer> scores = new HashMap<>();
+        collectPrefix(nameTokens, term, scores);
+        collectPrefix(keyTokens, term, scores);
+        if (term.length() >= 3) {
+            collectFuzzy(term, term.length() >= 6 ? 2 : 1, scores);
+        }
+        return scores;
+    }
+
+    private static void collectPrefix(NavigableMap<String, List<String>> index, String prefix,
+                                      Map<String, Integer> scores) {
+        for (Map.Entry<String, List<String>> entry : index.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+            int score = entry.getKey().length() == prefix.length() ? EXACT_SCORE : PREFIX_SCORE;
+            for (String id : entry.getValue()) {
+                scores.merge(id, score, Math::max);
+            }
+        }
+    }
+
+    private void collectFuzzy(String term, int maxEdits, Map<String, Integer> scores) {
+        for (Map.Entry<String, List<String>> entry : nameTokens.entrySet()) {
+            String token = entry.getKey();
+            if (Math.abs(token.length() - term.length()) > maxEdits) {
+                continue;
+            }
+            int distance = editDistance(term, token, maxEdits);
+            if (distance > 0 && distance <= maxEdits) {
+                int score = FUZZY_SCORE - FUZZY_PENALTY * distance;
+                for (String id : entry.getValue()) {
+                    scores.merge(id, score, Math::max);
+                }
+            }
+        }
+    }
+
+    /**
+     * Edit distance counting insertions, deletions, substitutions and
+     * transpositions of adjacent characters ("jonh" is one edit from
+     * "john"), or maxEdits + 1 as soon as it is known to exceed maxEdits
+     */
+    static int editDistance(String a, String b, int maxEdits) {
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, beforePrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMin = Math.min(rowMin, distance);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    // Highest score first, ties by student ID; a bounded heap holds the
+    // k best seen so far, worst on top
+    private List<Student> topK(Map<String, Integer> scores, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        Comparator<Map.Entry<String, Integer>> worseFirst = Map.Entry.<String, Integer>comparingByValue()
+            .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<String, Integer>> heap = new PriorityQueue<>(worseFirst);
+        for (Map.Entry<String, Integer> score : scores.entrySet()) {
+            if (heap.size() < limit) {
+                heap.add(score);
+            } else if (worseFirst.compare(score, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(score);
+            }
+        }
+
+        List<Student> results = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            Student student = lookup.apply(heap.poll().getKey());
+            if (student != null) {
+                results.add(student);
+            }
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    private void removeTokens(String studentId) {
+        String[][] tokens = tokensById.remove(studentId);
+        if (tokens != null) {
+            for (String token : tokens[0]) {
+                removeId(nameTokens, token, studentId);
+            }
+            for (String token : tokens[1]) {
+                removeId(keyTokens, token, studentId);
+            }
+        }
+    }
+
+    // A student's old tokens are always removed before it is re-indexed, so
+    // an ID is never added twice and plain lists suffice. Tokens held by a
+    // single student (the common case for registration numbers and emails)
+    // use a singleton list.
+    private static void addId(Map<String, List<String>> index, String token, String id) {
+        List<String> ids = index.get(token);
+        if (ids == null) {
+            index.put(token, Collections.singletonList(id));
+        } else {
+            if (ids.size() == 1) {
+                ids = new ArrayList<>(ids);
+                index.put(token, ids);
+            }
+            ids.add(id);
+        }
+    }
+
+    private static void removeId(Map<String, List<String>> index, String token, String id) {
+        List<String> ids = index.get(token);
+        if (ids == null) {
+            return;
+        }
+        if (ids.size() == 1) {
+            if (ids.get(0).equals(id)) {
+                index.remove(token);
+            }
+        } else {
+            ids.remove(id);
+        }
+    }
+
+    private static String[] nameTokensOf(Name name) {
+        return tokenize(name.getFirstName() + " " + name.getMiddleName() + " " + name.getLastName());
+    }
+
+    private static String[] keyTokensOf(Student student) {
+        List<String> tokens = new ArrayList<>(6);
+        tokens.add(normalize(student.getId()));
+        tokens.add(normalize(student.getRegNo()));
+        String email = normalize(student.getEmail());
+        if (!email.isEmpty()) {
+            tokens.add(email);
+            // The local part's pieces, e.g. "alice" and "smith" in "alice.smith@uni.edu"
+            int at = email.indexOf('@');
+            tokens.addAll(Arrays.asList(tokenize(at >= 0 ? email.substring(0, at) : email)));
+        }
+        return tokens.stream().filter(token -> !token.isEmpty()).distinct().toArray(String[]::new);
+    }
+
+    // Runs of letters, digits and '@', without duplicates
+    private static String[] tokenize(String text) {
+        String normalized = normalize(text);
+        List<String> tokens = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean tokenChar = i < normalized.length()
+                && (Character.isLetterOrDigit(normalized.charAt(i)) || normalized.charAt(i) == '@');
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                String token = normalized.substring(start, i);
+                if (!tokens.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static String normalize(String text) {
+        return text != null ? text.trim().toLowerCase(Locale.ROOT) : "";
+    }
+}
\ No newline at end of file
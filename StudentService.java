@@ -1,8 +1,12 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.Student;
+import edu.ccrm.util.TopK;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * Interface for Student service operations
@@ -16,6 +20,56 @@ public interface StudentService extends CRUDService<Student, String> {
     List<Student> findActiveStudents();
     List<Student> search(Predicate<Student> criteria);
     
+    /**
+     * Students matching free text (partial name, RegNo prefix, email), best
+     * first. This default scans for substring matches; indexed
+     * implementations also rank and tolerate typos.
+     */
+    default List<Student> searchByText(String query, int limit) {
+        String text = query.trim().toLowerCase(Locale.ROOT);
+        return search(student -> student.getName().getFullName().toLowerCase(Locale.ROOT).contains(text)
+                || student.getRegNo().toLowerCase(Locale.ROOT).startsWith(text)
+                || (student.getEmail() != null && student.getEmail().toLowerCase(Locale.ROOT).contains(text)))
+            .stream()
+            .limit(limit)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * One page of active students in the given order, after the cursor
+     * (null for the first page). This default sorts a copy of the active
+     * students on every call; implementations keep sorted views for the
+     * ComparatorUtils orders.
+     */
+    default Page<Student> listActiveStudents(Comparator<Student> order, Page.Cursor cursor, int pageSize) {
+        SortedView<Student, Student> view = new SortedView<>(Student::getId, student -> student, order);
+        findActiveStudents().forEach(view::put);
+        return view.page(cursor, pageSize);
+    }
+    
+    /**
+     * The k first active students in the given order (e.g. the k highest
+     * GPAs for ComparatorUtils.BY_GPA), ties by ID. This default keeps a
+     * bounded heap over one pass; implementations answer the orders they
+     * keep sorted from their views.
+     */
+    default List<Student> topActiveStudents(Comparator<Student> order, int k) {
+        TopK<Student> top = new TopK<>(k, order.thenComparing(Student::getId));
+        forEachEntity(student -> {
+            if (student.isActive()) {
+                top.accept(student);
+            }
+        });
+        return top.toList();
+    }
+    
+    /**
+     * Called after grades are recorded for the student (or graded
+     * enrollments are added or removed), so GPA orders can be updated
+     */
+    default void onGradesChanged(Student student) {
+    }
+    
     // Default method demonstrating diamond problem resolution
     @Override
     default boolean exists(String id) {
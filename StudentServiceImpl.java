@@ -1,19 +1,60 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.*;
+import edu.ccrm.util.ComparatorUtils;
+import edu.ccrm.util.Query;
+import edu.ccrm.util.StudentFields;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Implementation of StudentService
  * Demonstrates polymorphism, streams, and functional programming
+ * Thread-safe: backed by concurrent maps with atomic ID/RegNo reservation
  */
 public class StudentServiceImpl implements StudentService {
     
     // In-memory storage (in real application, this would be a database)
-    private final Map<String, Student> students = new HashMap<>();
-    private final Map<String, Student> studentsByRegNo = new HashMap<>();
+    private final Map<String, Student> students = new ConcurrentHashMap<>();
+    private final Map<String, Student> studentsByRegNo = new ConcurrentHashMap<>();
+    // RegNo each student ID is indexed under; a student changed in place
+    // with setRegNo still has to be removed from its old RegNo on update
+    private final Map<String, String> indexedRegNos = new ConcurrentHashMap<>();
+    private final StripedLocks locks = new StripedLocks(64);
+    private final StudentSearchIndex searchIndex = new StudentSearchIndex(students::get, students::values);
+    private final QueryPlanner<Student> planner =
+        new QueryPlanner<Student>("students", students.values()::forEach, students::size)
+            .uniqueIndex("students by id", StudentFields.ID, students::get)
+            .uniqueIndex("students by RegNo", StudentFields.REG_NO, studentsByRegNo::get);
+    
+    // Active students in each ComparatorUtils listing order, for paging;
+    // each is built on its first read
+    private final SortedView<Student, String> activeByName =
+        new SortedView<>(Student::getId, student -> student.getName().getFullName(), String::compareTo, this::activeStudents);
+    private final SortedView<Student, String> activeByRegNo =
+        new SortedView<>(Student::getId, Student::getRegNo, String::compareTo, this::activeStudents);
+    private final SortedView<Student, Double> activeByGpa =
+        new SortedView<>(Student::getId, Student::calculateGPA, Comparator.reverseOrder(), this::activeStudents);
+    private final Map<Comparator<Student>, SortedView<Student, ?>> activeViews = Map.of(
+        ComparatorUtils.BY_NAME, activeByName,
+        ComparatorUtils.BY_REG_NO, activeByRegNo,
+        ComparatorUtils.BY_GPA, activeByGpa);
+    // Students whose GPA changed since they were last placed in activeByGpa
+    private final Set<String> gpaStale = ConcurrentHashMap.newKeySet();
+    private volatile MutationJournal journal = MutationJournal.NONE;
+    
+    /**
+     * Record every successful mutation in the given journal (e.g. a
+     * write-ahead log). Each change is applied and then journaled under the
+     * student's lock, so the journal sees one student's changes in applied
+     * order and never records a change before it is visible.
+     */
+    public void setJournal(MutationJournal journal) {
+        this.journal = journal != null ? journal : MutationJournal.NONE;
+    }
     
     @Override
     public Student create(Student student) {
@@ -22,16 +63,24 @@ public class StudentServiceImpl implements StudentService {
         assert student.getId() != null : "Student ID cannot be null";
         assert student.getRegNo() != null : "Student registration number cannot be null";
         
-        if (students.containsKey(student.getId())) {
-            throw new IllegalArgumentException("Student with ID " + student.getId() + " already exists");
-        }
-        
-        if (studentsByRegNo.containsKey(student.getRegNo())) {
-            throw new IllegalArgumentException("Student with RegNo " + student.getRegNo() + " already exists");
+        synchronized (locks.lockFor(student.getId())) {
+            // Reserve the RegNo first, then the ID, rolling back on conflict so
+            // two concurrent creates can never both succeed
+            if (studentsByRegNo.putIfAbsent(student.getRegNo(), student) != null) {
+                throw new IllegalArgumentException("Student with RegNo " + student.getRegNo() + " already exists");
+            }
+            
+            if (students.putIfAbsent(student.getId(), student) != null) {
+                studentsByRegNo.remove(student.getRegNo(), student);
+                throw new IllegalArgumentException("Student with ID " + student.getId() + " already exists");
+            }
+            indexedRegNos.put(student.getId(), student.getRegNo());
+            searchIndex.add(student);
+            reindexViews(student);
+            journal.studentCreated(student);
         }
         
-        students.put(student.getId(), student);
-        studentsByRegNo.put(student.getRegNo(), student);
+        journal.sync();
         return student;
     }
     
@@ -45,25 +94,56 @@ public class StudentServiceImpl implements StudentService {
         return new ArrayList<>(students.values());
     }
     
+    @Override
+    public void forEachEntity(Consumer<? super Student> action) {
+        students.values().forEach(action);
+    }
+    
     @Override
     public Student update(Student student) {
-        if (!students.containsKey(student.getId())) {
-            throw new IllegalArgumentException("Student not found: " + student.getId());
+        synchronized (locks.lockFor(student.getId())) {
+            Student previous = students.get(student.getId());
+            if (previous == null) {
+                throw new IllegalArgumentException("Student not found: " + student.getId());
+            }
+            
+            // Reserve the new RegNo before giving up the old one
+            String regNo = student.getRegNo();
+            Student owner = studentsByRegNo.putIfAbsent(regNo, student);
+            if (owner != null && !owner.getId().equals(student.getId())) {
+                throw new IllegalArgumentException("Student with RegNo " + regNo + " already exists");
+            }
+            students.replace(student.getId(), student);
+            studentsByRegNo.put(regNo, student);
+            String oldRegNo = indexedRegNos.put(student.getId(), regNo);
+            if (oldRegNo != null && !oldRegNo.equals(regNo)) {
+                studentsByRegNo.remove(oldRegNo, previous);
+            }
+            searchIndex.add(student);
+            reindexViews(student);
+            journal.studentUpdated(student);
         }
         
-        students.put(student.getId(), student);
-        studentsByRegNo.put(student.getRegNo(), student);
+        journal.sync();
         return student;
     }
     
     @Override
     public boolean delete(String id) {
-        Student student = students.remove(id);
-        if (student != null) {
-            studentsByRegNo.remove(student.getRegNo());
-            return true;
+        synchronized (locks.lockFor(id)) {
+            Student student = students.remove(id);
+            if (student == null) {
+                return false;
+            }
+            
+            studentsByRegNo.remove(indexedRegNos.remove(id), student);
+            searchIndex.remove(id);
+            activeViews.values().forEach(view -> view.remove(id));
+            journal.studentDeleted(id);
         }
-        return false;
+        
+        journal.sync();
+        return true;
     }
     
     @Override
@@ -81,11 +161,36 @@ public class StudentServiceImpl implements StudentService {
     
     @Override
     public List<Student> findActiveStudents() {
-        // Lambda expression demonstrating functional programming
-        return students.values().stream()
-            .filter(Student::isActive)
-            .sorted((s1, s2) -> s1.getName().getFullName().compareTo(s2.getName().getFullName()))
-            .collect(Collectors.toList());
+        // Already sorted by name
+        return new ArrayList<>(activeByName.values());
+    }
+    
+    @Override
+    public Page<Student> listActiveStudents(Comparator<Student> order, Page.Cursor cursor, int pageSize) {
+        SortedView<Student, ?> view = activeViews.get(order);
+        if (view == null) {
+            return StudentService.super.listActiveStudents(order, cursor, pageSize);
+        }
+        if (view == activeByGpa) {
+            refreshGpaOrder();
+        }
+        return view.page(cursor, pageSize);
+    }
+    
+    @Override
+    public List<Student> topActiveStudents(Comparator<Student> order, int k) {
+        if (k <= 0 || !activeViews.containsKey(order)) {
+            return StudentService.super.topActiveStudents(order, k);
+        }
+        // The first page of a maintained order, O(log n + k)
+        return new ArrayList<>(listActiveStudents(order, null, k).getItems());
+    }
+    
+    @Override
+    public void onGradesChanged(Student student) {
+        // Re-sorted on the next GPA-ordered read, so bulk grading and
+        // restores do not move the student once per grade
+        gpaStale.add(student.getId());
     }
     
     @Override
@@ -95,6 +200,30 @@ public class StudentServiceImpl implements StudentService {
             .collect(Collectors.toList());
     }
     
+    @Override
+    public QueryPlanner.Plan<Student> plan(Query<Student> query) {
+        return planner.plan(query);
+    }
+    
+    @Override
+    public List<Student> searchByText(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+    
+    /**
+     * Students with a name token within maxEdits typos of the term
+     */
+    public List<Student> fuzzySearch(String term, int maxEdits, int limit) {
+        return searchIndex.fuzzySearch(term, maxEdits, limit);
+    }
+    
+    /**
+     * Students with a name, RegNo, email or ID token starting with the prefix
+     */
+    public List<Student> prefixSearch(String prefix, int limit) {
+        return searchIndex.prefixSearch(prefix, limit);
+    }
+    
     @Override
     public void generateStudentReport(String studentId) {
         Student student = findById(studentId);
@@ -144,4 +273,45 @@ public class StudentServiceImpl implements StudentService {
             }
         }
     }
+    
+    // Move the student to its current keys in the sorted views, or out of
+    // them if inactive; caller holds the student's lock
+    private void reindexViews(Student student) {
+        for (SortedView<Student, ?> view : activeViews.values()) {
+            if (student.isActive()) {
+                view.put(student);
+            } else {
+                view.remove(student.getId());
+            }
+        }
+    }
+    
+    private List<Student> activeStudents() {
+        return search(Student::isActive);
+    }
+    
+    private void refreshGpaOrder() {
+        for (Iterator<String> stale = gpaStale.iterator(); stale.hasNext(); ) {
+            String id = stale.next();
+            stale.remove(); // Before reading the GPA, so a later change marks it again
+            synchronized (locks.lockFor(id)) {
+                Student student = students.get(id);
+                if (student != null && student.isActive()) {
+                    activeByGpa.put(student);
+                }
+            }
+        }
+    }
+    
+    // Remove all students (used before restoring a backup)
+    public void clearAllStudents() {
+        students.clear();
+        studentsByRegNo.clear();
+        indexedRegNos.clear();
+        searchIndex.clear();
+        activeViews.values().forEach(SortedView::clear);
+        gpaStale.clear();
+        journal.studentsCleared();
+        journal.sync();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package edu.ccrm.util;
+
+import java.util.*;
+import java.util.stream.Collector;
+
+/**
+ * The k best elements under an order (best first), kept in a bounded heap
+ * Offering n elements costs O(n log k) time and O(k) space instead of
+ * sorting all n. Give a total order (e.g. ending with an ID comparison)
+ * so ties are resolved the same way every time.
+ * Not thread-safe; collector() merges per-thread results with combine().
+ */
+public final class TopK<T> {
+
+    private final int k;
+    private final Comparator<? super T> order;
+    // The worst of the kept elements is at the head
+    private final PriorityQueue<T> heap;
+
+    public TopK(int k, Comparator<? super T> order) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        this.k = k;
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(k, 1024)), order.reversed());
+    }
+
+    /**
+     * Collects the k best stream elements into a list, best first
+     */
+    public static <T> Collector<T, ?, List<T>> collector(int k, Comparator<? super T> order) {
+        return Collector.of(() -> new TopK<T>(k, order), TopK::accept, TopK::combine, TopK::toList);
+    }
+
+    public void accept(T element) {
+        if (heap.size() < k) {
+            heap.add(element);
+        } else if (k > 0 && order.compare(element, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(element);
+        }
+    }
+
+    public TopK<T> combine(TopK<T> other) {
+        other.heap.forEach(this::accept);
+        return this;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * The kept elements, best first
+     */
+    public List<T> toList() {
+        List<T> best = new ArrayList<>(heap);
+        best.sort(order);
+        return best;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,815 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.MutationJournal;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of service mutations
+ *
+ * Each mutation is one binary record:
+ *   [int length][byte type][long lsn][payload][int crc32]
+ * where length covers type, lsn and payload, and the CRC covers the same
+ * bytes. Records are encoded straight into an in-memory buffer by the
+ * mutating thread; a single writer thread swaps buffers and writes each
+ * batch with one write and at most one fsync (group commit), so concurrent
+ * mutations share the cost of a sync.
+ *
+ * The log is a directory of segment files named after the LSN of their
+ * first record (wal_<lsn>.log). rotate() closes the current segment so a
+ * checkpoint can snapshot the state up to that LSN; segments wholly covered
+ * by a snapshot are then deleted with deleteSegmentsUpTo().
+ *
+ * On open the segments are replayed in order and a torn or corrupt tail of
+ * the last segment (from a crash mid-write) is truncated, so appends always
+ * follow the last valid record. Damage anywhere else is reported as an error
+ * because later segments would no longer follow on.
+ */
+public class WriteAheadLog implements MutationJournal, Closeable {
+
+    /**
+     * When appended records are forced to stable storage
+     */
+    public enum SyncPolicy {
+        /** sync() waits for fsync; concurrent commits share one fsync */
+        ALWAYS,
+        /** fsync once per sync interval while written records are unforced; sync() does not wait */
+        BATCHED,
+        /** write to the OS only; fsync on close */
+        NEVER
+    }
+
+    private static final byte STUDENT_CREATED = 1;
+    private static final byte STUDENT_UPDATED = 2;
+    private static final byte STUDENT_DELETED = 3;
+    private static final byte STUDENTS_CLEARED = 4;
+    private static final byte COURSE_CREATED = 5;
+    private static final byte COURSE_UPDATED = 6;
+    private static final byte COURSE_DELETED = 7;
+    private static final byte COURSES_CLEARED = 8;
+    private static final byte ENROLLED = 9;
+    private static final byte UNENROLLED = 10;
+    private static final byte GRADE_RECORDED = 11;
+    private static final byte ENROLLMENTS_CLEARED = 12;
+
+    private static final int RECORD_OVERHEAD = 4 + 1 + 8 + 4;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final int INITIAL_BUFFER_SIZE = 1 << 20;
+    private static final int FLUSH_THRESHOLD = 4 << 20;     // Wake the writer early
+    private static final int MAX_PENDING_BYTES = 64 << 20;  // Back-pressure on appenders
+
+    public static final String SEGMENT_PREFIX = "wal_";
+    public static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private FileChannel channel;          // Owned by the writer thread once started
+    private volatile long segmentStart;   // First LSN of the current segment
+    private final SyncPolicy syncPolicy;
+    private final long syncIntervalMillis;
+    private final Thread writer;
+
+    // Guarded by lock
+    private final Object lock = new Object();
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer flushing = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private long lastLsn;
+    private long writtenLsn;              // Handed to the OS, possibly not yet forced
+    private long durableLsn;              // Forced to stable storage
+    private boolean closed;
+    private IOException failure;
+    private long rotationsRequested;
+    private long rotationsDone;
+    private long rotatedLsn;
+
+    private final CRC32 crc = new CRC32();
+    private long recordsReplayed;
+
+    private WriteAheadLog(Path directory, FileChannel channel, long segmentStart, SyncPolicy syncPolicy,
+                          long syncIntervalMillis, long lastLsn) {
+        this.directory = directory;
+        this.channel = channel;
+        this.segmentStart = segmentStart;
+        this.syncPolicy = syncPolicy;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.lastLsn = lastLsn;
+        this.writtenLsn = lastLsn;
+        this.durableLsn = lastLsn;
+        this.writer = new Thread(this::writeLoop, "ccrm-wal-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Open (or create) a log directory, replay its records into target, then
+     * start accepting appends
+     * @param afterLsn records up to and including this LSN are already
+     *                 reflected in the state (e.g. loaded from a snapshot)
+     *                 and are skipped; 0 replays everything
+     * @param target receives every valid record after afterLsn in log order;
+     *               typically a JournalReplayer over services with no
+     *               journal attached
+     */
+    public static WriteAheadLog open(Path directory, SyncPolicy syncPolicy, long syncIntervalMillis,
+                                     long afterLsn, MutationJournal target) throws IOException {
+        Files.createDirectories(directory);
+        NavigableMap<Long, Path> segments = listSegments(directory);
+        if (!segments.isEmpty() && segments.firstKey() > afterLsn + 1) {
+            System.err.println("Write-ahead log: records " + (afterLsn + 1) + " to " + (segments.firstKey() - 1) +
+                               " are missing from " + directory + " (compacted into an unavailable snapshot?)");
+        }
+
+        // Appends continue in the last segment, or in a new one after afterLsn
+        long start = segments.isEmpty() ? afterLsn + 1 : segments.lastKey();
+        long lastLsn = afterLsn;
+        long replayed = 0;
+        for (Map.Entry<Long, Path> segment : segments.headMap(start, false).entrySet()) {
+            try (FileChannel readChannel = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                LogReader reader = new LogReader(readChannel, afterLsn, target);
+                reader.readAll();
+                if (reader.validEnd < readChannel.size()) {
+                    throw new IOException("Write-ahead log segment " + segment.getValue() +
+                                          " is corrupt at offset " + reader.validEnd);
+                }
+                lastLsn = Math.max(lastLsn, reader.lastLsn);
+                replayed += reader.records;
+            }
+        }
+
+        Path file = segmentPath(directory, start);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            LogReader reader = new LogReader(channel, afterLsn, target);
+            reader.readAll();
+            if (reader.validEnd < channel.size()) {
+                System.err.println("Write-ahead log: discarding " + (channel.size() - reader.validEnd) +
+                                   " bytes of incomplete records at the end of " + file);
+                channel.truncate(reader.validEnd);
+            }
+            channel.position(reader.validEnd);
+            lastLsn = Math.max(Math.max(lastLsn, reader.lastLsn), start - 1);
+            replayed += reader.records;
+
+            WriteAheadLog log = new WriteAheadLog(directory, channel, start, syncPolicy, syncIntervalMillis, lastLsn);
+            log.recordsReplayed = replayed;
+            log.writer.start();
+            return log;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static Path segmentPath(Path directory, long startLsn) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, startLsn, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Segment files in the directory keyed by their first LSN
+     */
+    static NavigableMap<Long, Path> listSegments(Path directory) throws IOException {
+        NavigableMap<Long, Path> segments = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())), path);
+                    } catch (NumberFormatException e) {
+                        // Not a segment
+                    }
+                }
+            });
+        }
+        return segments;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Records applied to the replay target when the log was opened
+     */
+    public long getRecordsReplayed() {
+        return recordsReplayed;
+    }
+
+    public long getLastLsn() {
+        synchronized (lock) {
+            return lastLsn;
+        }
+    }
+
+    /**
+     * LSN of the last record written to the segment file; with BATCHED or
+     * NEVER it may not be forced yet
+     */
+    public long getWrittenLsn() {
+        synchronized (lock) {
+            return writtenLsn;
+        }
+    }
+
+    /**
+     * LSN of the last record forced to stable storage
+     */
+    public long getDurableLsn() {
+        synchronized (lock) {
+            return durableLsn;
+        }
+    }
+
+    // --- Appending -------------------------------------------------------
+
+    @FunctionalInterface
+    private interface PayloadWriter {
+        void write(ByteBuffer buffer);
+    }
+
+    private void append(byte type, int payloadEstimate, PayloadWriter payload) {
+        synchronized (lock) {
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log failed", failure);
+            }
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            while (pending.position() > MAX_PENDING_BYTES && failure == null) {
+                awaitQuietly();
+            }
+
+            ensureCapacity(RECORD_OVERHEAD + payloadEstimate);
+            int start = pending.position();
+            long lsn = lastLsn + 1;
+
+            try {
+                pending.putInt(0); // Length, patched below
+                pending.put(type);
+                pending.putLong(lsn);
+                payload.write(pending);
+            } catch (RuntimeException e) {
+                pending.position(start); // Never leave a partial record behind
+                throw e;
+            }
+
+            int length = pending.position() - start - 4;
+            pending.putInt(start, length);
+            crc.reset();
+            crc.update(pending.array(), start + 4, length);
+            pending.putInt((int) crc.getValue());
+
+            lastLsn = lsn;
+            if (syncPolicy == SyncPolicy.ALWAYS || pending.position() >= FLUSH_THRESHOLD) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Write-ahead log record too large: " + needed + " bytes");
+        }
+        if (pending.remaining() < needed) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + needed));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+    }
+
+    @Override
+    public void sync() {
+        if (syncPolicy != SyncPolicy.ALWAYS) {
+            return;
+        }
+        synchronized (lock) {
+            long target = lastLsn;
+            lock.notifyAll();
+            while (durableLsn < target && failure == null && !closed) {
+                awaitQuietly();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log failed", failure);
+            }
+        }
+    }
+
+    // Caller holds lock
+    private void awaitQuietly() {
+        try {
+            lock.wait(syncIntervalMillis > 0 ? syncIntervalMillis : 10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the write-ahead log", e);
+        }
+    }
+
+    /**
+     * Close the current segment and continue in a new one
+     * Returns the LSN of the last record in the closed segments: every
+     * record up to it is written and forced, and every later record will be
+     * in the new segment.
+     */
+    public long rotate() throws IOException {
+        synchronized (lock) {
+            long requested = ++rotationsRequested;
+            lock.notifyAll();
+            while (rotationsDone < requested && failure == null && !closed) {
+                awaitQuietly();
+            }
+            if (failure != null) {
+                throw new IOException("Write-ahead log failed", failure);
+            }
+            if (rotationsDone < requested) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            return rotatedLsn;
+        }
+    }
+
+    /**
+     * Delete closed segments whose records all have an LSN of at most lsn,
+     * i.e. are covered by a snapshot taken at that LSN
+     * @return number of segments deleted
+     */
+    public int deleteSegmentsUpTo(long lsn) throws IOException {
+        NavigableMap<Long, Path> segments = listSegments(directory);
+        long current = segmentStart;
+        int deleted = 0;
+
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            Long next = segments.higherKey(segment.getKey());
+            if (next == null || segment.getKey() >= current || next - 1 > lsn) {
+                break;
+            }
+            Files.deleteIfExists(segment.getValue());
+            deleted++;
+        }
+        return deleted;
+    }
+
+    // --- Writer thread ---------------------------------------------------
+
+    private void writeLoop() {
+        long lastForce = System.nanoTime();
+        long intervalNanos = syncIntervalMillis * 1_000_000;
+
+        while (true) {
+            long batchLsn;
+            boolean closing;
+            long rotation;
+            synchronized (lock) {
+                if (pending.position() == 0 && !closed && rotationsDone == rotationsRequested) {
+                    try {
+                        lock.wait(idleWaitMillis(lastForce, intervalNanos));
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                rotation = rotationsRequested;
+                // BATCHED: records written earlier are due their fsync even if nothing new arrived
+                boolean forceDue = syncPolicy == SyncPolicy.BATCHED && writtenLsn > durableLsn
+                    && System.nanoTime() - lastForce >= intervalNanos;
+                if (pending.position() == 0 && (closed || rotationsDone == rotation) && !forceDue) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+
+                ByteBuffer full = pending;
+                pending = flushing;
+                flushing = full;
+                batchLsn = lastLsn;
+                closing = closed;
+                lock.notifyAll(); // Appenders blocked on back-pressure
+            }
+
+            boolean forced = false;
+            try {
+                flushing.flip();
+                while (flushing.hasRemaining()) {
+                    channel.write(flushing);
+                }
+                flushing.clear();
+
+                long now = System.nanoTime();
+                if (syncPolicy == SyncPolicy.ALWAYS || closing
+                        || (syncPolicy == SyncPolicy.BATCHED && now - lastForce >= intervalNanos)) {
+                    channel.force(false);
+                    lastForce = now;
+                    forced = true;
+                }
+                if (rotation > rotationsDone) {
+                    startSegment(batchLsn + 1); // Forces the finished segment
+                    forced = true;
+                }
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                System.err.println("Write-ahead log write failed: " + e.getMessage());
+                return;
+            }
+
+            synchronized (lock) {
+                writtenLsn = batchLsn;
+                if (forced) {
+                    durableLsn = batchLsn;
+                }
+                if (rotation > rotationsDone) {
+                    rotationsDone = rotation;
+                    rotatedLsn = batchLsn;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // Writer thread, holding lock: how long to wait for appends before looking again
+    private long idleWaitMillis(long lastForce, long intervalNanos) {
+        if (syncPolicy == SyncPolicy.ALWAYS) {
+            return 0; // Until an append
+        }
+        if (syncPolicy == SyncPolicy.BATCHED && writtenLsn > durableLsn) {
+            // Wake when the unforced records are due their fsync
+            long remaining = lastForce + intervalNanos - System.nanoTime();
+            return Math.max(1, (remaining + 999_999) / 1_000_000);
+        }
+        return Math.max(1, syncIntervalMillis); // Flush pending records once per interval
+    }
+
+    // Writer thread only: finish the current segment and switch to a new one
+    private void startSegment(long start) throws IOException {
+        if (start == segmentStart) {
+            return; // Current segment is still empty
+        }
+        channel.force(true);
+        FileChannel next = FileChannel.open(segmentPath(directory, start), StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.close();
+        channel = next;
+        segmentStart = start;
+    }
+
+    /**
+     * Flush and fsync everything appended so far, then stop the writer
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (failure == null) {
+                channel.force(true);
+                synchronized (lock) {
+                    durableLsn = writtenLsn;
+                }
+            }
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // --- Record encoding -------------------------------------------------
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    // Upper bound on the encoded size of a string
+    private static int sizeOf(String value) {
+        return 4 + (value != null ? value.length() * 3 : 0);
+    }
+
+    private static void putSemester(ByteBuffer buffer, Semester semester) {
+        buffer.put((byte) (semester != null ? semester.ordinal() : -1));
+    }
+
+    @Override
+    public void studentCreated(Student student) {
+        appendStudent(STUDENT_CREATED, student);
+    }
+
+    @Override
+    public void studentUpdated(Student student) {
+        appendStudent(STUDENT_UPDATED, student);
+    }
+
+    private void appendStudent(byte type, Student student) {
+        Name name = student.getName();
+        int estimate = sizeOf(student.getId()) + sizeOf(student.getRegNo()) + sizeOf(name.getFirstName())
+            + sizeOf(name.getMiddleName()) + sizeOf(name.getLastName()) + sizeOf(student.getEmail()) + 2;
+        append(type, estimate, buffer -> {
+            putString(buffer, student.getId());
+            putString(buffer, student.getRegNo());
+            putString(buffer, name.getFirstName());
+            putString(buffer, name.getMiddleName());
+            putString(buffer, name.getLastName());
+            putString(buffer, student.getEmail());
+            buffer.put((byte) student.getStatus().ordinal());
+            buffer.put((byte) (student.isActive() ? 1 : 0));
+        });
+    }
+
+    @Override
+    public void studentDeleted(String studentId) {
+        append(STUDENT_DELETED, sizeOf(studentId), buffer -> putString(buffer, studentId));
+    }
+
+    @Override
+    public void studentsCleared() {
+        append(STUDENTS_CLEARED, 0, buffer -> { });
+    }
+
+    @Override
+    public void courseCreated(Course course) {
+        appendCourse(COURSE_CREATED, course);
+    }
+
+    @Override
+    public void courseUpdated(Course course) {
+        appendCourse(COURSE_UPDATED, course);
+    }
+
+    private void appendCourse(byte type, Course course) {
+        int estimate = sizeOf(course.getCode().getCode()) + sizeOf(course.getTitle())
+            + sizeOf(course.getDepartment()) + 1 + 1 + 4 + 1 + 4;
+        for (String prerequisite : course.getPrerequisites()) {
+            estimate += sizeOf(prerequisite);
+        }
+        Instructor instructor = course.getInstructor();
+        estimate += 1;
+        if (instructor != null) {
+            Name name = instructor.getName();
+            estimate += sizeOf(instructor.getId()) + sizeOf(name.getFirstName()) + sizeOf(name.getMiddleName())
+                + sizeOf(name.getLastName()) + sizeOf(instructor.getEmail()) + sizeOf(instructor.getDepartment())
+                + sizeOf(instructor.getDesignation());
+        }
+        append(type, estimate, buffer -> {
+            putString(buffer, course.getCode().getCode());
+            putString(buffer, course.getTitle());
+            putString(buffer, course.getDepartment());
+            buffer.put((byte) course.getCredits());
+            putSemester(buffer, course.getSemester());
+            buffer.putInt(course.getMaxEnrollment());
+            buffer.put((byte) (course.isActive() ? 1 : 0));
+            buffer.putInt(course.getPrerequisites().size());
+            for (String prerequisite : course.getPrerequisites()) {
+                putString(buffer, prerequisite);
+            }
+            buffer.put((byte) (instructor != null ? 1 : 0));
+            if (instructor != null) {
+                putString(buffer, instructor.getId());
+                putString(buffer, instructor.getName().getFirstName());
+                putString(buffer, instructor.getName().getMiddleName());
+                putString(buffer, instructor.getName().getLastName());
+                putString(buffer, instructor.getEmail());
+                putString(buffer, instructor.getDepartment());
+                putString(buffer, instructor.getDesignation());
+            }
+        });
+    }
+
+    @Override
+    public void courseDeleted(CourseCode courseCode) {
+        append(COURSE_DELETED, sizeOf(courseCode.getCode()), buffer -> putString(buffer, courseCode.getCode()));
+    }
+
+    @Override
+    public void coursesCleared() {
+        append(COURSES_CLEARED, 0, buffer -> { });
+    }
+
+    @Override
+    public void enrolled(String studentId, CourseCode courseCode, Semester semester,
+                         LocalDate enrollmentDate, double marks, boolean active) {
+        append(ENROLLED, sizeOf(studentId) + sizeOf(courseCode.getCode()) + 1 + 8 + 8 + 1, buffer -> {
+            putString(buffer, studentId);
+            putString(buffer, courseCode.getCode());
+            putSemester(buffer, semester);
+            buffer.putLong(enrollmentDate.toEpochDay());
+            buffer.putDouble(marks);
+            buffer.put((byte) (active ? 1 : 0));
+        });
+    }
+
+    @Override
+    public void unenrolled(String studentId, CourseCode courseCode, Semester semester) {
+        append(UNENROLLED, sizeOf(studentId) + sizeOf(courseCode.getCode()) + 1, buffer -> {
+            putString(buffer, studentId);
+            putString(buffer, courseCode.getCode());
+            putSemester(buffer, semester);
+        });
+    }
+
+    @Override
+    public void gradeRecorded(String studentId, CourseCode courseCode, Semester semester, double marks) {
+        append(GRADE_RECORDED, sizeOf(studentId) + sizeOf(courseCode.getCode()) + 1 + 8, buffer -> {
+            putString(buffer, studentId);
+            putString(buffer, courseCode.getCode());
+            putSemester(buffer, semester);
+            buffer.putDouble(marks);
+        });
+    }
+
+    @Override
+    public void enrollmentsCleared() {
+        append(ENROLLMENTS_CLEARED, 0, buffer -> { });
+    }
+
+    // --- Replay ----------------------------------------------------------
+
+    /**
+     * Sequential reader that validates each record and dispatches it to a
+     * MutationJournal. Stops at the first incomplete or corrupt record.
+     */
+    private static class LogReader {
+        private static final int READ_BUFFER_SIZE = MAX_RECORD_SIZE + RECORD_OVERHEAD;
+
+        private final FileChannel channel;
+        private final long afterLsn;
+        private final MutationJournal target;
+        private final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final CRC32 crc = new CRC32();
+        private long bufferStart; // File offset of buffer[0]
+        long validEnd;
+        long lastLsn;
+        long records;
+
+        LogReader(FileChannel channel, long afterLsn, MutationJournal target) {
+            this.channel = channel;
+            this.afterLsn = afterLsn;
+            this.target = target;
+            buffer.limit(0);
+        }
+
+        void readAll() throws IOException {
+            long size = channel.size();
+
+            while (validEnd < size) {
+                if (!fill(4)) {
+                    return;
+                }
+                int length = buffer.getInt(buffer.position());
+                if (length < 9 || length > MAX_RECORD_SIZE || !fill(4 + length + 4)) {
+                    return;
+                }
+
+                int start = buffer.position();
+                crc.reset();
+                crc.update(buffer.array(), start + 4, length);
+                if (buffer.getInt(start + 4 + length) != (int) crc.getValue()) {
+                    return;
+                }
+
+                buffer.position(start + 4);
+                byte type = buffer.get();
+                long lsn = buffer.getLong();
+                if (lsn > afterLsn) {
+                    ByteBuffer payload = buffer.slice();
+                    payload.limit(length - 9);
+                    try {
+                        dispatch(type, payload);
+                    } catch (RuntimeException e) {
+                        // The record itself is intact; report it and keep going
+                        System.err.println("Write-ahead log: could not apply record " + lsn + " - " + e.getMessage());
+                    }
+                    records++;
+                }
+
+                buffer.position(start + 4 + length + 4);
+                validEnd = bufferStart + buffer.position();
+                lastLsn = lsn;
+            }
+        }
+
+        // Make at least n bytes available from the current position
+        private boolean fill(int n) throws IOException {
+            if (buffer.remaining() >= n) {
+                return true;
+            }
+            bufferStart += buffer.position();
+            buffer.compact();
+            while (buffer.position() < n) {
+                if (channel.read(buffer, bufferStart + buffer.position()) <= 0) {
+                    buffer.flip();
+                    return false;
+                }
+            }
+            buffer.flip();
+            return true;
+        }
+
+        private static String getString(ByteBuffer buffer) {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+
+        private static Semester getSemester(ByteBuffer buffer) {
+            byte ordinal = buffer.get();
+            return ordinal >= 0 ? Semester.values()[ordinal] : null;
+        }
+
+        private void dispatch(byte type, ByteBuffer payload) {
+            switch (type) {
+                case STUDENT_CREATED -> target.studentCreated(readStudent(payload));
+                case STUDENT_UPDATED -> target.studentUpdated(readStudent(payload));
+                case STUDENT_DELETED -> target.studentDeleted(getString(payload));
+                case STUDENTS_CLEARED -> target.studentsCleared();
+                case COURSE_CREATED -> target.courseCreated(readCourse(payload));
+                case COURSE_UPDATED -> target.courseUpdated(readCourse(payload));
+                case COURSE_DELETED -> target.courseDeleted(CourseCode.of(getString(payload)));
+                case COURSES_CLEARED -> target.coursesCleared();
+                case ENROLLED -> target.enrolled(getString(payload), CourseCode.of(getString(payload)),
+                    getSemester(payload), LocalDate.ofEpochDay(payload.getLong()), payload.getDouble(),
+                    payload.get() != 0);
+                case UNENROLLED -> target.unenrolled(getString(payload), CourseCode.of(getString(payload)),
+                    getSemester(payload));
+                case GRADE_RECORDED -> target.gradeRecorded(getString(payload), CourseCode.of(getString(payload)),
+                    getSemester(payload), payload.getDouble());
+                case ENROLLMENTS_CLEARED -> target.enrollmentsCleared();
+                default -> throw new IllegalStateException("Unknown write-ahead log record type: " + type);
+            }
+        }
+
+        private static Student readStudent(ByteBuffer payload) {
+            String id = getString(payload);
+            String regNo = getString(payload);
+            Name name = new Name(getString(payload), getString(payload), getString(payload));
+            Student student = new Student(id, regNo, name, getString(payload));
+            student.setStatus(Student.StudentStatus.values()[payload.get()]);
+            student.setActive(payload.get() != 0);
+            return student;
+        }
+
+        private static Course readCourse(ByteBuffer payload) {
+            CourseCode code = CourseCode.of(getString(payload));
+            String title = getString(payload);
+            String department = getString(payload);
+            int credits = payload.get();
+            Course.Builder builder = new Course.Builder(code, title, credits)
+                .department(department)
+                .semester(getSemester(payload))
+                .maxEnrollment(payload.getInt());
+            boolean active = payload.get() != 0;
+            int prerequisites = payload.getInt();
+            for (int i = 0; i < prerequisites; i++) {
+                builder.prerequisite(getString(payload));
+            }
+            if (payload.get() != 0) {
+                String id = getString(payload);
+                Name name = new Name(getString(payload), getString(payload), getString(payload));
+                builder.instructor(new Instructor(id, name, getString(payload), getString(payload),
+                    getString(payload)));
+            }
+            Course course = builder.build();
+            course.setActive(active);
+            return course;
+        }
+    }
+}
\ No newline at end of file